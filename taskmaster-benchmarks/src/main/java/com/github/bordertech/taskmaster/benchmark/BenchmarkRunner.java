@@ -0,0 +1,42 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the GC profiler so each benchmark also reports the allocations per operation
+ * ({@code gc.alloc.rate.norm}).
+ * <p>
+ * Accepts the standard JMH command line options, for example:
+ * </p>
+ * <pre>
+ * java -jar taskmaster-benchmarks/target/benchmarks.jar SubmitBenchmark -p pool=bench-fixed
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * Private constructor.
+	 */
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * @param args the JMH command line options
+	 * @throws RunnerException an exception running the benchmarks
+	 * @throws CommandLineOptionException invalid command line options
+	 */
+	public static void main(final String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
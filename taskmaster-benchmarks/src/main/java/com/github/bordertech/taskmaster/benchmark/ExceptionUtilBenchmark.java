@@ -0,0 +1,54 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.service.util.ExceptionUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ExceptionUtil#getSerializableException(Exception)} for serializable and non serializable exceptions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExceptionUtilBenchmark {
+
+	private final Exception serializable = new IllegalStateException("serializable");
+	private final Exception notSerializable = new NotSerializableException("not serializable");
+
+	@Benchmark
+	public Exception serializableException() {
+		return ExceptionUtil.getSerializableException(serializable);
+	}
+
+	@Benchmark
+	public Exception notSerializableException() {
+		return ExceptionUtil.getSerializableException(notSerializable);
+	}
+
+	/**
+	 * Exception holding a field that cannot be serialized.
+	 */
+	public static class NotSerializableException extends Exception {
+
+		private final Object notSerializable = new Object();
+
+		/**
+		 * @param msg the message
+		 */
+		public NotSerializableException(final String msg) {
+			super(msg);
+		}
+	}
+
+}
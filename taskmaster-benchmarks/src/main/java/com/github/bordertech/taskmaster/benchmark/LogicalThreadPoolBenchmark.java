@@ -0,0 +1,49 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.logical.LogicalThreadPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LogicalThreadPool#getAccess()} and {@link LogicalThreadPool#finished()} with more threads than permits.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class LogicalThreadPoolBenchmark {
+
+	@Param({"1", "4", "16"})
+	private int max;
+
+	private LogicalThreadPool pool;
+
+	@Setup
+	public void setup() {
+		pool = new LogicalThreadPool("bench", max);
+	}
+
+	@Benchmark
+	public boolean getAccessFinished() {
+		boolean access = pool.getAccess();
+		if (access) {
+			pool.finished();
+		}
+		return access;
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.logical.LogicalThreadPool;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Blocking access to a logical thread pool with more threads than permits, comparing the previous Semaphore based pool
+ * with the fair and unfair event driven pool.
+ * <p>
+ * Each operation waits for a permit, does a small amount of work while holding it and then releases it. The
+ * {@code async} benchmark requests the permit with {@link LogicalThreadPool#acquireAsync()} and joins the stage.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class LogicalThreadPoolContentionBenchmark {
+
+	private static final int WAIT_INTERVAL = 300;
+	private static final int MAX_WAIT_INTERVALS = 200;
+
+	@Param({"1", "4"})
+	private int max;
+
+	@Param({"100"})
+	private int work;
+
+	private SemaphoreLogicalThreadPool semaphorePool;
+	private LogicalThreadPool fairPool;
+	private LogicalThreadPool unfairPool;
+
+	@Setup
+	public void setup() {
+		semaphorePool = new SemaphoreLogicalThreadPool(max);
+		fairPool = new LogicalThreadPool("bench-fair", max, true);
+		unfairPool = new LogicalThreadPool("bench-unfair", max, false);
+	}
+
+	@Benchmark
+	public void semaphore() {
+		semaphorePool.waitAccess(WAIT_INTERVAL, MAX_WAIT_INTERVALS);
+		try {
+			Blackhole.consumeCPU(work);
+		} finally {
+			semaphorePool.finished();
+		}
+	}
+
+	@Benchmark
+	public void eventFair() {
+		fairPool.waitAccess(WAIT_INTERVAL, MAX_WAIT_INTERVALS);
+		try {
+			Blackhole.consumeCPU(work);
+		} finally {
+			fairPool.finished();
+		}
+	}
+
+	@Benchmark
+	public void eventUnfair() {
+		unfairPool.waitAccess(WAIT_INTERVAL, MAX_WAIT_INTERVALS);
+		try {
+			Blackhole.consumeCPU(work);
+		} finally {
+			unfairPool.finished();
+		}
+	}
+
+	@Benchmark
+	public void eventUnfairAsync() {
+		CompletableFuture<LogicalThreadPool> access = unfairPool.acquireAsync().toCompletableFuture();
+		access.join();
+		try {
+			Blackhole.consumeCPU(work);
+		} finally {
+			unfairPool.finished();
+		}
+	}
+
+	@Benchmark
+	public boolean isShutdownSemaphore() {
+		return semaphorePool.isShutdown();
+	}
+
+	@Benchmark
+	public boolean isShutdownEvent() {
+		return fairPool.isShutdown();
+	}
+
+}
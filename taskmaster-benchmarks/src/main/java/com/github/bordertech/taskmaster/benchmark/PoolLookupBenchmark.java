@@ -0,0 +1,139 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.TaskMaster;
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import com.github.bordertech.taskmaster.impl.TaskMasterPoolUtil;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark for the pool lookup on the submit path with 1 to 64 submitting threads.
+ * <p>
+ * The synchronized benchmarks replicate the previous {@code static synchronized} lookup over a {@link HashMap} as a
+ * baseline for the lock free {@link TaskMasterPoolUtil#getPool(String)}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoolLookupBenchmark {
+
+	private static final String POOL = "bench-cached";
+
+	private static final Runnable NOOP = () -> {
+		// Do nothing
+	};
+
+	private final Map<String, ExecutorService> syncPools = new HashMap<>();
+
+	@Setup
+	public void setup() {
+		syncPools.put(POOL, TaskMasterPoolUtil.getPool(POOL));
+	}
+
+	@Benchmark
+	@Threads(1)
+	public ExecutorService lookup01() {
+		return TaskMasterPoolUtil.getPool(POOL);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public ExecutorService lookup04() {
+		return TaskMasterPoolUtil.getPool(POOL);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public ExecutorService lookup16() {
+		return TaskMasterPoolUtil.getPool(POOL);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public ExecutorService lookup64() {
+		return TaskMasterPoolUtil.getPool(POOL);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public ExecutorService syncLookup01() {
+		return syncLookup(POOL);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public ExecutorService syncLookup04() {
+		return syncLookup(POOL);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public ExecutorService syncLookup16() {
+		return syncLookup(POOL);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public ExecutorService syncLookup64() {
+		return syncLookup(POOL);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public TaskFuture<Boolean> submit01() throws RejectedTaskException {
+		return TaskMaster.submit(NOOP, Boolean.TRUE, POOL);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public TaskFuture<Boolean> submit04() throws RejectedTaskException {
+		return TaskMaster.submit(NOOP, Boolean.TRUE, POOL);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public TaskFuture<Boolean> submit16() throws RejectedTaskException {
+		return TaskMaster.submit(NOOP, Boolean.TRUE, POOL);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public TaskFuture<Boolean> submit64() throws RejectedTaskException {
+		return TaskMaster.submit(NOOP, Boolean.TRUE, POOL);
+	}
+
+	/**
+	 * The previous lookup implementation.
+	 *
+	 * @param name the pool name
+	 * @return the pool
+	 */
+	private ExecutorService syncLookup(final String name) {
+		synchronized (PoolLookupBenchmark.class) {
+			ExecutorService pool = syncPools.get(name);
+			if (pool.isTerminated()) {
+				throw new IllegalStateException("Pool [" + name + "] has terminated.");
+			}
+			return pool;
+		}
+	}
+
+}
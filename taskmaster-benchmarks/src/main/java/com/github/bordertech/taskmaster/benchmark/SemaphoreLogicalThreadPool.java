@@ -0,0 +1,88 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The previous LogicalThreadPool permit handling kept as a baseline for {@link LogicalThreadPoolContentionBenchmark}.
+ * <p>
+ * Permits are guarded by a fair Semaphore, the shutdown flag is read under a lock and waiters poll with a timed
+ * acquire.
+ * </p>
+ */
+class SemaphoreLogicalThreadPool {
+
+	private final int max;
+	private final Semaphore semaphore;
+	private boolean shutdown;
+
+	/**
+	 * @param max the maximum threads
+	 */
+	SemaphoreLogicalThreadPool(final int max) {
+		this.max = max;
+		this.semaphore = new Semaphore(max, true);
+	}
+
+	/**
+	 * @return true if thread pool is shutdown
+	 */
+	synchronized boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * @return the current threads in use
+	 */
+	int getCurrent() {
+		return max - semaphore.availablePermits();
+	}
+
+	/**
+	 * Called when a thread finishes processing.
+	 */
+	void finished() {
+		if (getCurrent() > 0) {
+			semaphore.release();
+		}
+	}
+
+	/**
+	 * @param waitInterval the wait interval in milliseconds
+	 * @param maxWaitIntervals the max number of waits
+	 */
+	void waitAccess(final int waitInterval, final int maxWaitIntervals) {
+		checkPoolStatus();
+		int counts = 0;
+		while (!getAccess(waitInterval, TimeUnit.MILLISECONDS)) {
+			if (counts++ > maxWaitIntervals) {
+				throw new IllegalStateException("Maximum attempts to get a thread exceeded.");
+			}
+		}
+	}
+
+	/**
+	 * @param timeout the wait interval
+	 * @param unit the interval unit
+	 * @return true if the thread pool has available threads
+	 */
+	private boolean getAccess(final long timeout, final TimeUnit unit) {
+		checkPoolStatus();
+		try {
+			return semaphore.tryAcquire(timeout, unit);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while trying to gain access to thread pool.", e);
+		}
+	}
+
+	/**
+	 * Check if the pool is OK for processing.
+	 */
+	private void checkPoolStatus() {
+		if (isShutdown()) {
+			throw new IllegalStateException("Thread pool is shutdown for processing.");
+		}
+	}
+
+}
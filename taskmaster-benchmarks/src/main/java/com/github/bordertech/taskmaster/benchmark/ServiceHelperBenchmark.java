@@ -0,0 +1,83 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.ServiceAction;
+import com.github.bordertech.taskmaster.service.ServiceHelper;
+import com.github.bordertech.taskmaster.service.util.ServiceCacheUtil;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ServiceHelper} submitAsync and invokeSync with cache hits and misses.
+ * <p>
+ * The miss benchmarks remove the key after the call so every call is a miss and the cache does not grow.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceHelperBenchmark {
+
+	private static final String HIT_KEY = "hit";
+	private static final String MISS_KEY = "miss";
+	private static final String POOL = "bench-cached";
+
+	private static final ServiceAction<String, String> ACTION = criteria -> criteria;
+
+	private Cache<String, ResultHolder> cache;
+
+	@Setup
+	public void setup() throws Exception {
+		cache = ServiceCacheUtil.getResultHolderCache("bench-resultholder");
+		ServiceHelper.invokeSync(HIT_KEY, ACTION, cache, HIT_KEY);
+	}
+
+	@Benchmark
+	public ResultHolder<String, String> invokeSync() throws Exception {
+		return ServiceHelper.invokeSync(HIT_KEY, ACTION);
+	}
+
+	@Benchmark
+	public ResultHolder<String, String> invokeSyncCacheHit() throws Exception {
+		return ServiceHelper.invokeSync(HIT_KEY, ACTION, cache, HIT_KEY);
+	}
+
+	@Benchmark
+	public ResultHolder<String, String> invokeSyncCacheMiss() throws Exception {
+		ResultHolder<String, String> result = ServiceHelper.invokeSync(MISS_KEY, ACTION, cache, MISS_KEY);
+		cache.remove(MISS_KEY);
+		return result;
+	}
+
+	@Benchmark
+	public TaskFuture<ResultHolder<String, String>> submitAsync() throws Exception {
+		return ServiceHelper.submitAsync(HIT_KEY, ACTION, POOL);
+	}
+
+	@Benchmark
+	public TaskFuture<ResultHolder<String, String>> submitAsyncCacheHit() throws Exception {
+		return ServiceHelper.submitAsync(HIT_KEY, ACTION, cache, HIT_KEY, POOL);
+	}
+
+	@Benchmark
+	public ResultHolder<String, String> submitAsyncCacheMiss() throws Exception {
+		ResultHolder<String, String> result = ServiceHelper.submitAsync(MISS_KEY, ACTION, cache, MISS_KEY, POOL).get();
+		cache.remove(MISS_KEY);
+		return result;
+	}
+
+}
@@ -0,0 +1,74 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.TaskMaster;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link TaskMaster#submit(Runnable, java.io.Serializable, String)} throughput and latency for each pool type.
+ * <p>
+ * The latency is the time to submit the task (not to run it). The pools are defined in bordertech-app.properties.
+ * </p>
+ * <p>
+ * The fixed and single pools have unbounded queues that would grow faster than they drain, so each thread waits for
+ * every {@link #MAX_OUTSTANDING}th task it submits to complete. This bounds the work outstanding and the samples
+ * include the occasional wait.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SubmitBenchmark {
+
+	/**
+	 * Tasks a thread submits before it waits for one to complete.
+	 */
+	private static final int MAX_OUTSTANDING = 64;
+
+	private static final Runnable NOOP = () -> {
+		// Do nothing
+	};
+
+	@Param({"bench-cached", "bench-fixed", "bench-single", "bench-virtual", "bench-forkjoin"})
+	private String pool;
+
+	@Benchmark
+	public TaskFuture<Boolean> submit(final Outstanding outstanding) throws Exception {
+		TaskFuture<Boolean> future = TaskMaster.submit(NOOP, Boolean.TRUE, pool);
+		if (++outstanding.submitted % MAX_OUTSTANDING == 0) {
+			// Queues are FIFO so the earlier tasks have started once this one completes
+			future.get();
+		}
+		return future;
+	}
+
+	@Benchmark
+	public Boolean submitAndGet() throws Exception {
+		return TaskMaster.submit(NOOP, Boolean.TRUE, pool).get();
+	}
+
+	/**
+	 * Tasks submitted by a benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class Outstanding {
+
+		private int submitted;
+	}
+
+}
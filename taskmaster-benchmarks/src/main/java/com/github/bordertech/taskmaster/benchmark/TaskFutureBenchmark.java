@@ -0,0 +1,61 @@
+package com.github.bordertech.taskmaster.benchmark;
+
+import com.github.bordertech.taskmaster.impl.TaskFutureWrapper;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Overhead of {@link TaskFutureWrapper} {@code get} and {@code isDone} compared to the raw {@link java.util.concurrent.Future}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskFutureBenchmark {
+
+	private FutureTask<Boolean> raw;
+	private TaskFutureWrapper<Boolean> wrapper;
+
+	@Setup
+	public void setup() {
+		raw = new FutureTask<>(() -> {
+			// Do nothing
+		}, Boolean.TRUE);
+		raw.run();
+		wrapper = new TaskFutureWrapper<>(raw);
+	}
+
+	@Benchmark
+	public boolean rawIsDone() {
+		return raw.isDone();
+	}
+
+	@Benchmark
+	public boolean wrapperIsDone() {
+		return wrapper.isDone();
+	}
+
+	@Benchmark
+	public Boolean rawGet() throws InterruptedException, ExecutionException {
+		return raw.get();
+	}
+
+	@Benchmark
+	public Boolean wrapperGet() throws InterruptedException, ExecutionException {
+		return wrapper.get();
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.github.bordertech.taskmaster;
+
+/**
+ * A task that is told when TaskMaster will not run it.
+ * <p>
+ * A task may not be run because its pool was saturated and it was dropped, or its deadline passed while it was
+ * waiting. By default the task's future completes with the reason as the exception. An abortable task instead records
+ * the reason in its own result (eg a result holder) and the future completes normally with that result.
+ * </p>
+ */
+public interface AbortableTask extends Runnable {
+
+	/**
+	 * Abort the task so it will not run.
+	 * <p>
+	 * Called at most once and only before the task has started. Implementations must make sure {@link #run()} does
+	 * nothing once the task has been aborted.
+	 * </p>
+	 *
+	 * @param reason the reason the task will not run
+	 * @return true if the task was aborted, false if the task has already started
+	 */
+	boolean abort(Throwable reason);
+
+	/**
+	 * The task has run past its timeout.
+	 * <p>
+	 * Called at most once while the task is running, from the timer thread. The thread running the task is interrupted
+	 * after this call. Implementations that return true must make sure the result is not changed by the still running
+	 * task once the timeout has been recorded.
+	 * </p>
+	 *
+	 * @param reason the timeout exception
+	 * @return true if the result holds the outcome of the task, false to complete the future with the reason
+	 */
+	default boolean timeout(final Throwable reason) {
+		return false;
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.github.bordertech.taskmaster;
+
+import java.io.Serializable;
+
+/**
+ * A single {@link TaskFuture} for a batch of tasks.
+ * <p>
+ * The future completes once every task in the batch has finished. The progress of the batch can be polled without
+ * blocking via the completed and total counts and the status of each task.
+ * </p>
+ *
+ * @param <T> the task result type
+ */
+public interface TaskBatchFuture<T extends Serializable> extends TaskFuture<TaskBatchResult<T>> {
+
+	/**
+	 * @return the number of tasks in the batch
+	 */
+	int getTotalCount();
+
+	/**
+	 * @return the number of tasks that have finished (completed, failed or cancelled)
+	 */
+	int getCompletedCount();
+
+	/**
+	 * @param index the task index in the batch
+	 * @return the status of the task
+	 */
+	TaskStatus getStatus(int index);
+
+}
@@ -0,0 +1,100 @@
+package com.github.bordertech.taskmaster;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The status and results of each task in a batch.
+ *
+ * @param <T> the task result type
+ */
+public class TaskBatchResult<T extends Serializable> implements Serializable {
+
+	private final ArrayList<TaskStatus> statuses;
+	private final ArrayList<T> results;
+	private final ArrayList<Throwable> exceptions;
+
+	/**
+	 * @param statuses the status of each task
+	 * @param results the result of each task (null if the task did not complete successfully)
+	 * @param exceptions the exception of each task (null if the task did not fail)
+	 */
+	public TaskBatchResult(final List<TaskStatus> statuses, final List<T> results, final List<Throwable> exceptions) {
+		if (statuses.size() != results.size() || statuses.size() != exceptions.size()) {
+			throw new IllegalArgumentException("Statuses, results and exceptions must be the same size.");
+		}
+		this.statuses = new ArrayList<>(statuses);
+		this.results = new ArrayList<>(results);
+		this.exceptions = new ArrayList<>(exceptions);
+	}
+
+	/**
+	 * @return the number of tasks in the batch
+	 */
+	public int getTotalCount() {
+		return statuses.size();
+	}
+
+	/**
+	 * @return the number of tasks that have finished
+	 */
+	public int getCompletedCount() {
+		int count = 0;
+		for (TaskStatus status : statuses) {
+			if (status.isDone()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of tasks that failed
+	 */
+	public int getFailedCount() {
+		int count = 0;
+		for (TaskStatus status : statuses) {
+			if (status == TaskStatus.FAILED) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param index the task index in the batch
+	 * @return the status of the task
+	 */
+	public TaskStatus getStatus(final int index) {
+		return statuses.get(index);
+	}
+
+	/**
+	 * @param index the task index in the batch
+	 * @return the result of the task
+	 * @throws ExecutionException if the task failed
+	 * @throws CancellationException if the task was cancelled
+	 */
+	public T getResult(final int index) throws ExecutionException {
+		switch (statuses.get(index)) {
+			case FAILED:
+				throw new ExecutionException(exceptions.get(index));
+			case CANCELLED:
+				throw new CancellationException("Task was cancelled.");
+			default:
+				return results.get(index);
+		}
+	}
+
+	/**
+	 * @param index the task index in the batch
+	 * @return the exception the task failed with or null
+	 */
+	public Throwable getException(final int index) {
+		return exceptions.get(index);
+	}
+
+}
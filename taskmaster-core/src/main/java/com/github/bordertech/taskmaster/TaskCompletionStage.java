@@ -0,0 +1,18 @@
+package com.github.bordertech.taskmaster;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link TaskFuture} that is also a {@link CompletionStage} so dependent actions can be chained without a thread
+ * blocking on the result.
+ * <p>
+ * Async dependent actions that do not provide an executor are run on the callback thread pool given when the task was
+ * submitted. Like TaskFuture, it is serializable via the cache key of the backing future.
+ * </p>
+ *
+ * @param <T> the future get result type
+ */
+public interface TaskCompletionStage<T extends Serializable> extends TaskFuture<T>, CompletionStage<T> {
+
+}
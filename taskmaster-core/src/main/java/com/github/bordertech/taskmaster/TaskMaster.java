@@ -4,6 +4,8 @@ import com.github.bordertech.didums.Didums;
 import com.github.bordertech.taskmaster.exception.RejectedTaskException;
 import com.github.bordertech.taskmaster.impl.TaskMasterProviderExecutorService;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TaskMaster helps projects run ASYNC tasks.
@@ -40,9 +42,23 @@ public final class TaskMaster {
 		return PROVIDER;
 	}
 
+	/**
+	 * Build the thread pools flagged to prestart and start their threads in the background.
+	 * <p>
+	 * Thread pools are otherwise built the first time they are used. Does nothing if no pool has been flagged with
+	 * {@code bordertech.taskmaster.pool.<name>.prestart}.
+	 * </p>
+	 */
+	public static void prestart() {
+		PROVIDER.prestart();
+	}
+
 	/**
 	 * Initiates an orderly shutdown in which previously submitted tasks are executed, but no new tasks will be
 	 * accepted. Invocation has no additional effect if already shut down.
+	 * <p>
+	 * Waits up to {@code bordertech.taskmaster.shutdown.timeout} milliseconds (default 30000) for the thread pools to drain.
+	 * </p>
 	 *
 	 * @throws SecurityException if a security manager exists and shutting down this ExecutorService may manipulate
 	 * threads that the caller is not permitted to modify because it does not hold permission
@@ -51,6 +67,20 @@ public final class TaskMaster {
 		PROVIDER.shutdown();
 	}
 
+	/**
+	 * Initiates an orderly shutdown that waits up to the timeout for previously submitted tasks to be executed. No new
+	 * tasks will be accepted. Tasks still queued at the deadline are dropped and running tasks are interrupted.
+	 *
+	 * @param timeout the maximum time to wait for the thread pools to drain
+	 * @param unit the time unit of the timeout
+	 * @return the report of the tasks completed, dropped and interrupted in each thread pool
+	 * @throws SecurityException if a security manager exists and shutting down this ExecutorService may manipulate
+	 * threads that the caller is not permitted to modify because it does not hold permission
+	 */
+	public static TaskShutdownReport shutdown(final long timeout, final TimeUnit unit) {
+		return PROVIDER.shutdown(timeout, unit);
+	}
+
 	/**
 	 * Attempts to stop all actively executing tasks, halts the processing of waiting tasks.
 	 *
@@ -92,4 +122,128 @@ public final class TaskMaster {
 	public static <T extends Serializable> TaskFuture<T> submit(final Runnable task, final T result, final String pool) throws RejectedTaskException {
 		return PROVIDER.submit(task, result, pool);
 	}
+
+	/**
+	 * Submits a Runnable task for execution with scheduling options and returns a Future representing that task. The
+	 * Future's get method will return the given result upon successful completion.
+	 * <p>
+	 * Pools with the {@code priority} queue mode run waiting tasks by priority and then earliest deadline. A task whose
+	 * deadline has passed before it starts is not run and its Future completes with a TaskExpiredException.
+	 * </p>
+	 * <p>
+	 * A task that runs longer than its timeout (or the pool default {@code timeout}) is interrupted and its Future
+	 * completes with a TaskTimeoutException.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @param pool the thread pool name, or null if no pool
+	 * @param options the priority, deadline and timeout of the task
+	 * @return a Future representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	public static <T extends Serializable> TaskFuture<T> submit(final Runnable task, final T result, final String pool,
+			final TaskOptions options) throws RejectedTaskException {
+		return PROVIDER.submit(task, result, pool, options);
+	}
+
+	/**
+	 * Submits a Runnable task for execution and returns a CompletionStage representing that task. The stage completes
+	 * with the given result upon successful completion.
+	 * <p>
+	 * Dependent actions can be chained without blocking a thread. Async dependent actions that do not provide an executor
+	 * run on the callback thread pool.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @param pool the thread pool name, or null if no pool
+	 * @param callbackPool the thread pool name to run async dependent actions, or null to use the task's pool
+	 * @return a CompletionStage representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	public static <T extends Serializable> TaskCompletionStage<T> submitStage(final Runnable task, final T result, final String pool,
+			final String callbackPool) throws RejectedTaskException {
+		return PROVIDER.submitStage(task, result, pool, callbackPool);
+	}
+
+	/**
+	 * Schedules a Runnable task to run once after the delay on the default thread pool.
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to schedule
+	 * @param result the result to return
+	 * @param delay the delay until the task runs
+	 * @param unit the time unit of the delay
+	 * @return a Future representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	public static <T extends Serializable> TaskFuture<T> schedule(final Runnable task, final T result, final long delay, final TimeUnit unit)
+			throws RejectedTaskException {
+		return PROVIDER.schedule(task, result, delay, unit, null);
+	}
+
+	/**
+	 * Schedules a Runnable task to run once after the delay and returns a Future representing that task. The Future's
+	 * get method will return the given result upon successful completion.
+	 * <p>
+	 * Scheduled tasks are held by a single timer thread until they are due and then handed to the thread pool.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to schedule
+	 * @param result the result to return
+	 * @param delay the delay until the task runs
+	 * @param unit the time unit of the delay
+	 * @param pool the thread pool name, or null for the default pool
+	 * @return a Future representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	public static <T extends Serializable> TaskFuture<T> schedule(final Runnable task, final T result, final long delay, final TimeUnit unit,
+			final String pool) throws RejectedTaskException {
+		return PROVIDER.schedule(task, result, delay, unit, pool);
+	}
+
+	/**
+	 * Schedules a Runnable task to run periodically at a fixed rate and returns a Future representing that task.
+	 * <p>
+	 * The Future only completes if it is cancelled or a run throws an exception.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to schedule
+	 * @param result the result type of the future
+	 * @param initialDelay the delay until the first run
+	 * @param period the period between the start of each run
+	 * @param unit the time unit of the initial delay and period
+	 * @param pool the thread pool name, or null for the default pool
+	 * @return a Future representing the periodic task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	public static <T extends Serializable> TaskFuture<T> scheduleAtFixedRate(final Runnable task, final T result, final long initialDelay,
+			final long period, final TimeUnit unit, final String pool) throws RejectedTaskException {
+		return PROVIDER.scheduleAtFixedRate(task, result, initialDelay, period, unit, pool);
+	}
+
+	/**
+	 * Submits a batch of Runnable tasks for execution and returns one Future representing the whole batch. Each task
+	 * completes with the given result upon successful completion.
+	 * <p>
+	 * The batch future reports the completed and total counts, and the status of each task, so it can be polled once
+	 * per batch instead of once per task.
+	 * </p>
+	 *
+	 * @param <T> the type for the task results
+	 * @param tasks the tasks to submit
+	 * @param result the result to return for each task
+	 * @param pool the thread pool name, or null if no pool
+	 * @return a Future representing pending completion of the batch
+	 * @throws RejectedTaskException if the batch cannot be scheduled for execution
+	 */
+	public static <T extends Serializable> TaskBatchFuture<T> submitAll(final Collection<? extends Runnable> tasks, final T result,
+			final String pool) throws RejectedTaskException {
+		return PROVIDER.submitAll(tasks, result, pool);
+	}
 }
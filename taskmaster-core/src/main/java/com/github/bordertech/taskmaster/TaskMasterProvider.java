@@ -2,6 +2,8 @@ package com.github.bordertech.taskmaster;
 
 import com.github.bordertech.taskmaster.exception.RejectedTaskException;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TaskMasterProvider helps projects run ASYNC tasks.
@@ -11,15 +13,39 @@ import java.io.Serializable;
  */
 public interface TaskMasterProvider {
 
+	/**
+	 * Build the thread pools flagged to prestart and start their threads in the background.
+	 * <p>
+	 * Thread pools are otherwise built the first time they are used. Does nothing if no pool has been flagged with
+	 * {@code bordertech.taskmaster.pool.<name>.prestart}.
+	 * </p>
+	 */
+	void prestart();
+
 	/**
 	 * Initiates an orderly shutdown in which previously submitted tasks are executed, but no new tasks will be
 	 * accepted. Invocation has no additional effect if already shut down.
+	 * <p>
+	 * Waits up to {@code bordertech.taskmaster.shutdown.timeout} milliseconds (default 30000) for the thread pools to drain.
+	 * </p>
 	 *
 	 * @throws SecurityException if a security manager exists and shutting down this ExecutorService may manipulate
 	 * threads that the caller is not permitted to modify because it does not hold permission
 	 */
 	void shutdown();
 
+	/**
+	 * Initiates an orderly shutdown that waits up to the timeout for previously submitted tasks to be executed. No new
+	 * tasks will be accepted. Tasks still queued at the deadline are dropped and running tasks are interrupted.
+	 *
+	 * @param timeout the maximum time to wait for the thread pools to drain
+	 * @param unit the time unit of the timeout
+	 * @return the report of the tasks completed, dropped and interrupted in each thread pool
+	 * @throws SecurityException if a security manager exists and shutting down this ExecutorService may manipulate
+	 * threads that the caller is not permitted to modify because it does not hold permission
+	 */
+	TaskShutdownReport shutdown(long timeout, TimeUnit unit);
+
 	/**
 	 * Attempts to stop all actively executing tasks, halts the processing of waiting tasks.
 	 *
@@ -56,4 +82,96 @@ public interface TaskMasterProvider {
 	 */
 	<T extends Serializable> TaskFuture<T> submit(Runnable task, T result, String pool) throws RejectedTaskException;
 
+	/**
+	 * Submits a Runnable task for execution with scheduling options and returns a Future representing that task. The
+	 * Future's get method will return the given result upon successful completion.
+	 * <p>
+	 * Pools with the {@code priority} queue mode run waiting tasks by priority and then earliest deadline. A task whose
+	 * deadline has passed before it starts is not run and its Future completes with a TaskExpiredException.
+	 * </p>
+	 * <p>
+	 * A task that runs longer than its timeout (or the pool default {@code timeout}) is interrupted and its Future
+	 * completes with a TaskTimeoutException.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @param pool the thread pool name, or null if no pool
+	 * @param options the priority, deadline and timeout of the task
+	 * @return a Future representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	<T extends Serializable> TaskFuture<T> submit(Runnable task, T result, String pool, TaskOptions options) throws RejectedTaskException;
+
+	/**
+	 * Submits a Runnable task for execution and returns a CompletionStage representing that task. The stage completes
+	 * with the given result upon successful completion.
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @param pool the thread pool name, or null if no pool
+	 * @param callbackPool the thread pool name to run async dependent actions, or null to use the task's pool
+	 * @return a CompletionStage representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	<T extends Serializable> TaskCompletionStage<T> submitStage(Runnable task, T result, String pool, String callbackPool) throws RejectedTaskException;
+
+	/**
+	 * Schedules a Runnable task to run once after the delay and returns a Future representing that task. The Future's
+	 * get method will return the given result upon successful completion.
+	 * <p>
+	 * When the delay has passed the task is handed to the thread pool. Cancelling the Future before then stops the task
+	 * being run.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to schedule
+	 * @param result the result to return
+	 * @param delay the delay until the task runs
+	 * @param unit the time unit of the delay
+	 * @param pool the thread pool name, or null for the default pool
+	 * @return a Future representing pending completion of the task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	<T extends Serializable> TaskFuture<T> schedule(Runnable task, T result, long delay, TimeUnit unit, String pool) throws RejectedTaskException;
+
+	/**
+	 * Schedules a Runnable task to run periodically at a fixed rate and returns a Future representing that task.
+	 * <p>
+	 * Each run is handed to the thread pool. If a run takes longer than the period, the next run starts as soon as it
+	 * finishes and runs never overlap. The Future only completes if it is cancelled or a run throws an exception.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to schedule
+	 * @param result the result type of the future
+	 * @param initialDelay the delay until the first run
+	 * @param period the period between the start of each run
+	 * @param unit the time unit of the initial delay and period
+	 * @param pool the thread pool name, or null for the default pool
+	 * @return a Future representing the periodic task
+	 * @throws RejectedTaskException if the task cannot be scheduled for execution
+	 */
+	<T extends Serializable> TaskFuture<T> scheduleAtFixedRate(Runnable task, T result, long initialDelay, long period, TimeUnit unit, String pool)
+			throws RejectedTaskException;
+
+	/**
+	 * Submits a batch of Runnable tasks for execution and returns one Future representing the whole batch. Each task
+	 * completes with the given result upon successful completion.
+	 * <p>
+	 * The batch is enqueued in one pass and held under one cache entry. If a task in the batch is rejected, the tasks
+	 * already enqueued are cancelled.
+	 * </p>
+	 *
+	 * @param <T> the type for the task results
+	 * @param tasks the tasks to submit
+	 * @param result the result to return for each task
+	 * @param pool the thread pool name, or null if no pool
+	 * @return a Future representing pending completion of the batch
+	 * @throws RejectedTaskException if the batch cannot be scheduled for execution
+	 */
+	<T extends Serializable> TaskBatchFuture<T> submitAll(Collection<? extends Runnable> tasks, T result, String pool) throws RejectedTaskException;
+
 }
@@ -0,0 +1,122 @@
+package com.github.bordertech.taskmaster;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options for scheduling a task.
+ * <p>
+ * Pools with the {@code priority} queue mode run waiting tasks with a higher priority first and then the task with the
+ * earliest deadline. A task whose deadline has passed before it starts is not run and its future completes with a
+ * {@link com.github.bordertech.taskmaster.exception.TaskExpiredException}.
+ * </p>
+ * <p>
+ * A task that runs longer than its timeout is interrupted and its future completes with a
+ * {@link com.github.bordertech.taskmaster.exception.TaskTimeoutException}. Without a timeout the pool default is used.
+ * </p>
+ * <p>
+ * Options are immutable. Each {@code with} method returns a new instance.
+ * </p>
+ */
+public final class TaskOptions {
+
+	/**
+	 * Default priority.
+	 */
+	public static final int NORMAL_PRIORITY = 0;
+
+	/**
+	 * No options (normal priority, no deadline and the pool default timeout).
+	 */
+	public static final TaskOptions DEFAULT = new TaskOptions(NORMAL_PRIORITY, 0, 0);
+
+	private final int priority;
+	private final long deadline;
+	private final long timeout;
+
+	/**
+	 * @param priority the task priority
+	 * @param deadline the deadline in epoch milliseconds or 0 if no deadline
+	 * @param timeout the run timeout in milliseconds or 0 for the pool default
+	 */
+	private TaskOptions(final int priority, final long deadline, final long timeout) {
+		this.priority = priority;
+		this.deadline = deadline;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @param priority the task priority, higher values run first
+	 * @return the options with the priority
+	 */
+	public TaskOptions withPriority(final int priority) {
+		return new TaskOptions(priority, deadline, timeout);
+	}
+
+	/**
+	 * @param deadline the time (epoch milliseconds) the task must start by, or 0 for no deadline
+	 * @return the options with the deadline
+	 */
+	public TaskOptions withDeadline(final long deadline) {
+		if (deadline < 0) {
+			throw new IllegalArgumentException("Deadline cannot be negative.");
+		}
+		return new TaskOptions(priority, deadline, timeout);
+	}
+
+	/**
+	 * @param delay the time from now the task must start by
+	 * @param unit the time unit of the delay
+	 * @return the options with the deadline
+	 */
+	public TaskOptions withDeadline(final long delay, final TimeUnit unit) {
+		return withDeadline(System.currentTimeMillis() + unit.toMillis(delay));
+	}
+
+	/**
+	 * @param timeout the maximum time the task can run once started, or 0 for the pool default
+	 * @param unit the time unit of the timeout
+	 * @return the options with the timeout
+	 */
+	public TaskOptions withTimeout(final long timeout, final TimeUnit unit) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Timeout cannot be negative.");
+		}
+		return new TaskOptions(priority, deadline, unit.toMillis(timeout));
+	}
+
+	/**
+	 * @return the task priority, higher values run first
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * @return the time (epoch milliseconds) the task must start by, or 0 for no deadline
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * @return true if a deadline has been set
+	 */
+	public boolean hasDeadline() {
+		return deadline > 0;
+	}
+
+	/**
+	 * @return the maximum time (milliseconds) the task can run once started, or 0 for the pool default
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @return true if a timeout has been set
+	 */
+	public boolean hasTimeout() {
+		return timeout > 0;
+	}
+
+}
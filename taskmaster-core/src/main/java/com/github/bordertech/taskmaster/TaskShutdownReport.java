@@ -0,0 +1,136 @@
+package com.github.bordertech.taskmaster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports what happened to the tasks in each thread pool during a shutdown.
+ * <p>
+ * Counts that could not be determined for a pool type are reported as -1.
+ * </p>
+ */
+public final class TaskShutdownReport {
+
+	private final List<PoolReport> pools;
+
+	/**
+	 * @param pools the report for each pool
+	 */
+	public TaskShutdownReport(final List<PoolReport> pools) {
+		this.pools = Collections.unmodifiableList(new ArrayList<>(pools));
+	}
+
+	/**
+	 * @return the report for each pool
+	 */
+	public List<PoolReport> getPools() {
+		return pools;
+	}
+
+	/**
+	 * @param pool the pool name
+	 * @return the report for the pool or null if not in the report
+	 */
+	public PoolReport getPool(final String pool) {
+		for (PoolReport report : pools) {
+			if (report.getName().equals(pool)) {
+				return report;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true if every pool terminated before the deadline without interrupting tasks
+	 */
+	public boolean isClean() {
+		for (PoolReport report : pools) {
+			if (!report.isTerminated() || report.getDropped() > 0 || report.getInterrupted() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder();
+		for (PoolReport report : pools) {
+			if (buf.length() > 0) {
+				buf.append(' ');
+			}
+			buf.append(report);
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * The shutdown counts for a pool.
+	 */
+	public static final class PoolReport {
+
+		private final String name;
+		private final int completed;
+		private final int dropped;
+		private final int interrupted;
+		private final boolean terminated;
+
+		/**
+		 * @param name the pool name
+		 * @param completed the tasks pending at shutdown that completed before the deadline
+		 * @param dropped the queued tasks that had not started by the deadline
+		 * @param interrupted the tasks still running at the deadline that were interrupted
+		 * @param terminated true if the pool terminated
+		 */
+		public PoolReport(final String name, final int completed, final int dropped, final int interrupted, final boolean terminated) {
+			this.name = name;
+			this.completed = completed;
+			this.dropped = dropped;
+			this.interrupted = interrupted;
+			this.terminated = terminated;
+		}
+
+		/**
+		 * @return the pool name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the tasks pending at shutdown that completed before the deadline, or -1 if not known
+		 */
+		public int getCompleted() {
+			return completed;
+		}
+
+		/**
+		 * @return the queued tasks that had not started by the deadline, or -1 if not known
+		 */
+		public int getDropped() {
+			return dropped;
+		}
+
+		/**
+		 * @return the tasks still running at the deadline that were interrupted, or -1 if not known
+		 */
+		public int getInterrupted() {
+			return interrupted;
+		}
+
+		/**
+		 * @return true if the pool terminated
+		 */
+		public boolean isTerminated() {
+			return terminated;
+		}
+
+		@Override
+		public String toString() {
+			return "[" + name + "] completed=" + completed + " dropped=" + dropped + " interrupted=" + interrupted
+					+ " terminated=" + terminated + ".";
+		}
+	}
+
+}
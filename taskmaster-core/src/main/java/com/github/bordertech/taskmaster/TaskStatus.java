@@ -0,0 +1,30 @@
+package com.github.bordertech.taskmaster;
+
+/**
+ * The status of a task.
+ */
+public enum TaskStatus {
+	/**
+	 * Task is waiting to run or is running.
+	 */
+	PENDING,
+	/**
+	 * Task completed successfully.
+	 */
+	COMPLETED,
+	/**
+	 * Task completed with an exception.
+	 */
+	FAILED,
+	/**
+	 * Task was cancelled.
+	 */
+	CANCELLED;
+
+	/**
+	 * @return true if the task has finished
+	 */
+	public boolean isDone() {
+		return this != PENDING;
+	}
+}
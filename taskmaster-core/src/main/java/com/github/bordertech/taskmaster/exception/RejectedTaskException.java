@@ -8,6 +8,8 @@ package com.github.bordertech.taskmaster.exception;
  */
 public class RejectedTaskException extends Exception {
 
+	private final long retryAfter;
+
 	/**
 	 * Creates a RejectedException with the specified message.
 	 *
@@ -15,6 +17,7 @@ public class RejectedTaskException extends Exception {
 	 */
 	public RejectedTaskException(final String msg) {
 		super(msg);
+		this.retryAfter = 0;
 	}
 
 	/**
@@ -25,6 +28,7 @@ public class RejectedTaskException extends Exception {
 	 */
 	public RejectedTaskException(final String msg, final Throwable throwable) {
 		super(msg, throwable);
+		this.retryAfter = 0;
 	}
 
 	/**
@@ -34,5 +38,25 @@ public class RejectedTaskException extends Exception {
 	 */
 	public RejectedTaskException(final Throwable throwable) {
 		super(throwable);
+		this.retryAfter = 0;
+	}
+
+	/**
+	 * Creates a RejectedException with the specified message, cause and an estimate of when to retry.
+	 *
+	 * @param msg the message.
+	 * @param throwable the cause of the exception.
+	 * @param retryAfter the estimated milliseconds until the task could be accepted, or 0 if not known
+	 */
+	public RejectedTaskException(final String msg, final Throwable throwable, final long retryAfter) {
+		super(msg, throwable);
+		this.retryAfter = retryAfter < 0 ? 0 : retryAfter;
+	}
+
+	/**
+	 * @return the estimated milliseconds until the task could be accepted, or 0 if not known
+	 */
+	public long getRetryAfter() {
+		return retryAfter;
 	}
 }
@@ -0,0 +1,17 @@
+package com.github.bordertech.taskmaster.exception;
+
+/**
+ * The task was not run as its deadline passed before it started.
+ */
+public class TaskExpiredException extends TaskMasterException {
+
+	/**
+	 * Creates a TaskExpiredException with the specified message.
+	 *
+	 * @param msg the message.
+	 */
+	public TaskExpiredException(final String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.github.bordertech.taskmaster.exception;
+
+/**
+ * The task was stopped as it ran longer than its timeout.
+ */
+public class TaskTimeoutException extends TaskMasterException {
+
+	/**
+	 * Creates a TaskTimeoutException with the specified message.
+	 *
+	 * @param msg the message.
+	 */
+	public TaskTimeoutException(final String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskBatchResult;
+import com.github.bordertech.taskmaster.TaskStatus;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks a batch of tasks and completes once every task in the batch has finished.
+ * <p>
+ * The batch is held in the future cache as one entry. When the last task finishes the batch runs and sets its result
+ * to a {@link TaskBatchResult} holding the outcome of each task. Cancelling the batch cancels every task.
+ * </p>
+ *
+ * @param <T> the task result type
+ */
+public class TaskBatch<T extends Serializable> extends TaskFutureTask<TaskBatchResult<T>> {
+
+	private final List<TaskFutureTask<T>> items;
+	private final AtomicInteger completedCount = new AtomicInteger();
+
+	/**
+	 * @param items the tasks in the batch
+	 * @param pool the thread pool name running the tasks or null if not known
+	 */
+	public TaskBatch(final List<TaskFutureTask<T>> items, final String pool) {
+		super(() -> buildResult(items), pool);
+		this.items = Collections.unmodifiableList(new ArrayList<>(items));
+		if (this.items.isEmpty()) {
+			run();
+			return;
+		}
+		for (TaskFutureTask<T> item : this.items) {
+			item.addCompletionListener(this::handleItemCompleted);
+		}
+	}
+
+	/**
+	 * @return the number of tasks in the batch
+	 */
+	public int getTotalCount() {
+		return items.size();
+	}
+
+	/**
+	 * @return the number of tasks that have finished
+	 */
+	public int getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/**
+	 * @param index the task index in the batch
+	 * @return the status of the task
+	 */
+	public TaskStatus getStatus(final int index) {
+		return getStatus(items.get(index));
+	}
+
+	/**
+	 * @return the tasks in the batch
+	 */
+	public List<TaskFutureTask<T>> getItems() {
+		return items;
+	}
+
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning) {
+		boolean cancelled = super.cancel(mayInterruptIfRunning);
+		if (cancelled) {
+			for (TaskFutureTask<T> item : items) {
+				item.cancel(mayInterruptIfRunning);
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Called as each task finishes. The batch completes when the last task finishes.
+	 */
+	private void handleItemCompleted() {
+		if (completedCount.incrementAndGet() == items.size()) {
+			run();
+		}
+	}
+
+	/**
+	 * @param items the tasks in the batch that have all finished
+	 * @param <T> the task result type
+	 * @return the result of each task
+	 */
+	private static <T extends Serializable> TaskBatchResult<T> buildResult(final List<TaskFutureTask<T>> items) {
+		List<TaskStatus> statuses = new ArrayList<>(items.size());
+		List<T> results = new ArrayList<>(items.size());
+		List<Throwable> exceptions = new ArrayList<>(items.size());
+		for (TaskFutureTask<T> item : items) {
+			TaskFutureCompleted<T> completed = TaskFutureCompleted.of(item);
+			TaskStatus status = getStatus(completed);
+			statuses.add(status);
+			results.add(status == TaskStatus.COMPLETED ? getResult(completed) : null);
+			exceptions.add(completed.getException());
+		}
+		return new TaskBatchResult<>(statuses, results, exceptions);
+	}
+
+	/**
+	 * @param future the task future
+	 * @return the status of the task
+	 */
+	private static TaskStatus getStatus(final Future<?> future) {
+		if (!future.isDone()) {
+			return TaskStatus.PENDING;
+		}
+		if (future.isCancelled()) {
+			return TaskStatus.CANCELLED;
+		}
+		if (future instanceof TaskFutureCompleted) {
+			return ((TaskFutureCompleted) future).getException() == null ? TaskStatus.COMPLETED : TaskStatus.FAILED;
+		}
+		return getStatus(TaskFutureCompleted.of((Future) future));
+	}
+
+	/**
+	 * @param completed the completed task
+	 * @param <T> the task result type
+	 * @return the result of the task
+	 */
+	private static <T extends Serializable> T getResult(final TaskFutureCompleted<T> completed) {
+		try {
+			return completed.get();
+		} catch (Exception e) {
+			// Only called for tasks that completed successfully
+			throw new IllegalStateException("Task did not complete successfully.", e);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskBatchFuture;
+import com.github.bordertech.taskmaster.TaskBatchResult;
+import com.github.bordertech.taskmaster.TaskStatus;
+import java.io.Serializable;
+import java.util.concurrent.Future;
+
+/**
+ * Wraps a {@link TaskBatch} so the whole batch is held under one cache entry.
+ * <p>
+ * While the batch is running the counts and statuses are read from the batch. Once the batch has completed they are
+ * read from the {@link TaskBatchResult} held in the completed cache.
+ * </p>
+ *
+ * @param <T> the task result type
+ */
+public class TaskBatchFutureWrapper<T extends Serializable> extends TaskFutureWrapper<TaskBatchResult<T>> implements TaskBatchFuture<T> {
+
+	private final int totalCount;
+
+	/**
+	 * @param batch the backing batch
+	 */
+	public TaskBatchFutureWrapper(final TaskBatch<T> batch) {
+		super(batch);
+		this.totalCount = batch.getTotalCount();
+	}
+
+	@Override
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	@Override
+	public int getCompletedCount() {
+		Future<TaskBatchResult<T>> future = getFuture();
+		if (future instanceof TaskBatch) {
+			return ((TaskBatch<T>) future).getCompletedCount();
+		}
+		TaskBatchResult<T> result = getDoneResult(future);
+		// Batch was cancelled or removed from the cache so every task is treated as finished
+		return result == null ? totalCount : result.getCompletedCount();
+	}
+
+	@Override
+	public TaskStatus getStatus(final int index) {
+		if (index < 0 || index >= totalCount) {
+			throw new IndexOutOfBoundsException("Index " + index + " is not in the batch of " + totalCount + " tasks.");
+		}
+		Future<TaskBatchResult<T>> future = getFuture();
+		if (future instanceof TaskBatch) {
+			return ((TaskBatch<T>) future).getStatus(index);
+		}
+		TaskBatchResult<T> result = getDoneResult(future);
+		if (result != null) {
+			return result.getStatus(index);
+		}
+		return future.isCancelled() ? TaskStatus.CANCELLED : TaskStatus.FAILED;
+	}
+
+	/**
+	 * @param future the batch future that is done
+	 * @return the batch result or null if the batch did not complete successfully
+	 */
+	private TaskBatchResult<T> getDoneResult(final Future<TaskBatchResult<T>> future) {
+		if (!future.isDone() || future.isCancelled()) {
+			return null;
+		}
+		TaskFutureCompleted<TaskBatchResult<T>> completed = TaskFutureCompleted.of(future);
+		if (completed.isCancelled() || completed.getException() != null) {
+			return null;
+		}
+		try {
+			return completed.get();
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,303 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskCompletionStage;
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Wraps the future so it can be used as a {@link CompletionStage}.
+ * <p>
+ * Dependent actions are chained off a {@link CompletableFuture} that is completed by the task itself, so no thread is
+ * blocked waiting for the result. Only the callback pool name is serialized. A wrapper that is deserialized in another
+ * JVM can still chain actions but the stage is built from the completed result or, if the task is still running, is
+ * completed by {@link TaskFutureStageListener} when the future is moved to the completed cache. The stage is built once
+ * per wrapper instance.
+ * </p>
+ *
+ * @param <T> the future get type
+ */
+public class TaskCompletionStageWrapper<T extends Serializable> extends TaskFutureWrapper<T> implements TaskCompletionStage<T> {
+
+	private final String callbackPool;
+
+	/**
+	 * The stage once built. Transient as it is built again where the wrapper is deserialized.
+	 */
+	private transient volatile CompletableFuture<T> stage;
+
+	/**
+	 * @param future the backing future
+	 * @param callbackPool the thread pool name to run async dependent actions
+	 */
+	public TaskCompletionStageWrapper(final Future<T> future, final String callbackPool) {
+		super(future);
+		this.callbackPool = callbackPool;
+	}
+
+	/**
+	 * @return the thread pool name to run async dependent actions
+	 */
+	public String getCallbackPool() {
+		return callbackPool;
+	}
+
+	@Override
+	public <U> CompletionStage<U> thenApply(final Function<? super T, ? extends U> fn) {
+		return stage().thenApply(fn);
+	}
+
+	@Override
+	public <U> CompletionStage<U> thenApplyAsync(final Function<? super T, ? extends U> fn) {
+		return stage().thenApplyAsync(fn, getCallbackExecutor());
+	}
+
+	@Override
+	public <U> CompletionStage<U> thenApplyAsync(final Function<? super T, ? extends U> fn, final Executor executor) {
+		return stage().thenApplyAsync(fn, executor);
+	}
+
+	@Override
+	public CompletionStage<Void> thenAccept(final Consumer<? super T> action) {
+		return stage().thenAccept(action);
+	}
+
+	@Override
+	public CompletionStage<Void> thenAcceptAsync(final Consumer<? super T> action) {
+		return stage().thenAcceptAsync(action, getCallbackExecutor());
+	}
+
+	@Override
+	public CompletionStage<Void> thenAcceptAsync(final Consumer<? super T> action, final Executor executor) {
+		return stage().thenAcceptAsync(action, executor);
+	}
+
+	@Override
+	public CompletionStage<Void> thenRun(final Runnable action) {
+		return stage().thenRun(action);
+	}
+
+	@Override
+	public CompletionStage<Void> thenRunAsync(final Runnable action) {
+		return stage().thenRunAsync(action, getCallbackExecutor());
+	}
+
+	@Override
+	public CompletionStage<Void> thenRunAsync(final Runnable action, final Executor executor) {
+		return stage().thenRunAsync(action, executor);
+	}
+
+	@Override
+	public <U, V> CompletionStage<V> thenCombine(final CompletionStage<? extends U> other,
+			final BiFunction<? super T, ? super U, ? extends V> fn) {
+		return stage().thenCombine(other, fn);
+	}
+
+	@Override
+	public <U, V> CompletionStage<V> thenCombineAsync(final CompletionStage<? extends U> other,
+			final BiFunction<? super T, ? super U, ? extends V> fn) {
+		return stage().thenCombineAsync(other, fn, getCallbackExecutor());
+	}
+
+	@Override
+	public <U, V> CompletionStage<V> thenCombineAsync(final CompletionStage<? extends U> other,
+			final BiFunction<? super T, ? super U, ? extends V> fn, final Executor executor) {
+		return stage().thenCombineAsync(other, fn, executor);
+	}
+
+	@Override
+	public <U> CompletionStage<Void> thenAcceptBoth(final CompletionStage<? extends U> other,
+			final BiConsumer<? super T, ? super U> action) {
+		return stage().thenAcceptBoth(other, action);
+	}
+
+	@Override
+	public <U> CompletionStage<Void> thenAcceptBothAsync(final CompletionStage<? extends U> other,
+			final BiConsumer<? super T, ? super U> action) {
+		return stage().thenAcceptBothAsync(other, action, getCallbackExecutor());
+	}
+
+	@Override
+	public <U> CompletionStage<Void> thenAcceptBothAsync(final CompletionStage<? extends U> other,
+			final BiConsumer<? super T, ? super U> action, final Executor executor) {
+		return stage().thenAcceptBothAsync(other, action, executor);
+	}
+
+	@Override
+	public CompletionStage<Void> runAfterBoth(final CompletionStage<?> other, final Runnable action) {
+		return stage().runAfterBoth(other, action);
+	}
+
+	@Override
+	public CompletionStage<Void> runAfterBothAsync(final CompletionStage<?> other, final Runnable action) {
+		return stage().runAfterBothAsync(other, action, getCallbackExecutor());
+	}
+
+	@Override
+	public CompletionStage<Void> runAfterBothAsync(final CompletionStage<?> other, final Runnable action, final Executor executor) {
+		return stage().runAfterBothAsync(other, action, executor);
+	}
+
+	@Override
+	public <U> CompletionStage<U> applyToEither(final CompletionStage<? extends T> other, final Function<? super T, U> fn) {
+		return stage().applyToEither(other, fn);
+	}
+
+	@Override
+	public <U> CompletionStage<U> applyToEitherAsync(final CompletionStage<? extends T> other, final Function<? super T, U> fn) {
+		return stage().applyToEitherAsync(other, fn, getCallbackExecutor());
+	}
+
+	@Override
+	public <U> CompletionStage<U> applyToEitherAsync(final CompletionStage<? extends T> other, final Function<? super T, U> fn,
+			final Executor executor) {
+		return stage().applyToEitherAsync(other, fn, executor);
+	}
+
+	@Override
+	public CompletionStage<Void> acceptEither(final CompletionStage<? extends T> other, final Consumer<? super T> action) {
+		return stage().acceptEither(other, action);
+	}
+
+	@Override
+	public CompletionStage<Void> acceptEitherAsync(final CompletionStage<? extends T> other, final Consumer<? super T> action) {
+		return stage().acceptEitherAsync(other, action, getCallbackExecutor());
+	}
+
+	@Override
+	public CompletionStage<Void> acceptEitherAsync(final CompletionStage<? extends T> other, final Consumer<? super T> action,
+			final Executor executor) {
+		return stage().acceptEitherAsync(other, action, executor);
+	}
+
+	@Override
+	public CompletionStage<Void> runAfterEither(final CompletionStage<?> other, final Runnable action) {
+		return stage().runAfterEither(other, action);
+	}
+
+	@Override
+	public CompletionStage<Void> runAfterEitherAsync(final CompletionStage<?> other, final Runnable action) {
+		return stage().runAfterEitherAsync(other, action, getCallbackExecutor());
+	}
+
+	@Override
+	public CompletionStage<Void> runAfterEitherAsync(final CompletionStage<?> other, final Runnable action, final Executor executor) {
+		return stage().runAfterEitherAsync(other, action, executor);
+	}
+
+	@Override
+	public <U> CompletionStage<U> thenCompose(final Function<? super T, ? extends CompletionStage<U>> fn) {
+		return stage().thenCompose(fn);
+	}
+
+	@Override
+	public <U> CompletionStage<U> thenComposeAsync(final Function<? super T, ? extends CompletionStage<U>> fn) {
+		return stage().thenComposeAsync(fn, getCallbackExecutor());
+	}
+
+	@Override
+	public <U> CompletionStage<U> thenComposeAsync(final Function<? super T, ? extends CompletionStage<U>> fn, final Executor executor) {
+		return stage().thenComposeAsync(fn, executor);
+	}
+
+	@Override
+	public CompletionStage<T> exceptionally(final Function<Throwable, ? extends T> fn) {
+		return stage().exceptionally(fn);
+	}
+
+	@Override
+	public CompletionStage<T> whenComplete(final BiConsumer<? super T, ? super Throwable> action) {
+		return stage().whenComplete(action);
+	}
+
+	@Override
+	public CompletionStage<T> whenCompleteAsync(final BiConsumer<? super T, ? super Throwable> action) {
+		return stage().whenCompleteAsync(action, getCallbackExecutor());
+	}
+
+	@Override
+	public CompletionStage<T> whenCompleteAsync(final BiConsumer<? super T, ? super Throwable> action, final Executor executor) {
+		return stage().whenCompleteAsync(action, executor);
+	}
+
+	@Override
+	public <U> CompletionStage<U> handle(final BiFunction<? super T, Throwable, ? extends U> fn) {
+		return stage().handle(fn);
+	}
+
+	@Override
+	public <U> CompletionStage<U> handleAsync(final BiFunction<? super T, Throwable, ? extends U> fn) {
+		return stage().handleAsync(fn, getCallbackExecutor());
+	}
+
+	@Override
+	public <U> CompletionStage<U> handleAsync(final BiFunction<? super T, Throwable, ? extends U> fn, final Executor executor) {
+		return stage().handleAsync(fn, executor);
+	}
+
+	/**
+	 * Provide a copy of the stage so completing it does not change the outcome of the task.
+	 *
+	 * @return a CompletableFuture that completes with the outcome of the task
+	 */
+	@Override
+	public CompletableFuture<T> toCompletableFuture() {
+		return stage().thenApply(Function.identity());
+	}
+
+	/**
+	 * @return the executor to run async dependent actions
+	 */
+	protected Executor getCallbackExecutor() {
+		return TaskMasterPoolUtil.getPool(callbackPool);
+	}
+
+	/**
+	 * @return the CompletableFuture that completes with the outcome of the task
+	 */
+	protected CompletableFuture<T> stage() {
+		CompletableFuture<T> current = stage;
+		if (current == null) {
+			synchronized (this) {
+				current = stage;
+				if (current == null) {
+					current = buildStage();
+					stage = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * @return a new CompletableFuture that completes with the outcome of the task
+	 */
+	private CompletableFuture<T> buildStage() {
+		Future<T> future = getFuture();
+		if (future instanceof TaskFutureTask) {
+			return ((TaskFutureTask<T>) future).getCompletableFuture();
+		}
+		if (future.isDone()) {
+			CompletableFuture<T> completed = new CompletableFuture<>();
+			TaskFutureTask.complete(future, completed);
+			return completed;
+		}
+		// Task is not in this JVM so complete when its future is moved to the completed cache
+		CompletableFuture<T> remote = TaskFutureStageListener.await(getId());
+		// The future may have been moved before the stage was registered
+		Future<T> completed = getCompletedCache().get(getId());
+		if (completed != null) {
+			TaskFutureStageListener.completed(getId(), completed);
+		} else if (!getRunningCache().containsKey(getId())) {
+			TaskFutureStageListener.removed(getId());
+		}
+		return remote;
+	}
+
+}
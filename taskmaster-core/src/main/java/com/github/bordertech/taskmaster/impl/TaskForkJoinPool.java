@@ -0,0 +1,89 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Work stealing pool that keeps track of the tasks that have not started.
+ * <p>
+ * {@link ForkJoinPool#shutdownNow()} cancels the queued fork join wrappers and always returns an empty list, so the
+ * tasks inside them would never complete. This pool wraps each task so it is only run if it has not been handed back
+ * by {@link #shutdownNow()}, and returns the tasks that had not started so they can be aborted.
+ * </p>
+ */
+public class TaskForkJoinPool extends ForkJoinPool {
+
+	private final Set<Runnable> pending = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param parallelism the parallelism level
+	 * @param asyncMode true for FIFO scheduling of forked tasks that are never joined
+	 */
+	public TaskForkJoinPool(final int parallelism, final boolean asyncMode) {
+		super(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, asyncMode);
+	}
+
+	@Override
+	public void execute(final Runnable task) {
+		if (task == null) {
+			throw new NullPointerException("Task cannot be null");
+		}
+		Runnable wrapper = track(task);
+		try {
+			super.execute(wrapper);
+		} catch (RuntimeException e) {
+			pending.remove(task);
+			throw e;
+		}
+	}
+
+	/**
+	 * Fork the task onto the queue of the current worker so it can be work stolen.
+	 *
+	 * @param task the task to fork
+	 */
+	public void fork(final Runnable task) {
+		if (task == null) {
+			throw new NullPointerException("Task cannot be null");
+		}
+		ForkJoinTask.adapt(track(task)).fork();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		super.shutdownNow();
+		// Hand back the tasks that have not started. A task removed here is not run by its wrapper.
+		List<Runnable> notStarted = new ArrayList<>();
+		for (Runnable task : pending) {
+			if (pending.remove(task)) {
+				notStarted.add(task);
+			}
+		}
+		return notStarted;
+	}
+
+	/**
+	 * @return the number of tasks that have not started
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * @param task the task to track
+	 * @return the wrapper that runs the task unless it has been handed back by a shutdown
+	 */
+	private Runnable track(final Runnable task) {
+		pending.add(task);
+		return () -> {
+			if (pending.remove(task)) {
+				task.run();
+			}
+		};
+	}
+
+}
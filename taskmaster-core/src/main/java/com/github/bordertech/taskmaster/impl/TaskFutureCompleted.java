@@ -0,0 +1,136 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import java.io.Serializable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A compact Future that holds the outcome of a completed task.
+ * <p>
+ * Once a task has completed it is replaced in the future cache by this holder so the cache only keeps the result or
+ * the exception and not the task and whatever the task references.
+ * </p>
+ *
+ * @param <T> the result type
+ */
+public class TaskFutureCompleted<T extends Serializable> implements TaskFuture<T> {
+
+	private final T result;
+	private final Throwable exception;
+	private final boolean cancelled;
+
+	/**
+	 * Hold a successful result.
+	 *
+	 * @param result the task result
+	 */
+	public TaskFutureCompleted(final T result) {
+		this(result, null, false);
+	}
+
+	/**
+	 * @param result the task result
+	 * @param exception the exception that occurred or null
+	 * @param cancelled true if the task was cancelled
+	 */
+	protected TaskFutureCompleted(final T result, final Throwable exception, final boolean cancelled) {
+		this.result = result;
+		this.exception = exception;
+		this.cancelled = cancelled;
+	}
+
+	/**
+	 * Hold the exception the task completed with.
+	 *
+	 * @param exception the exception that occurred
+	 * @param <T> the result type
+	 * @return the completed holder
+	 */
+	public static <T extends Serializable> TaskFutureCompleted<T> ofException(final Throwable exception) {
+		if (exception == null) {
+			throw new IllegalArgumentException("An exception must be provided.");
+		}
+		return new TaskFutureCompleted<>(null, exception, false);
+	}
+
+	/**
+	 * Create a compact holder from a future that is done.
+	 *
+	 * @param future the future that is done
+	 * @param <T> the result type
+	 * @return the completed holder
+	 */
+	public static <T extends Serializable> TaskFutureCompleted<T> of(final Future<T> future) {
+		if (!future.isDone()) {
+			throw new IllegalArgumentException("Future has not completed.");
+		}
+		if (future instanceof TaskFutureCompleted) {
+			return (TaskFutureCompleted<T>) future;
+		}
+		if (future.isCancelled()) {
+			return new TaskFutureCompleted<>(null, null, true);
+		}
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return new TaskFutureCompleted<>(future.get());
+				} catch (InterruptedException e) {
+					// Future is done so get will not block. Keep trying and restore the interrupt after.
+					interrupted = true;
+				}
+			}
+		} catch (CancellationException e) {
+			return new TaskFutureCompleted<>(null, null, true);
+		} catch (ExecutionException e) {
+			return ofException(e.getCause() == null ? e : e.getCause());
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning) {
+		return false;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		return true;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		if (cancelled) {
+			throw new CancellationException("Task was cancelled.");
+		}
+		if (exception != null) {
+			throw new ExecutionException(exception);
+		}
+		return result;
+	}
+
+	@Override
+	public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return get();
+	}
+
+	/**
+	 * @return the exception the task completed with or null
+	 */
+	public Throwable getException() {
+		return exception;
+	}
+
+}
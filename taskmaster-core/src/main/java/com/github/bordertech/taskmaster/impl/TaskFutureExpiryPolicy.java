@@ -0,0 +1,73 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.io.Serializable;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+
+/**
+ * Expiry policy for the future caches that treats running and completed futures differently.
+ * <p>
+ * Running futures are held in their own cache with a long time to live that is refreshed each time the future is
+ * accessed. Completed futures are moved to a second cache where they expire quickly if nobody reads them and once read
+ * they are evicted after a short grace period.
+ * </p>
+ */
+public class TaskFutureExpiryPolicy implements ExpiryPolicy, Serializable {
+
+	private final Duration creation;
+	private final Duration access;
+	private final Duration update;
+
+	/**
+	 * @param creation the duration after an entry is created
+	 * @param access the duration after an entry is accessed or null if unchanged
+	 * @param update the duration after an entry is updated or null if unchanged
+	 */
+	public TaskFutureExpiryPolicy(final Duration creation, final Duration access, final Duration update) {
+		if (creation == null) {
+			throw new IllegalArgumentException("A creation duration must be provided.");
+		}
+		this.creation = creation;
+		this.access = access;
+		this.update = update;
+	}
+
+	/**
+	 * Running futures expire if they have not been accessed for the running duration.
+	 *
+	 * @param running the running future duration
+	 * @return the expiry policy factory for running futures
+	 */
+	public static Factory<ExpiryPolicy> runningFactoryOf(final Duration running) {
+		return new FactoryBuilder.SingletonFactory<>(new TaskFutureExpiryPolicy(running, running, null));
+	}
+
+	/**
+	 * Completed futures expire after the unread duration or once read, after the read grace period.
+	 *
+	 * @param unread the duration for completed futures that have not been read
+	 * @param readGrace the grace period after a completed future has been read
+	 * @return the expiry policy factory for completed futures
+	 */
+	public static Factory<ExpiryPolicy> completedFactoryOf(final Duration unread, final Duration readGrace) {
+		return new FactoryBuilder.SingletonFactory<>(new TaskFutureExpiryPolicy(unread, readGrace, null));
+	}
+
+	@Override
+	public Duration getExpiryForCreation() {
+		return creation;
+	}
+
+	@Override
+	public Duration getExpiryForAccess() {
+		return access;
+	}
+
+	@Override
+	public Duration getExpiryForUpdate() {
+		return update;
+	}
+
+}
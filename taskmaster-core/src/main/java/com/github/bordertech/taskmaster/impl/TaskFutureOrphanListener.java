@@ -0,0 +1,98 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Cancels tasks that are still running when their future expires or is removed from the running future cache.
+ * <p>
+ * Once the future has gone from the cache nobody can reach the task anymore so it is cancelled to give the pool thread
+ * back. Whether the task is interrupted is configured per pool. Note that some cache providers only detect an expired
+ * entry when it is next accessed or evicted.
+ * </p>
+ * <p>
+ * Delayed and periodic tasks are pinned by {@link TaskFutureWrapper} until they are done, so they are not cancelled
+ * when their entry expires before they are due.
+ * </p>
+ */
+public class TaskFutureOrphanListener implements CacheEntryExpiredListener<String, Future>, CacheEntryRemovedListener<String, Future>,
+		Serializable {
+
+	private static final Log LOGGER = LogFactory.getLog(TaskFutureOrphanListener.class);
+
+	private static final AtomicLong RECLAIMED = new AtomicLong();
+
+	private static final Map<String, AtomicLong> RECLAIMED_BY_POOL = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the number of orphaned tasks that have been cancelled
+	 */
+	public static long getReclaimedCount() {
+		return RECLAIMED.get();
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the number of orphaned tasks that have been cancelled in the pool
+	 */
+	public static long getReclaimedCount(final String pool) {
+		AtomicLong count = RECLAIMED_BY_POOL.get(pool);
+		return count == null ? 0 : count.get();
+	}
+
+	@Override
+	public void onExpired(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) throws CacheEntryListenerException {
+		handleEvents(events);
+	}
+
+	@Override
+	public void onRemoved(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) throws CacheEntryListenerException {
+		handleEvents(events);
+	}
+
+	/**
+	 * @param events the expired or removed events
+	 */
+	protected void handleEvents(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) {
+		for (CacheEntryEvent<? extends String, ? extends Future> event : events) {
+			Future future = event.isOldValueAvailable() ? event.getOldValue() : event.getValue();
+			if (future != null && !future.isDone() && !(future instanceof TaskScheduledFutureTask)) {
+				reclaim(event.getKey(), future);
+			}
+		}
+	}
+
+	/**
+	 * Cancel the orphaned task.
+	 *
+	 * @param key the future cache key
+	 * @param future the future of the orphaned task
+	 */
+	protected void reclaim(final String key, final Future future) {
+		String pool = null;
+		if (future instanceof TaskFutureTask) {
+			TaskFutureTask task = (TaskFutureTask) future;
+			// Flag orphaned first so completion does not try to update the cache entry that is being removed
+			task.markOrphaned();
+			pool = task.getPool();
+		}
+		if (pool == null) {
+			pool = TaskMasterProperties.getDefaultThreadPoolName();
+		}
+		if (future.cancel(TaskMasterProperties.isPoolOrphanInterrupt(pool))) {
+			RECLAIMED.incrementAndGet();
+			RECLAIMED_BY_POOL.computeIfAbsent(pool, name -> new AtomicLong()).incrementAndGet();
+			LOGGER.info("Cancelled orphaned task [" + key + "] in thread pool [" + pool + "].");
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.TaskMasterException;
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+
+/**
+ * Completes the stages of tasks running in another JVM when their future is moved to the completed future cache.
+ * <p>
+ * A {@link TaskCompletionStageWrapper} that has been deserialized where the task is not running registers its stage
+ * here, so no thread is blocked waiting for the result. The listener is registered on the completed future cache for
+ * the futures put there when the task completes, and on the running future cache for futures that expire or are
+ * removed without completing.
+ * </p>
+ */
+public class TaskFutureStageListener implements CacheEntryCreatedListener<String, Future>, CacheEntryUpdatedListener<String, Future>,
+		CacheEntryRemovedListener<String, Future>, CacheEntryExpiredListener<String, Future>, Serializable {
+
+	/**
+	 * Stages waiting for the task to complete by future id.
+	 */
+	private static final ConcurrentMap<String, CompletableFuture> WAITING = new ConcurrentHashMap<>();
+
+	@Override
+	public void onCreated(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) throws CacheEntryListenerException {
+		handleCompleted(events);
+	}
+
+	@Override
+	public void onUpdated(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) throws CacheEntryListenerException {
+		handleCompleted(events);
+	}
+
+	@Override
+	public void onRemoved(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) throws CacheEntryListenerException {
+		handleRemoved(events);
+	}
+
+	@Override
+	public void onExpired(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) throws CacheEntryListenerException {
+		handleRemoved(events);
+	}
+
+	/**
+	 * Register a stage to complete once the future has been moved to the completed cache.
+	 * <p>
+	 * The caller must check the completed cache after registering as the future may have been moved before.
+	 * </p>
+	 *
+	 * @param <T> the future get type
+	 * @param id the future id
+	 * @return the stage that completes with the outcome of the task
+	 */
+	static <T> CompletableFuture<T> await(final String id) {
+		CompletableFuture<T> stage = WAITING.computeIfAbsent(id, key -> new CompletableFuture<>());
+		// Stop tracking once completed by any path
+		stage.whenComplete((result, excp) -> WAITING.remove(id, stage));
+		return stage;
+	}
+
+	/**
+	 * Complete the stage waiting on a future.
+	 *
+	 * @param id the future id
+	 * @param future the completed future
+	 */
+	static void completed(final String id, final Future future) {
+		if (future == null || !future.isDone()) {
+			// Put in the running cache
+			return;
+		}
+		CompletableFuture stage = WAITING.remove(id);
+		if (stage != null) {
+			TaskFutureTask.complete(future, stage);
+		}
+	}
+
+	/**
+	 * Fail the stage waiting on a future that has been removed without completing.
+	 *
+	 * @param id the future id
+	 */
+	static void removed(final String id) {
+		CompletableFuture stage = WAITING.remove(id);
+		if (stage != null) {
+			stage.completeExceptionally(new TaskMasterException("Future has been removed from the cache"));
+		}
+	}
+
+	/**
+	 * @param events the created or updated events
+	 */
+	protected void handleCompleted(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) {
+		if (WAITING.isEmpty()) {
+			return;
+		}
+		for (CacheEntryEvent<? extends String, ? extends Future> event : events) {
+			completed(event.getKey(), event.getValue());
+		}
+	}
+
+	/**
+	 * @param events the removed or expired events
+	 */
+	protected void handleRemoved(final Iterable<CacheEntryEvent<? extends String, ? extends Future>> events) {
+		if (WAITING.isEmpty()) {
+			return;
+		}
+		for (CacheEntryEvent<? extends String, ? extends Future> event : events) {
+			// A completed future is put in the completed cache before it is removed from the running cache
+			if (!TaskFutureWrapper.getCompletedCache().containsKey(event.getKey())) {
+				removed(event.getKey());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,391 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.AbortableTask;
+import com.github.bordertech.taskmaster.TaskOptions;
+import com.github.bordertech.taskmaster.exception.TaskExpiredException;
+import com.github.bordertech.taskmaster.exception.TaskTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * FutureTask used by TaskMaster to run a task that notifies listeners when the task completes.
+ * <p>
+ * A task with a timeout registers with the shared {@link TaskTimer} when it starts. If it is still running when the
+ * timeout passes, its future completes with a {@link TaskTimeoutException} and the thread running it is interrupted.
+ * </p>
+ *
+ * @param <T> the result type
+ */
+public class TaskFutureTask<T> extends FutureTask<T> {
+
+	private static final Log LOGGER = LogFactory.getLog(TaskFutureTask.class);
+
+	private final String pool;
+	private final AbortableTask abortable;
+	private final T result;
+	private final Object lock = new Object();
+	private List<Runnable> listeners;
+	private boolean completed;
+	private volatile boolean orphaned;
+	private volatile CompletableFuture<T> completable;
+	private int priority = TaskOptions.NORMAL_PRIORITY;
+	private long deadline;
+	private long timeout;
+	private Thread runner;
+	private volatile boolean timedOut;
+
+	/**
+	 * @param task the task to run
+	 * @param result the result to return on successful completion
+	 */
+	public TaskFutureTask(final Runnable task, final T result) {
+		this(task, result, null);
+	}
+
+	/**
+	 * @param task the task to run
+	 * @param result the result to return on successful completion
+	 * @param pool the thread pool name running the task or null if not known
+	 */
+	public TaskFutureTask(final Runnable task, final T result, final String pool) {
+		super(task, result);
+		this.pool = pool;
+		this.abortable = task instanceof AbortableTask ? (AbortableTask) task : null;
+		this.result = result;
+	}
+
+	/**
+	 * @param callable the callable task to run
+	 * @param pool the thread pool name running the task or null if not known
+	 */
+	protected TaskFutureTask(final Callable<T> callable, final String pool) {
+		super(callable);
+		this.pool = pool;
+		this.abortable = null;
+		this.result = null;
+	}
+
+	/**
+	 * @return the thread pool name running the task or null if not known
+	 */
+	public String getPool() {
+		return pool;
+	}
+
+	/**
+	 * Set the scheduling options. Must be set before the task is submitted.
+	 *
+	 * @param options the scheduling options
+	 */
+	public void setOptions(final TaskOptions options) {
+		this.priority = options.getPriority();
+		this.deadline = options.getDeadline();
+		if (options.hasTimeout()) {
+			this.timeout = options.getTimeout();
+		}
+	}
+
+	/**
+	 * Set the maximum time the task can run once started. Must be set before the task is submitted.
+	 *
+	 * @param timeout the timeout in milliseconds or 0 for no timeout
+	 */
+	public void setTimeout(final long timeout) {
+		this.timeout = timeout > 0 ? timeout : 0;
+	}
+
+	/**
+	 * @return the maximum time (milliseconds) the task can run once started, or 0 for no timeout
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @return true if the task was stopped as it ran past its timeout
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
+	/**
+	 * @return the task priority, higher values run first
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * @return the time (epoch milliseconds) the task must start by, or 0 for no deadline
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * @param now the current time in epoch milliseconds
+	 * @return true if the task has a deadline that has passed
+	 */
+	public boolean isExpired(final long now) {
+		return deadline > 0 && now > deadline;
+	}
+
+	/**
+	 * Complete the task without running it.
+	 * <p>
+	 * If the task is an {@link AbortableTask} it is given the reason and the future completes with the result.
+	 * Otherwise the future completes with the reason as the exception.
+	 * </p>
+	 *
+	 * @param reason the reason the task will not run
+	 * @return true if the task was aborted, false if it had already started or completed
+	 */
+	public boolean abort(final Throwable reason) {
+		if (isDone()) {
+			return false;
+		}
+		if (abortable == null) {
+			setException(reason);
+			return isDone() && !isCancelled();
+		}
+		try {
+			if (!abortable.abort(reason)) {
+				return false;
+			}
+		} catch (Exception e) {
+			LOGGER.error("Error aborting task. " + e.getMessage(), e);
+			setException(reason);
+			return true;
+		}
+		set(result);
+		return true;
+	}
+
+	/**
+	 * Abort the task as its deadline has passed.
+	 *
+	 * @return true if the task was aborted, false if it had already completed
+	 */
+	public boolean expire() {
+		return abort(new TaskExpiredException("Task deadline passed before the task started in pool [" + pool + "]."));
+	}
+
+	@Override
+	public void run() {
+		// Do not start the task if its deadline has passed while waiting
+		if (deadline > 0 && isExpired(System.currentTimeMillis())) {
+			expire();
+			return;
+		}
+		runWithTimeout(() -> {
+			super.run();
+			return true;
+		});
+	}
+
+	/**
+	 * Run the task with the timeout armed (if it has one).
+	 *
+	 * @param body runs the task
+	 * @return the value returned by the body
+	 */
+	protected final boolean runWithTimeout(final BooleanSupplier body) {
+		if (timeout <= 0) {
+			return body.getAsBoolean();
+		}
+		synchronized (lock) {
+			runner = Thread.currentThread();
+		}
+		TaskTimer.Timeout handle = startTimeout();
+		try {
+			return body.getAsBoolean();
+		} finally {
+			if (handle != null) {
+				handle.cancel();
+			}
+			synchronized (lock) {
+				runner = null;
+			}
+			if (timedOut) {
+				// Clear the timeout interrupt so it does not leak into the next task run by this thread
+				Thread.interrupted();
+			}
+		}
+	}
+
+	/**
+	 * Stop the task as it has run past its timeout.
+	 * <p>
+	 * If the task is an {@link AbortableTask} it is given the chance to record the timeout in its result and the future
+	 * completes with the result. Otherwise the future completes with the timeout exception. The thread running the task
+	 * is then interrupted.
+	 * </p>
+	 */
+	protected void handleTimeout() {
+		if (isDone()) {
+			return;
+		}
+		TaskTimeoutException reason = new TaskTimeoutException("Task did not complete within its timeout of " + timeout
+				+ "ms in pool [" + pool + "].");
+		timedOut = true;
+		boolean recorded = false;
+		if (abortable != null) {
+			try {
+				recorded = abortable.timeout(reason);
+			} catch (Exception e) {
+				LOGGER.error("Error timing out task. " + e.getMessage(), e);
+			}
+		}
+		if (recorded) {
+			set(result);
+		} else {
+			setException(reason);
+		}
+		synchronized (lock) {
+			if (runner != null) {
+				runner.interrupt();
+			}
+		}
+	}
+
+	/**
+	 * @return the timeout handle or null if the timer is not available
+	 */
+	private TaskTimer.Timeout startTimeout() {
+		try {
+			return TaskMasterPoolUtil.getTimer().newTimeout(this::handleTimeout, timeout, TimeUnit.MILLISECONDS);
+		} catch (IllegalStateException e) {
+			// Timer stopped by a shutdown after the pools drained
+			LOGGER.warn("Task timeout not applied as the timer has stopped. " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Flag the task as orphaned as its future is no longer in the cache.
+	 */
+	public void markOrphaned() {
+		orphaned = true;
+	}
+
+	/**
+	 * @return true if the task is orphaned as its future is no longer in the cache
+	 */
+	public boolean isOrphaned() {
+		return orphaned;
+	}
+
+	/**
+	 * Provide a CompletableFuture that completes with the outcome of this task.
+	 *
+	 * @return the CompletableFuture for this task
+	 */
+	public CompletableFuture<T> getCompletableFuture() {
+		CompletableFuture<T> future = completable;
+		if (future != null) {
+			return future;
+		}
+		synchronized (lock) {
+			if (completable != null) {
+				return completable;
+			}
+			future = new CompletableFuture<>();
+			completable = future;
+		}
+		final CompletableFuture<T> target = future;
+		addCompletionListener(() -> complete(this, target));
+		return future;
+	}
+
+	/**
+	 * Complete the CompletableFuture with the outcome of a future that is done.
+	 *
+	 * @param done the future that is done
+	 * @param target the CompletableFuture to complete
+	 * @param <T> the result type
+	 */
+	public static <T> void complete(final Future<T> done, final CompletableFuture<T> target) {
+		if (done.isCancelled()) {
+			target.cancel(false);
+			return;
+		}
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					target.complete(done.get());
+					return;
+				} catch (InterruptedException e) {
+					// Future is done so get will not block. Keep trying and restore the interrupt after.
+					interrupted = true;
+				}
+			}
+		} catch (CancellationException e) {
+			target.cancel(false);
+		} catch (ExecutionException e) {
+			target.completeExceptionally(e.getCause() == null ? e : e.getCause());
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Add a listener to be called when the task completes (normally, exceptionally or cancelled).
+	 * <p>
+	 * If the task has already completed the listener is called straight away.
+	 * </p>
+	 *
+	 * @param listener the listener to call on completion
+	 */
+	public void addCompletionListener(final Runnable listener) {
+		synchronized (lock) {
+			if (!completed) {
+				if (listeners == null) {
+					listeners = new ArrayList<>(1);
+				}
+				listeners.add(listener);
+				return;
+			}
+		}
+		notifyListener(listener);
+	}
+
+	@Override
+	protected void done() {
+		List<Runnable> notify;
+		synchronized (lock) {
+			completed = true;
+			notify = listeners;
+			listeners = null;
+		}
+		if (notify != null) {
+			for (Runnable listener : notify) {
+				notifyListener(listener);
+			}
+		}
+	}
+
+	/**
+	 * @param listener the listener to notify
+	 */
+	private void notifyListener(final Runnable listener) {
+		try {
+			listener.run();
+		} catch (Exception e) {
+			LOGGER.error("Error notifying task completion listener. " + e.getMessage(), e);
+		}
+	}
+
+}
@@ -4,18 +4,43 @@ import com.github.bordertech.taskmaster.TaskFuture;
 import com.github.bordertech.taskmaster.cache.CachingHelper;
 import com.github.bordertech.taskmaster.exception.TaskMasterException;
 import java.io.Serializable;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
 import javax.cache.configuration.MutableConfiguration;
-import javax.cache.expiry.AccessedExpiryPolicy;
 import javax.cache.expiry.Duration;
 
 /**
  * Uses a cache to wrap the future allowing the cache key reference to be serializable.
+ * <p>
+ * The wrapper also keeps a transient reference to the future so calls in the JVM that submitted the task do not need
+ * a cache lookup. The cache is only used once the wrapper has been serialized (eg session replication). While the local
+ * reference is used the cache entry is refreshed at most once per touch interval so it keeps its access expiry.
+ * </p>
+ * <p>
+ * Running and completed futures are held in separate caches with their own {@link TaskFutureExpiryPolicy}. When the
+ * task completes, it is moved to the completed cache as a {@link TaskFutureCompleted} that only holds the result or the
+ * exception so the cache does not keep the task alive. Completed futures expire quickly if they are not read and once
+ * read are evicted after a short grace period.
+ * </p>
+ * <p>
+ * A task that is still running when its future expires from the running cache is cancelled by
+ * {@link TaskFutureOrphanListener}.
+ * </p>
+ * <p>
+ * Delayed and periodic futures can wait longer than the running cache time to live, so until they are done they are
+ * also pinned in a map that does not expire and are not treated as orphaned.
+ * </p>
+ * <p>
+ * The caches are created the first time they are used, not when the class is loaded.
+ * </p>
  *
  * @param <T> the future get type
  * @author Jonathan Austin
@@ -23,31 +48,43 @@ import javax.cache.expiry.Duration;
  */
 public class TaskFutureWrapper<T extends Serializable> implements TaskFuture<T> {
 
-	private static final Cache<String, Future> CACHE;
+	private static final long TOUCH_INTERVAL = TaskMasterProperties.getFutureTaskTouchInterval();
 
-	private final String id = UUID.randomUUID().toString();
+	/**
+	 * Returned when the future is no longer in the cache.
+	 */
+	private static final TaskFuture REMOVED_FUTURE = new TaskFutureResult(new TaskMasterException("Future has been removed from the cache"));
 
-	static {
+	/**
+	 * Scheduled futures that are not done. Held outside the running cache so they do not expire.
+	 */
+	private static final Map<String, Future> PINNED = new ConcurrentHashMap<>();
 
-		String cacheName = TaskMasterProperties.FUTURE_TASK_CACHE_NAME;
-		Duration duration = TaskMasterProperties.getFutureTaskCacheDuration();
+	private final String id = UUID.randomUUID().toString();
 
-		// Setup cache config
-		MutableConfiguration<String, Future> config = new MutableConfiguration<>();
-		config.setTypes(String.class, Future.class);
-		config.setExpiryPolicyFactory(AccessedExpiryPolicy.factoryOf(duration));
-		// No need to serialize the result (Future is not serializable)
-		config.setStoreByValue(false);
+	/**
+	 * Local reference to the future. Transient as the future is only available in the JVM that is running the task.
+	 */
+	private transient volatile Future<T> localFuture;
 
-		// Create Cache
-		CACHE = CachingHelper.getOrCreateCache(cacheName, String.class, Future.class, config);
-	}
+	/**
+	 * The last time the cache entry was accessed.
+	 */
+	private transient volatile long lastTouched;
+
+	/**
+	 * True once the completed future has been read from the completed cache.
+	 */
+	private transient volatile boolean readNotified;
 
 	/**
 	 * @param future the backing future
 	 */
 	public TaskFutureWrapper(final Future<T> future) {
 		setFuture(future);
+		if (future instanceof TaskFutureTask) {
+			((TaskFutureTask<T>) future).addCompletionListener(() -> handleCompleted(future));
+		}
 	}
 
 	@Override
@@ -67,32 +104,211 @@ public class TaskFutureWrapper<T extends Serializable> implements TaskFuture<T>
 
 	@Override
 	public T get() throws InterruptedException, ExecutionException {
-		return getFuture().get();
+		Future<T> future = getFuture();
+		try {
+			return future.get();
+		} finally {
+			handleRead(future);
+		}
 	}
 
 	@Override
 	public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-		return getFuture().get(timeout, unit);
+		Future<T> future = getFuture();
+		try {
+			return future.get(timeout, unit);
+		} finally {
+			handleRead(future);
+		}
+	}
+
+	/**
+	 * @return the id of the future in the cache
+	 */
+	protected final String getId() {
+		return id;
 	}
 
 	/**
 	 * @param future the future to save in the cache
 	 */
 	protected final void setFuture(final Future<T> future) {
-		CACHE.put(id, future);
+		RunningCache.CACHE.put(id, future);
+		if (future instanceof TaskScheduledFutureTask && !future.isDone()) {
+			PINNED.put(id, future);
+		}
+		localFuture = future;
+		lastTouched = System.currentTimeMillis();
 	}
 
 	/**
-	 * @return the future object from the cache
+	 * @return the future object from the local reference or the cache
 	 */
 	protected final Future<T> getFuture() {
-		Future<T> future = CACHE.get(id);
+		Future<T> future = localFuture;
 		if (future == null) {
-			// Future has expired or been removed from the cache
-			future = new TaskFutureResult(new TaskMasterException("Future has been removed from the cache"));
-			CACHE.put(id, future);
+			future = getCachedFuture();
+			lastTouched = System.currentTimeMillis();
+		} else if (!(future instanceof TaskFuture)) {
+			touchCache();
 		}
+		if (!(future instanceof TaskFuture) && future.isDone()) {
+			// Completed but not yet replaced by the compact result
+			handleCompleted(future);
+			return localFuture;
+		}
+		localFuture = future;
 		return future;
 	}
 
+	/**
+	 * Move the completed future to the completed cache as a compact result holder.
+	 *
+	 * @param future the future that has completed
+	 */
+	protected void handleCompleted(final Future<T> future) {
+		Future<T> completed = TaskFutureCompleted.of((Future) future);
+		PINNED.remove(id, future);
+		if (future instanceof TaskFutureTask && ((TaskFutureTask) future).isOrphaned()) {
+			// Future is no longer in the cache
+			localFuture = completed;
+			return;
+		}
+		// Add to the completed cache before removing from the running cache so readers always find the future
+		CompletedCache.CACHE.put(id, completed);
+		// Only remove if still holding the original future
+		RunningCache.CACHE.remove(id, future);
+		localFuture = completed;
+	}
+
+	/**
+	 * Once a completed future has been read, access the completed cache entry so it is evicted after the read grace
+	 * period.
+	 *
+	 * @param future the future that has been read
+	 */
+	protected void handleRead(final Future<T> future) {
+		if (!readNotified && future instanceof TaskFutureCompleted) {
+			readNotified = true;
+			CompletedCache.CACHE.get(id);
+		}
+	}
+
+	/**
+	 * @return the future from the running or completed cache, or a placeholder if it has been removed
+	 */
+	private Future<T> getCachedFuture() {
+		// Check running first as a future is added to the completed cache before it is removed from the running cache
+		Future<T> future = RunningCache.CACHE.get(id);
+		if (future != null) {
+			return future;
+		}
+		future = PINNED.get(id);
+		if (future != null) {
+			return future;
+		}
+		future = CompletedCache.CACHE.get(id);
+		if (future != null) {
+			// Accessing the completed future starts its read grace period
+			readNotified = true;
+			return future;
+		}
+		// Future has expired or been removed from the cache (hold onto the placeholder so the cache is not checked again)
+		return REMOVED_FUTURE;
+	}
+
+	/**
+	 * Access the running cache entry (if the touch interval has passed) so the future does not expire while it is being
+	 * used via the local reference.
+	 */
+	private void touchCache() {
+		if (TOUCH_INTERVAL <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (now - lastTouched >= TOUCH_INTERVAL) {
+			lastTouched = now;
+			RunningCache.CACHE.get(id);
+		}
+	}
+
+	/**
+	 * @return the cache of running futures
+	 */
+	static Cache<String, Future> getRunningCache() {
+		return RunningCache.CACHE;
+	}
+
+	/**
+	 * @return the cache of completed futures
+	 */
+	static Cache<String, Future> getCompletedCache() {
+		return CompletedCache.CACHE;
+	}
+
+	/**
+	 * @param id the future id
+	 * @return true if the scheduled future is pinned so it does not expire
+	 */
+	static boolean isPinned(final String id) {
+		return PINNED.containsKey(id);
+	}
+
+	/**
+	 * Running futures cache. Created the first time it is used.
+	 */
+	private static final class RunningCache {
+
+		private static final Cache<String, Future> CACHE;
+
+		static {
+			Duration duration = TaskMasterProperties.getFutureTaskCacheDuration();
+			MutableConfiguration<String, Future> config = new MutableConfiguration<>();
+			config.setTypes(String.class, Future.class);
+			config.setExpiryPolicyFactory(TaskFutureExpiryPolicy.runningFactoryOf(duration));
+			// No need to serialize the result (Future is not serializable)
+			config.setStoreByValue(false);
+			// Cancel tasks whose future has expired
+			config.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+					FactoryBuilder.factoryOf(TaskFutureOrphanListener.class), null, true, false));
+			// Fail the stages of tasks whose future has gone without completing
+			config.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+					FactoryBuilder.factoryOf(TaskFutureStageListener.class), null, false, false));
+			CACHE = CachingHelper.getOrCreateCache(TaskMasterProperties.FUTURE_TASK_CACHE_NAME, String.class, Future.class, config);
+		}
+
+		/**
+		 * Private constructor for holder class.
+		 */
+		private RunningCache() {
+		}
+	}
+
+	/**
+	 * Completed futures cache. Created the first time it is used.
+	 */
+	private static final class CompletedCache {
+
+		private static final Cache<String, Future> CACHE;
+
+		static {
+			Duration unread = TaskMasterProperties.getFutureCompletedCacheDuration();
+			Duration readGrace = TaskMasterProperties.getFutureCompletedReadGrace();
+			MutableConfiguration<String, Future> config = new MutableConfiguration<>();
+			config.setTypes(String.class, Future.class);
+			config.setExpiryPolicyFactory(TaskFutureExpiryPolicy.completedFactoryOf(unread, readGrace));
+			config.setStoreByValue(false);
+			// Complete the stages of tasks running in another JVM
+			config.addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+					FactoryBuilder.factoryOf(TaskFutureStageListener.class), null, false, false));
+			CACHE = CachingHelper.getOrCreateCache(TaskMasterProperties.FUTURE_COMPLETED_CACHE_NAME, String.class, Future.class, config);
+		}
+
+		/**
+		 * Private constructor for holder class.
+		 */
+		private CompletedCache() {
+		}
+	}
+
 }
@@ -1,12 +1,22 @@
 package com.github.bordertech.taskmaster.impl;
 
+import com.github.bordertech.taskmaster.TaskShutdownReport;
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
 import com.github.bordertech.taskmaster.exception.TaskMasterException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -16,28 +26,52 @@ import org.apache.commons.logging.LogFactory;
 
 /**
  * TaskMaster ExecutorService thread pool utility.
+ * <p>
+ * Pool lookups do not take a lock as they are on the submit path of every task. A terminated pool is rebuilt at most
+ * once and only blocks lookups for that pool.
+ * </p>
+ * <p>
+ * Each pool is built the first time it is used. Pools flagged with {@code bordertech.taskmaster.pool.<name>.prestart}
+ * can be built and have their threads started in the background via {@link #prestart()}.
+ * </p>
  */
 public final class TaskMasterPoolUtil {
 
 	private static final Log LOGGER = LogFactory.getLog(TaskMasterPoolUtil.class);
-	private static final Map<String, ExecutorService> THREAD_POOLS = new HashMap<>();
+	private static final Map<String, ExecutorService> THREAD_POOLS = new ConcurrentHashMap<>();
+	private static final Map<String, Long> TASK_TIMEOUTS = new ConcurrentHashMap<>();
+
+	/**
+	 * Milliseconds to wait for interrupted tasks to finish once the shutdown deadline has passed.
+	 */
+	private static final long INTERRUPT_GRACE = 1000;
 
 	/**
 	 * Default thread pool name.
 	 */
 	private static final String DEFAULT_POOL = TaskMasterProperties.getDefaultThreadPoolName();
 
-	static {
-		// Load thread pools
-		String[] pools = TaskMasterProperties.getThreadPools();
-		for (String pool : pools) {
-			THREAD_POOLS.put(pool, TaskMasterPoolUtil.buildPool(pool));
-		}
-		// Check if default pool needs to be created
-		if (!THREAD_POOLS.containsKey(TaskMasterPoolUtil.DEFAULT_POOL)) {
-			THREAD_POOLS.put(TaskMasterPoolUtil.DEFAULT_POOL, TaskMasterPoolUtil.buildPool(TaskMasterPoolUtil.DEFAULT_POOL));
-		}
-	}
+	/**
+	 * Configured thread pool names (including the default pool).
+	 */
+	private static final Set<String> POOL_NAMES = buildPoolNames();
+
+	private static final Object TIMER_LOCK = new Object();
+
+	/**
+	 * True while the thread pools are shutting down.
+	 */
+	private static volatile boolean shuttingDown;
+
+	/**
+	 * True once a shutdown has stopped the timer and until the shutdown finishes. Guarded by TIMER_LOCK.
+	 */
+	private static boolean timerStopped;
+
+	/**
+	 * Timer for scheduled tasks. Created the first time a task is scheduled.
+	 */
+	private static volatile TaskTimer timer;
 
 	/**
 	 * Private constructor to prevent instantiation.
@@ -60,7 +94,8 @@ public final class TaskMasterPoolUtil {
 		String type = TaskMasterProperties.getThreadPoolType(pool);
 		switch (type.toLowerCase()) {
 			case "single":
-				return Executors.newSingleThreadExecutor();
+				// Single thread with an unlimited queue (not wrapped so it can report its queue and active counts)
+				return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
 			case "fixed":
 				// Number of fixed threads
 				int max = TaskMasterProperties.getPoolMaxThreads(pool);
@@ -68,7 +103,13 @@ public final class TaskMasterPoolUtil {
 				int queue = TaskMasterProperties.getPoolPendingQueueLength(pool);
 				// Create executable with the appropriate queue type
 				BlockingQueue<Runnable> blkQueue;
-				if (queue < 0) {
+				if ("priority".equalsIgnoreCase(TaskMasterProperties.getPoolQueueMode(pool))) {
+					// Priority then earliest deadline first
+					if (queue == 0) {
+						LOGGER.warn("Thread pool [" + pool + "] uses a priority queue but has no queue length. Queue will be unlimited.");
+					}
+					blkQueue = new TaskPriorityQueue(queue, TaskMasterProperties.getPoolStarvationInterval(pool));
+				} else if (queue < 0) {
 					// Unlimited
 					blkQueue = new LinkedBlockingQueue<>();
 				} else if (queue == 0) {
@@ -78,27 +119,349 @@ public final class TaskMasterPoolUtil {
 					// Fixed queue length
 					blkQueue = new ArrayBlockingQueue<>(queue);
 				}
-				return new ThreadPoolExecutor(max, max, 0L, TimeUnit.MILLISECONDS, blkQueue);
+				return new ThreadPoolExecutor(max, max, 0L, TimeUnit.MILLISECONDS, blkQueue, Executors.defaultThreadFactory(),
+						buildSaturationHandler(pool));
+			case "virtual":
+				return buildVirtualPool(pool);
+			case "forkjoin":
+				// Work stealing pool
+				int parallelism = TaskMasterProperties.getPoolParallelism(pool);
+				boolean asyncMode = TaskMasterProperties.isPoolAsyncMode(pool);
+				return new TaskForkJoinPool(parallelism, asyncMode);
 			default:
 				// Default - Unlimited Threads and No Queue
 				return Executors.newCachedThreadPool();
 		}
 	}
 
+	/**
+	 * Build the handler for tasks submitted to a fixed pool that is saturated.
+	 *
+	 * @param pool the pool name
+	 * @return the saturation handler
+	 */
+	private static TaskSaturationHandler buildSaturationHandler(final String pool) {
+		TaskSaturationHandler.Policy policy = TaskSaturationHandler.Policy.fromValue(TaskMasterProperties.getPoolSaturationPolicy(pool));
+		return new TaskSaturationHandler(pool, policy, TaskMasterProperties.getPoolSaturationTimeout(pool),
+				TaskMasterProperties.getPoolSaturationRetryAfter(pool));
+	}
+
+	/**
+	 * Build a thread pool that runs each task on a virtual thread.
+	 * <p>
+	 * If the JVM does not support virtual threads or they cannot be created, falls back to a fixed pool when a limit has been set or a cached pool
+	 * when there is no limit.
+	 * </p>
+	 *
+	 * @param pool the pool name to create
+	 * @return the executor service
+	 */
+	private static ExecutorService buildVirtualPool(final String pool) {
+		// Max concurrent tasks (zero means no limit)
+		int max = TaskMasterProperties.getPoolMaxConcurrency(pool);
+		if (VirtualThreadExecutorService.isVirtualThreadsSupported()) {
+			try {
+				return new VirtualThreadExecutorService(max);
+			} catch (IllegalStateException e) {
+				LOGGER.warn("Could not create virtual thread pool [" + pool + "] so will use platform threads. " + e.getMessage());
+				return buildPlatformPool(max);
+			}
+		}
+		LOGGER.warn("Virtual threads are not supported by this JVM. Thread pool [" + pool + "] will use platform threads.");
+		return buildPlatformPool(max);
+	}
+
+	/**
+	 * Build the platform thread pool used in place of a virtual thread pool.
+	 *
+	 * @param max the maximum tasks to run at the same time, zero means no limit
+	 * @return the executor service
+	 */
+	private static ExecutorService buildPlatformPool(final int max) {
+		if (max > 0) {
+			return new ThreadPoolExecutor(max, max, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+		}
+		return Executors.newCachedThreadPool();
+	}
+
+	/**
+	 * Build the pools flagged to prestart and start their core threads in the background.
+	 * <p>
+	 * The future caches are also created so the first task submitted does not pay the cost. Does nothing if no pool
+	 * has been flagged to prestart.
+	 * </p>
+	 */
+	public static void prestart() {
+		final List<String> pools = new ArrayList<>();
+		for (String pool : POOL_NAMES) {
+			if (TaskMasterProperties.isPoolPrestart(pool)) {
+				pools.add(pool);
+			}
+		}
+		if (pools.isEmpty()) {
+			return;
+		}
+		Thread thread = new Thread(() -> prestartPools(pools), "taskmaster-prestart");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * @param pools the pools to build and start
+	 */
+	private static void prestartPools(final List<String> pools) {
+		for (String pool : pools) {
+			try {
+				ExecutorService exec = getPool(pool);
+				int started = 0;
+				if (exec instanceof ThreadPoolExecutor) {
+					started = ((ThreadPoolExecutor) exec).prestartAllCoreThreads();
+				}
+				LOGGER.info("Prestarted thread pool [" + pool + "] with " + started + " threads.");
+			} catch (Exception e) {
+				LOGGER.error("Could not prestart thread pool [" + pool + "]. " + e.getMessage(), e);
+			}
+		}
+		try {
+			TaskFutureWrapper.getRunningCache();
+			TaskFutureWrapper.getCompletedCache();
+		} catch (Exception e) {
+			LOGGER.error("Could not create the future caches. " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return the configured thread pool names including the default pool
+	 */
+	private static Set<String> buildPoolNames() {
+		Set<String> names = new LinkedHashSet<>(Arrays.asList(TaskMasterProperties.getThreadPools()));
+		names.add(DEFAULT_POOL);
+		return Collections.unmodifiableSet(names);
+	}
+
+	/**
+	 * Retrieve the timer that hands scheduled tasks to the thread pools.
+	 * <p>
+	 * The timer is created the first time it is used and created again if it has been stopped by a shutdown that has
+	 * finished. It is not created while a shutdown is stopping it, so the timer thread cannot outlive the shutdown.
+	 * </p>
+	 *
+	 * @return the timer for scheduled tasks
+	 * @throws IllegalStateException if the timer has been stopped by a shutdown that has not finished
+	 */
+	public static TaskTimer getTimer() {
+		TaskTimer current = timer;
+		if (current == null || current.isStopped()) {
+			synchronized (TIMER_LOCK) {
+				current = timer;
+				if (current == null || current.isStopped()) {
+					if (timerStopped) {
+						throw new IllegalStateException("Timer has been stopped as the thread pools are shutting down.");
+					}
+					current = new TaskTimer("taskmaster-timer", TaskMasterProperties.getTimerTickDuration(), TimeUnit.MILLISECONDS,
+							TaskMasterProperties.getTimerWheelSize());
+					timer = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Stop the timer so no more scheduled tasks are handed to the thread pools. Scheduled tasks not yet due are
+	 * cancelled.
+	 */
+	private static void stopTimer() {
+		TaskTimer current;
+		synchronized (TIMER_LOCK) {
+			current = timer;
+			timer = null;
+			timerStopped = true;
+		}
+		if (current != null) {
+			int cancelled = current.stop();
+			if (cancelled > 0) {
+				LOGGER.info("Stopped timer and cancelled " + cancelled + " scheduled tasks.");
+			}
+		}
+	}
+
+	/**
+	 * Flag the shutdown has finished so the timer can be created again if the pools are used again.
+	 */
+	private static void endShutdown() {
+		synchronized (TIMER_LOCK) {
+			timerStopped = false;
+		}
+		shuttingDown = false;
+	}
+
+	/**
+	 * @return true if the thread pools are shutting down
+	 */
+	public static boolean isShuttingDown() {
+		return shuttingDown;
+	}
+
+	/**
+	 * Orderly shutdown of the thread pools.
+	 * <p>
+	 * New tasks are no longer accepted and queued tasks are drained until the deadline. Any tasks still queued at the
+	 * deadline are dropped (aborted with a {@link RejectedTaskException}) and running tasks are interrupted.
+	 * </p>
+	 * <p>
+	 * The timer keeps running while the pools drain so the tasks still running keep their timeouts. Scheduled tasks that
+	 * fall due during the shutdown are cancelled. The timer is stopped once the pools have drained.
+	 * </p>
+	 *
+	 * @param timeout the maximum milliseconds to wait for the pools to drain
+	 * @return the report of the tasks completed, dropped and interrupted in each pool
+	 */
+	public static TaskShutdownReport shutdown(final long timeout) {
+		long deadline = System.currentTimeMillis() + Math.max(0, timeout);
+		shuttingDown = true;
+		List<TaskShutdownReport.PoolReport> reports;
+		try {
+			// Stop accepting new tasks and note what is still to do
+			Map<String, Integer> pending = new LinkedHashMap<>();
+			for (Map.Entry<String, ExecutorService> entry : THREAD_POOLS.entrySet()) {
+				ExecutorService exec = entry.getValue();
+				pending.put(entry.getKey(), addCounts(getQueuedCount(exec), getActiveCount(exec)));
+				exec.shutdown();
+			}
+			reports = new ArrayList<>(pending.size());
+			for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+				String name = entry.getKey();
+				ExecutorService exec = THREAD_POOLS.get(name);
+				reports.add(drainPool(name, exec, entry.getValue(), deadline));
+			}
+			// No more timeouts or scheduled tasks now the pools have drained
+			stopTimer();
+		} finally {
+			endShutdown();
+		}
+		TaskShutdownReport report = new TaskShutdownReport(reports);
+		LOGGER.info("Shutdown thread pools. " + report);
+		return report;
+	}
+
+	/**
+	 * Wait for the pool to drain until the deadline and then stop whatever remains.
+	 *
+	 * @param name the pool name
+	 * @param exec the pool that has been shutdown
+	 * @param pending the queued and running tasks when the shutdown started, or -1 if not known
+	 * @param deadline the time (epoch milliseconds) to stop waiting
+	 * @return the report for the pool
+	 */
+	static TaskShutdownReport.PoolReport drainPool(final String name, final ExecutorService exec, final int pending,
+			final long deadline) {
+		try {
+			if (awaitTermination(exec, deadline - System.currentTimeMillis())) {
+				return new TaskShutdownReport.PoolReport(name, pending, 0, 0, true);
+			}
+			// Deadline has passed
+			int queued = getQueuedCount(exec);
+			int interrupted = getActiveCount(exec);
+			// Fork join and virtual pools hand back the tasks that had not started as well
+			List<Runnable> notStarted = exec.shutdownNow();
+			int dropped = queued < 0 ? notStarted.size() : Math.max(queued, notStarted.size());
+			RejectedTaskException reason = new RejectedTaskException("Thread pool [" + name + "] shutdown before the task started.");
+			for (Runnable task : notStarted) {
+				if (task instanceof TaskFutureTask) {
+					((TaskFutureTask) task).abort(reason);
+				}
+			}
+			// Give the interrupted tasks a moment to finish
+			boolean terminated = awaitTermination(exec, INTERRUPT_GRACE);
+			int completed = pending < 0 || interrupted < 0 ? -1 : Math.max(0, pending - dropped - interrupted);
+			LOGGER.warn("Thread pool [" + name + "] did not drain before the shutdown deadline. Dropped " + dropped
+					+ " tasks and interrupted " + interrupted + " tasks.");
+			return new TaskShutdownReport.PoolReport(name, completed, dropped, interrupted, terminated);
+		} catch (Exception e) {
+			LOGGER.error("Could not shutdown thread pool [" + name + "]. " + e.getMessage(), e);
+			return new TaskShutdownReport.PoolReport(name, -1, -1, -1, exec.isTerminated());
+		}
+	}
+
+	/**
+	 * @param exec the pool to wait for
+	 * @param timeout the maximum milliseconds to wait
+	 * @return true if the pool terminated
+	 */
+	private static boolean awaitTermination(final ExecutorService exec, final long timeout) {
+		try {
+			return exec.awaitTermination(Math.max(0, timeout), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return exec.isTerminated();
+		}
+	}
+
+	/**
+	 * @param exec the pool
+	 * @return the number of tasks waiting to run, or -1 if not known
+	 */
+	private static int getQueuedCount(final ExecutorService exec) {
+		if (exec instanceof ThreadPoolExecutor) {
+			return ((ThreadPoolExecutor) exec).getQueue().size();
+		}
+		if (exec instanceof ForkJoinPool) {
+			ForkJoinPool fjp = (ForkJoinPool) exec;
+			return (int) Math.min(Integer.MAX_VALUE, fjp.getQueuedSubmissionCount() + fjp.getQueuedTaskCount());
+		}
+		if (exec instanceof VirtualThreadExecutorService) {
+			return ((VirtualThreadExecutorService) exec).getQueueLength();
+		}
+		return -1;
+	}
+
+	/**
+	 * @param exec the pool
+	 * @return the number of tasks running, or -1 if not known
+	 */
+	private static int getActiveCount(final ExecutorService exec) {
+		if (exec instanceof ThreadPoolExecutor) {
+			return ((ThreadPoolExecutor) exec).getActiveCount();
+		}
+		if (exec instanceof ForkJoinPool) {
+			return ((ForkJoinPool) exec).getActiveThreadCount();
+		}
+		if (exec instanceof VirtualThreadExecutorService) {
+			return ((VirtualThreadExecutorService) exec).getActiveCount();
+		}
+		return -1;
+	}
+
+	/**
+	 * @param first the first count or -1 if not known
+	 * @param second the second count or -1 if not known
+	 * @return the total or -1 if either count is not known
+	 */
+	private static int addCounts(final int first, final int second) {
+		return first < 0 || second < 0 ? -1 : first + second;
+	}
+
 	/**
 	 * Shutdown the thread pools.
 	 */
 	public static void shutdownNow() {
 		boolean error = false;
-		// Shutdown the threads in the pool
-		for (Map.Entry<String, ExecutorService> pools : THREAD_POOLS.entrySet()) {
-			try {
-				pools.getValue().shutdownNow();
-				LOGGER.info("Shutdown thread pool [" + pools.getKey() + "].");
-			} catch (Exception e) {
-				error = true;
-				LOGGER.error("Could not shutdown thread pool [" + pools.getKey() + "]. " + e.getMessage(), e);
+		shuttingDown = true;
+		try {
+			// Shutdown the threads in the pool
+			for (Map.Entry<String, ExecutorService> pools : THREAD_POOLS.entrySet()) {
+				try {
+					pools.getValue().shutdownNow();
+					LOGGER.info("Shutdown thread pool [" + pools.getKey() + "].");
+				} catch (Exception e) {
+					error = true;
+					LOGGER.error("Could not shutdown thread pool [" + pools.getKey() + "]. " + e.getMessage(), e);
+				}
 			}
+			stopTimer();
+		} finally {
+			endShutdown();
 		}
 		if (error) {
 			throw new TaskMasterException("Errors occured shutdowning thread pools.");
@@ -111,11 +474,15 @@ public final class TaskMasterPoolUtil {
 	 * @param poolName the thread pool name
 	 * @return the thread pool for the given name.
 	 */
-	public static synchronized ExecutorService getPool(final String poolName) {
+	public static ExecutorService getPool(final String poolName) {
 		String name = poolName == null ? TaskMasterPoolUtil.DEFAULT_POOL : poolName;
 		ExecutorService pool = THREAD_POOLS.get(name);
 		if (pool == null) {
-			throw new IllegalStateException("Pool [" + name + "] has not been defined.");
+			if (!POOL_NAMES.contains(name)) {
+				throw new IllegalStateException("Pool [" + name + "] has not been defined.");
+			}
+			// First use of the pool
+			pool = THREAD_POOLS.computeIfAbsent(name, TaskMasterPoolUtil::buildPool);
 		}
 		// Check if terminated (reactivate)
 		if (pool.isTerminated()) {
@@ -123,11 +490,31 @@ public final class TaskMasterPoolUtil {
 			if (Thread.currentThread().isInterrupted()) {
 				throw new IllegalStateException("Pool [" + name + "] has terminated and thread is interrupted.");
 			}
-			LOGGER.info("Thread pool [" + name + "] is terminated. Will be built again.");
-			pool = TaskMasterPoolUtil.buildPool(name);
-			THREAD_POOLS.put(name, pool);
+			// Only one thread rebuilds the pool. Other threads wanting this pool wait and then use the rebuilt pool.
+			pool = THREAD_POOLS.compute(name, (key, current) -> {
+				if (current == null || current.isTerminated()) {
+					LOGGER.info("Thread pool [" + key + "] is terminated. Will be built again.");
+					return TaskMasterPoolUtil.buildPool(key);
+				}
+				return current;
+			});
 		}
 		return pool;
 	}
 
+	/**
+	 * The default task timeout of the pool. Read once per pool to keep config lookups off the submit path.
+	 *
+	 * @param poolName the thread pool name or null for the default pool
+	 * @return the default milliseconds a task in the pool can run, or 0 for no timeout
+	 */
+	public static long getTaskTimeout(final String poolName) {
+		String name = poolName == null ? TaskMasterPoolUtil.DEFAULT_POOL : poolName;
+		Long timeout = TASK_TIMEOUTS.get(name);
+		if (timeout == null) {
+			timeout = TASK_TIMEOUTS.computeIfAbsent(name, TaskMasterProperties::getPoolTaskTimeout);
+		}
+		return timeout;
+	}
+
 }
@@ -16,10 +16,27 @@ public final class TaskMasterProperties {
 	 */
 	public static final String FUTURE_TASK_CACHE_NAME = "bordertech-tm-future-task";
 
-	private static final Duration FUTURE_TASK_CACHE_DURATION = new Duration(TimeUnit.SECONDS, Long.valueOf("300"));
+	/**
+	 * Completed future task cache name.
+	 */
+	public static final String FUTURE_COMPLETED_CACHE_NAME = "bordertech-tm-future-completed";
+
+	/**
+	 * Distributed logical thread pool permit cache name.
+	 */
+	public static final String LOGICAL_PERMIT_CACHE_NAME = "bordertech-tm-logical-permits";
+
+	private static final Duration FUTURE_TASK_CACHE_DURATION = new Duration(TimeUnit.SECONDS, Long.valueOf("3600"));
+	private static final Duration FUTURE_COMPLETED_CACHE_DURATION = new Duration(TimeUnit.SECONDS, Long.valueOf("60"));
+	private static final long DEFAULT_FUTURE_READ_GRACE = 10;
 	private static final String TP_PARAM_PREFIX = "bordertech.taskmaster.pool.";
 	private static final int DEFAULT_MAX_THREADS = 20;
 	private static final int DEFAULT_QUEUE_LENGTH = 0;
+	private static final int DEFAULT_STARVATION_INTERVAL = 10;
+	private static final long DEFAULT_SATURATION_TIMEOUT = 1000;
+	private static final long DEFAULT_SHUTDOWN_TIMEOUT = 30000;
+	private static final long DEFAULT_TIMER_TICK = 100;
+	private static final int DEFAULT_TIMER_WHEEL = 512;
 
 	/**
 	 * Private constructor for static class.
@@ -29,13 +46,67 @@ public final class TaskMasterProperties {
 	}
 
 	/**
-	 * @return the future task cache duration
+	 * @return the running future task cache duration (refreshed on access)
 	 */
 	public static Duration getFutureTaskCacheDuration() {
 		// Check for override
 		return CachingProperties.getCacheDuration(FUTURE_TASK_CACHE_NAME, FUTURE_TASK_CACHE_DURATION);
 	}
 
+	/**
+	 * @return the duration a completed future is held if it has not been read
+	 */
+	public static Duration getFutureCompletedCacheDuration() {
+		// Check for override
+		return CachingProperties.getCacheDuration(FUTURE_COMPLETED_CACHE_NAME, FUTURE_COMPLETED_CACHE_DURATION);
+	}
+
+	/**
+	 * @return the grace period a completed future is held after it has been read
+	 */
+	public static Duration getFutureCompletedReadGrace() {
+		long grace = get().getLong("bordertech.taskmaster.future.completed.read.grace", DEFAULT_FUTURE_READ_GRACE);
+		return grace <= 0 ? Duration.ZERO : new Duration(TimeUnit.SECONDS, grace);
+	}
+
+	/**
+	 * The interval to refresh the future's cache entry when the future is being accessed via its local reference.
+	 * <p>
+	 * Defaults to a quarter of the future task cache duration. Zero or less means the cache entry is not refreshed.
+	 * </p>
+	 *
+	 * @return the future task cache touch interval in milliseconds
+	 */
+	public static long getFutureTaskTouchInterval() {
+		Duration duration = getFutureTaskCacheDuration();
+		long defaultInterval = duration.isEternal() ? 0 : duration.getTimeUnit().toMillis(duration.getDurationAmount()) / 4;
+		return get().getLong("bordertech.taskmaster.future.touch.interval", defaultInterval);
+	}
+
+	/**
+	 * @return the maximum milliseconds an orderly shutdown waits for the thread pools to drain
+	 */
+	public static long getShutdownTimeout() {
+		long timeout = get().getLong("bordertech.taskmaster.shutdown.timeout", DEFAULT_SHUTDOWN_TIMEOUT);
+		return timeout < 0 ? 0 : timeout;
+	}
+
+	/**
+	 * @return the milliseconds per tick of the timer for scheduled tasks
+	 */
+	public static long getTimerTickDuration() {
+		long tick = get().getLong("bordertech.taskmaster.timer.tick", DEFAULT_TIMER_TICK);
+		return tick < 1 ? DEFAULT_TIMER_TICK : tick;
+	}
+
+	/**
+	 * @return the number of buckets in the timer wheel for scheduled tasks
+	 */
+	public static int getTimerWheelSize() {
+		int size = get().getInt("bordertech.taskmaster.timer.wheel", DEFAULT_TIMER_WHEEL);
+		return size < 1 ? DEFAULT_TIMER_WHEEL : size;
+	}
+
 	/**
 	 * @return the default thread pool name.
 	 */
@@ -71,6 +142,50 @@ public final class TaskMasterProperties {
 		return max;
 	}
 
+	/**
+	 * @param pool the thread pool name
+	 * @return the max concurrent tasks for a virtual thread pool, zero means no limit
+	 */
+	public static int getPoolMaxConcurrency(final String pool) {
+		// Virtual threads default to no limit
+		int max = get().getInt(TP_PARAM_PREFIX + pool + ".max", 0);
+		return max < 0 ? 0 : max;
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the parallelism for a fork join pool, defaults to the number of available processors
+	 */
+	public static int getPoolParallelism(final String pool) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int parallelism = get().getInt(TP_PARAM_PREFIX + pool + ".parallelism", processors);
+		return parallelism < 1 ? processors : parallelism;
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return true if a fork join pool uses local FIFO scheduling for forked tasks that are never joined
+	 */
+	public static boolean isPoolAsyncMode(final String pool) {
+		return get().getBoolean(TP_PARAM_PREFIX + pool + ".async", false);
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return true if orphaned tasks in the pool are interrupted when they are cancelled
+	 */
+	public static boolean isPoolOrphanInterrupt(final String pool) {
+		return get().getBoolean(TP_PARAM_PREFIX + pool + ".orphan.interrupt", true);
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return true if the pool is built and its core threads started in the background on startup
+	 */
+	public static boolean isPoolPrestart(final String pool) {
+		return get().getBoolean(TP_PARAM_PREFIX + pool + ".prestart", false);
+	}
+
 	/**
 	 * @param pool the thread pool name
 	 * @return the pending queue length
@@ -80,6 +195,58 @@ public final class TaskMasterProperties {
 		return get().getInt(TP_PARAM_PREFIX + pool + ".queue", DEFAULT_QUEUE_LENGTH);
 	}
 
+	/**
+	 * @param pool the thread pool name
+	 * @return the pending queue mode of a fixed pool, {@code fifo} (default) or {@code priority}
+	 */
+	public static String getPoolQueueMode(final String pool) {
+		return get().getString(TP_PARAM_PREFIX + pool + ".queue.mode", "fifo");
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the number of dequeues of a priority queue after which the longest waiting task is taken, zero disables
+	 */
+	public static int getPoolStarvationInterval(final String pool) {
+		int interval = get().getInt(TP_PARAM_PREFIX + pool + ".queue.starvation", DEFAULT_STARVATION_INTERVAL);
+		return interval < 0 ? 0 : interval;
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the saturation policy of a fixed pool (reject, block, caller-runs, drop-oldest or retry-after)
+	 */
+	public static String getPoolSaturationPolicy(final String pool) {
+		return get().getString(TP_PARAM_PREFIX + pool + ".saturation", "reject");
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the milliseconds to wait for room in a saturated pool with the block policy
+	 */
+	public static long getPoolSaturationTimeout(final String pool) {
+		long timeout = get().getLong(TP_PARAM_PREFIX + pool + ".saturation.timeout", DEFAULT_SATURATION_TIMEOUT);
+		return timeout < 0 ? 0 : timeout;
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the milliseconds to retry after when the drain rate of a saturated pool is not known
+	 */
+	public static long getPoolSaturationRetryAfter(final String pool) {
+		long retry = get().getLong(TP_PARAM_PREFIX + pool + ".saturation.retry", DEFAULT_SATURATION_TIMEOUT);
+		return retry < 0 ? 0 : retry;
+	}
+
+	/**
+	 * @param pool the thread pool name
+	 * @return the default milliseconds a task in the pool can run before it is stopped, or 0 for no timeout
+	 */
+	public static long getPoolTaskTimeout(final String pool) {
+		long timeout = get().getLong(TP_PARAM_PREFIX + pool + ".timeout", 0);
+		return timeout < 0 ? 0 : timeout;
+	}
+
 	/**
 	 * @return the logical thread wait interval in milli seconds
 	 */
@@ -94,6 +261,37 @@ public final class TaskMasterProperties {
 		return get().getInt("bordertech.taskmaster.logicalthreadpool.wait.max.intervals", 200);
 	}
 
+	/**
+	 * @return true if logical thread pools give waiting threads permits in the order they asked for them
+	 */
+	public static boolean isLogicalFair() {
+		return get().getBoolean("bordertech.taskmaster.logicalthreadpool.fair", true);
+	}
+
+	/**
+	 * @return the default logical thread lease duration in milli seconds
+	 */
+	public static long getLogicalLeaseDuration() {
+		long duration = get().getLong("bordertech.taskmaster.logicalthreadpool.lease.duration", 300000);
+		return duration < 1 ? 300000 : duration;
+	}
+
+	/**
+	 * @return the permits a node takes from the cluster at a time for a distributed logical thread pool
+	 */
+	public static int getLogicalDistributedBatch() {
+		int batch = get().getInt("bordertech.taskmaster.logicalthreadpool.distributed.batch", 1);
+		return batch < 1 ? 1 : batch;
+	}
+
+	/**
+	 * @return the milli seconds a node holds its distributed logical thread pool permits before they expire unless renewed
+	 */
+	public static long getLogicalDistributedLease() {
+		long lease = get().getLong("bordertech.taskmaster.logicalthreadpool.distributed.lease", 30000);
+		return lease < 1 ? 30000 : lease;
+	}
+
 	/**
 	 * Shorthand convenience method to get the Configuration instance.
 	 *
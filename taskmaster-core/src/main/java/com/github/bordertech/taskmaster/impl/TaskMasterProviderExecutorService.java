@@ -1,12 +1,20 @@
 package com.github.bordertech.taskmaster.impl;
 
+import com.github.bordertech.taskmaster.TaskBatchFuture;
+import com.github.bordertech.taskmaster.TaskCompletionStage;
 import com.github.bordertech.taskmaster.TaskFuture;
 import com.github.bordertech.taskmaster.TaskMasterProvider;
+import com.github.bordertech.taskmaster.TaskOptions;
+import com.github.bordertech.taskmaster.TaskShutdownReport;
 import com.github.bordertech.taskmaster.exception.RejectedTaskException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Singleton;
 
 /**
@@ -18,9 +26,19 @@ import javax.inject.Singleton;
 @Singleton
 public class TaskMasterProviderExecutorService implements TaskMasterProvider {
 
+	@Override
+	public void prestart() {
+		TaskMasterPoolUtil.prestart();
+	}
+
 	@Override
 	public void shutdown() {
-		shutdownNow();
+		shutdown(TaskMasterProperties.getShutdownTimeout(), TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public TaskShutdownReport shutdown(final long timeout, final TimeUnit unit) {
+		return TaskMasterPoolUtil.shutdown(unit.toMillis(timeout));
 	}
 
 	@Override
@@ -42,17 +60,204 @@ public class TaskMasterProviderExecutorService implements TaskMasterProvider {
 		if (result == null) {
 			throw new IllegalArgumentException("Result cannot be null");
 		}
+		TaskFutureTask<T> future = createTask(task, result, pool);
+		doSubmit(future, pool);
+		return new TaskFutureWrapper<>(future);
+	}
+
+	@Override
+	public <T extends Serializable> TaskFuture<T> submit(final Runnable task, final T result, final String pool, final TaskOptions options)
+			throws RejectedTaskException {
+		if (task == null) {
+			throw new IllegalArgumentException("Task cannot be null");
+		}
+		if (result == null) {
+			throw new IllegalArgumentException("Result cannot be null");
+		}
+		if (options == null) {
+			throw new IllegalArgumentException("Options cannot be null");
+		}
+		TaskFutureTask<T> future = createTask(task, result, pool);
+		future.setOptions(options);
+		doSubmit(future, pool);
+		return new TaskFutureWrapper<>(future);
+	}
+
+	@Override
+	public <T extends Serializable> TaskCompletionStage<T> submitStage(final Runnable task, final T result, final String pool,
+			final String callbackPool) throws RejectedTaskException {
+		if (task == null) {
+			throw new IllegalArgumentException("Task cannot be null");
+		}
+		if (result == null) {
+			throw new IllegalArgumentException("Result cannot be null");
+		}
+		TaskFutureTask<T> future = createTask(task, result, pool);
+		doSubmit(future, pool);
+		return new TaskCompletionStageWrapper<>(future, callbackPool == null ? pool : callbackPool);
+	}
+
+	@Override
+	public <T extends Serializable> TaskBatchFuture<T> submitAll(final Collection<? extends Runnable> tasks, final T result,
+			final String pool) throws RejectedTaskException {
+		if (tasks == null) {
+			throw new IllegalArgumentException("Tasks cannot be null");
+		}
+		if (result == null) {
+			throw new IllegalArgumentException("Result cannot be null");
+		}
+		List<TaskFutureTask<T>> items = new ArrayList<>(tasks.size());
+		for (Runnable task : tasks) {
+			if (task == null) {
+				throw new IllegalArgumentException("Task cannot be null");
+			}
+			items.add(createTask(task, result, pool));
+		}
+		// Get the executor
+		ExecutorService exec = getPool(pool);
+		boolean fork = isForkJoinWorker(exec);
+		TaskBatch<T> batch = new TaskBatch<>(items, pool);
+		// Submit the tasks
+		try {
+			for (TaskFutureTask<T> item : items) {
+				if (fork) {
+					((TaskForkJoinPool) exec).fork(item);
+				} else {
+					exec.execute(item);
+				}
+			}
+		} catch (RejectedExecutionException e) {
+			// Cancel the tasks already enqueued
+			batch.cancel(false);
+			throw buildRejectedException("Unable to start batch of " + items.size() + " tasks in pool [" + pool + "].", e);
+		}
+		return new TaskBatchFutureWrapper<>(batch);
+	}
+
+	@Override
+	public <T extends Serializable> TaskFuture<T> schedule(final Runnable task, final T result, final long delay, final TimeUnit unit,
+			final String pool) throws RejectedTaskException {
+		return doSchedule(task, result, delay, 0, unit, pool);
+	}
+
+	@Override
+	public <T extends Serializable> TaskFuture<T> scheduleAtFixedRate(final Runnable task, final T result, final long initialDelay,
+			final long period, final TimeUnit unit, final String pool) throws RejectedTaskException {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be greater than zero");
+		}
+		return doSchedule(task, result, initialDelay, period, unit, pool);
+	}
+
+	/**
+	 * Hand the task to the thread pool.
+	 * <p>
+	 * If called from a worker of the same fork join pool the task is forked onto the worker's queue so it can be work
+	 * stolen.
+	 * </p>
+	 *
+	 * @param <T> the type for the future
+	 * @param future the task to run
+	 * @param pool the thread pool name to run the task, or null for the default pool
+	 * @throws RejectedTaskException if the pool rejected the task
+	 */
+	protected <T extends Serializable> void doSubmit(final TaskFutureTask<T> future, final String pool) throws RejectedTaskException {
 		// Get the executor
 		ExecutorService exec = getPool(pool);
 		// Submit the task
 		try {
-			Future<T> future = exec.submit(task, result);
-			return new TaskFutureWrapper<>(future);
+			if (isForkJoinWorker(exec)) {
+				((TaskForkJoinPool) exec).fork(future);
+			} else {
+				exec.execute(future);
+			}
 		} catch (RejectedExecutionException e) {
-			throw new RejectedTaskException("Unable to start task in pool [" + pool + "].", e);
+			throw buildRejectedException("Unable to start task in pool [" + pool + "].", e);
 		}
 	}
 
+	/**
+	 * Schedule the task on the timer.
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to schedule
+	 * @param result the result to return
+	 * @param delay the delay until the first run
+	 * @param period the period between runs, or zero to run once
+	 * @param unit the time unit of the delay and period
+	 * @param pool the thread pool name to run the task, or null for the default pool
+	 * @return a Future representing the scheduled task
+	 * @throws RejectedTaskException if the task cannot be scheduled
+	 */
+	protected <T extends Serializable> TaskFuture<T> doSchedule(final Runnable task, final T result, final long delay, final long period,
+			final TimeUnit unit, final String pool) throws RejectedTaskException {
+		if (task == null) {
+			throw new IllegalArgumentException("Task cannot be null");
+		}
+		if (result == null) {
+			throw new IllegalArgumentException("Result cannot be null");
+		}
+		if (unit == null) {
+			throw new IllegalArgumentException("Time unit cannot be null");
+		}
+		// Check the pool is defined (and build it so it is ready when the task is due)
+		getPool(pool);
+		TaskScheduledFutureTask<T> future = new TaskScheduledFutureTask<>(task, result, pool, unit.toNanos(period));
+		future.setTimeout(TaskMasterPoolUtil.getTaskTimeout(pool));
+		TaskFuture<T> wrapper = new TaskFutureWrapper<>(future);
+		try {
+			future.schedule(delay, unit);
+		} catch (IllegalStateException e) {
+			future.cancel(false);
+			throw new RejectedTaskException("Unable to schedule task in pool [" + pool + "]. " + e.getMessage(), e);
+		}
+		return wrapper;
+	}
+
+	/**
+	 * Create the task with the default timeout of the pool.
+	 *
+	 * @param <T> the type for the future
+	 * @param task the task to run
+	 * @param result the result to return
+	 * @param pool the thread pool name to run the task, or null for the default pool
+	 * @return the task
+	 */
+	protected <T extends Serializable> TaskFutureTask<T> createTask(final Runnable task, final T result, final String pool) {
+		TaskFutureTask<T> future = new TaskFutureTask<>(task, result, pool);
+		future.setTimeout(TaskMasterPoolUtil.getTaskTimeout(pool));
+		return future;
+	}
+
+	/**
+	 * Build the exception for a task the pool rejected, keeping the retry estimate of a saturated pool.
+	 *
+	 * @param msg the message
+	 * @param excp the rejected execution exception
+	 * @return the rejected task exception
+	 */
+	protected RejectedTaskException buildRejectedException(final String msg, final RejectedExecutionException excp) {
+		if (excp instanceof TaskPoolSaturatedException) {
+			long retryAfter = ((TaskPoolSaturatedException) excp).getRetryAfter();
+			return new RejectedTaskException(msg + " " + excp.getMessage(), excp, retryAfter);
+		}
+		return new RejectedTaskException(msg, excp);
+	}
+
+	/**
+	 * Check if the current thread is a worker in the fork join pool.
+	 * <p>
+	 * Tasks submitted from inside a fork join pool to the same pool are forked so they are queued locally on the worker
+	 * and can be work stolen by idle workers instead of going back through the shared submission queue.
+	 * </p>
+	 *
+	 * @param exec the executor the task is being submitted to
+	 * @return true if the current thread is a worker of the fork join pool
+	 */
+	protected boolean isForkJoinWorker(final ExecutorService exec) {
+		return exec instanceof TaskForkJoinPool && ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == exec;
+	}
+
 	/**
 	 * @param pool the pool to execute the task in
 	 * @return the ExecutorService for this pool
@@ -0,0 +1,28 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown by a saturated pool when a task is rejected, with an estimate of when to retry.
+ */
+public class TaskPoolSaturatedException extends RejectedExecutionException {
+
+	private final long retryAfter;
+
+	/**
+	 * @param msg the message
+	 * @param retryAfter the estimated milliseconds until the task could be accepted, or 0 if not known
+	 */
+	public TaskPoolSaturatedException(final String msg, final long retryAfter) {
+		super(msg);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * @return the estimated milliseconds until the task could be accepted, or 0 if not known
+	 */
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+
+}
@@ -0,0 +1,435 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pending task queue for a fixed thread pool that schedules by priority and then earliest deadline first.
+ * <p>
+ * Tasks with the same priority and deadline run in the order they were submitted. Tasks whose deadline has passed are
+ * dropped when they are dequeued and their future completes with a
+ * {@link com.github.bordertech.taskmaster.exception.TaskExpiredException}.
+ * </p>
+ * <p>
+ * To stop a steady stream of high priority tasks starving low priority tasks, every Nth dequeue (the starvation
+ * interval) takes the task that has waited the longest regardless of its priority. An interval of zero disables the
+ * starvation protection.
+ * </p>
+ * <p>
+ * Runnables that are not a {@link TaskFutureTask} are queued with normal priority and no deadline.
+ * </p>
+ */
+public class TaskPriorityQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+	private static final Comparator<Entry> PRIORITY_ORDER = (a, b) -> {
+		if (a.priority != b.priority) {
+			return a.priority > b.priority ? -1 : 1;
+		}
+		if (a.deadline != b.deadline) {
+			return a.deadline < b.deadline ? -1 : 1;
+		}
+		return Long.compare(a.sequence, b.sequence);
+	};
+
+	private static final Comparator<Entry> AGE_ORDER = (a, b) -> Long.compare(a.sequence, b.sequence);
+
+	private final int capacity;
+	private final int starvationInterval;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	private final TreeSet<Entry> byPriority = new TreeSet<>(PRIORITY_ORDER);
+	private final TreeSet<Entry> byAge = new TreeSet<>(AGE_ORDER);
+	private final Map<Runnable, Entry> entries = new IdentityHashMap<>();
+	private long sequence;
+	private int dequeueCount;
+
+	/**
+	 * @param capacity the maximum tasks waiting, or less than one for no limit
+	 * @param starvationInterval take the longest waiting task every Nth dequeue, or zero to disable
+	 */
+	public TaskPriorityQueue(final int capacity, final int starvationInterval) {
+		this.capacity = capacity < 1 ? Integer.MAX_VALUE : capacity;
+		this.starvationInterval = starvationInterval < 0 ? 0 : starvationInterval;
+	}
+
+	@Override
+	public boolean offer(final Runnable task) {
+		checkTask(task);
+		lock.lock();
+		try {
+			if (entries.size() >= capacity) {
+				return false;
+			}
+			enqueue(task);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(final Runnable task, final long timeout, final TimeUnit unit) throws InterruptedException {
+		checkTask(task);
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (entries.size() >= capacity) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			enqueue(task);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(final Runnable task) throws InterruptedException {
+		checkTask(task);
+		lock.lockInterruptibly();
+		try {
+			while (entries.size() >= capacity) {
+				notFull.await();
+			}
+			enqueue(task);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable poll() {
+		List<TaskFutureTask> expired = new ArrayList<>(0);
+		lock.lock();
+		try {
+			return dequeue(expired);
+		} finally {
+			lock.unlock();
+			expire(expired);
+		}
+	}
+
+	@Override
+	public Runnable poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		List<TaskFutureTask> expired = new ArrayList<>(0);
+		lock.lockInterruptibly();
+		try {
+			while (true) {
+				Runnable task = dequeue(expired);
+				if (task != null) {
+					return task;
+				}
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+		} finally {
+			lock.unlock();
+			expire(expired);
+		}
+	}
+
+	@Override
+	public Runnable take() throws InterruptedException {
+		List<TaskFutureTask> expired = new ArrayList<>(0);
+		lock.lockInterruptibly();
+		try {
+			while (true) {
+				Runnable task = dequeue(expired);
+				if (task != null) {
+					return task;
+				}
+				// Drop expired tasks outside the lock before waiting
+				if (!expired.isEmpty()) {
+					lock.unlock();
+					try {
+						expire(expired);
+					} finally {
+						lock.lockInterruptibly();
+					}
+					continue;
+				}
+				notEmpty.await();
+			}
+		} finally {
+			if (lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+			expire(expired);
+		}
+	}
+
+	/**
+	 * Remove the task that has waited the longest regardless of its priority.
+	 *
+	 * @return the longest waiting task or null if the queue is empty
+	 */
+	public Runnable pollOldest() {
+		lock.lock();
+		try {
+			Entry entry = byAge.pollFirst();
+			if (entry == null) {
+				return null;
+			}
+			byPriority.remove(entry);
+			entries.remove(entry.task);
+			notFull.signal();
+			return entry.task;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Runnable peek() {
+		lock.lock();
+		try {
+			return byPriority.isEmpty() ? null : byPriority.first().task;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int remainingCapacity() {
+		if (capacity == Integer.MAX_VALUE) {
+			return Integer.MAX_VALUE;
+		}
+		lock.lock();
+		try {
+			return capacity - entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(final Object task) {
+		lock.lock();
+		try {
+			Entry entry = entries.remove(task);
+			if (entry == null) {
+				return false;
+			}
+			byPriority.remove(entry);
+			byAge.remove(entry);
+			notFull.signal();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean contains(final Object task) {
+		lock.lock();
+		try {
+			return entries.containsKey(task);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(final Collection<? super Runnable> collection) {
+		return drainTo(collection, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(final Collection<? super Runnable> collection, final int maxElements) {
+		if (collection == this) {
+			throw new IllegalArgumentException("Cannot drain queue to itself.");
+		}
+		lock.lock();
+		try {
+			int count = 0;
+			// Drain in priority order and include expired tasks so the caller decides what to do with them
+			while (count < maxElements && !byPriority.isEmpty()) {
+				Entry entry = byPriority.pollFirst();
+				byAge.remove(entry);
+				entries.remove(entry.task);
+				collection.add(entry.task);
+				count++;
+			}
+			if (count > 0) {
+				notFull.signalAll();
+			}
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return a snapshot of the waiting tasks in priority order. Removing via the iterator removes the task from the queue.
+	 */
+	@Override
+	public Iterator<Runnable> iterator() {
+		final List<Runnable> snapshot;
+		lock.lock();
+		try {
+			snapshot = new ArrayList<>(entries.size());
+			for (Entry entry : byPriority) {
+				snapshot.add(entry.task);
+			}
+		} finally {
+			lock.unlock();
+		}
+		return new Iterator<Runnable>() {
+			private int index;
+			private Runnable last;
+
+			@Override
+			public boolean hasNext() {
+				return index < snapshot.size();
+			}
+
+			@Override
+			public Runnable next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = snapshot.get(index++);
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				TaskPriorityQueue.this.remove(last);
+				last = null;
+			}
+		};
+	}
+
+	/**
+	 * Add the task to the queue. Must hold the lock.
+	 *
+	 * @param task the task to add
+	 */
+	private void enqueue(final Runnable task) {
+		Entry entry = new Entry(task, sequence++);
+		byPriority.add(entry);
+		byAge.add(entry);
+		entries.put(task, entry);
+		notEmpty.signal();
+	}
+
+	/**
+	 * Take the next task to run. Must hold the lock.
+	 *
+	 * @param expired collects the tasks dropped as their deadline has passed
+	 * @return the next task to run or null if the queue is empty
+	 */
+	private Runnable dequeue(final List<TaskFutureTask> expired) {
+		long now = 0;
+		while (!byPriority.isEmpty()) {
+			Entry entry;
+			if (starvationInterval > 0 && ++dequeueCount >= starvationInterval) {
+				// Let the longest waiting task through
+				dequeueCount = 0;
+				entry = byAge.pollFirst();
+				byPriority.remove(entry);
+			} else {
+				entry = byPriority.pollFirst();
+				byAge.remove(entry);
+			}
+			entries.remove(entry.task);
+			notFull.signal();
+			if (entry.deadline != Long.MAX_VALUE) {
+				if (now == 0) {
+					now = System.currentTimeMillis();
+				}
+				if (now > entry.deadline) {
+					expired.add((TaskFutureTask) entry.task);
+					continue;
+				}
+			}
+			return entry.task;
+		}
+		return null;
+	}
+
+	/**
+	 * Complete the dropped tasks. Called outside the lock as completing a task notifies its listeners.
+	 *
+	 * @param expired the tasks dropped as their deadline has passed
+	 */
+	private void expire(final List<TaskFutureTask> expired) {
+		if (expired.isEmpty()) {
+			return;
+		}
+		for (TaskFutureTask task : expired) {
+			task.expire();
+		}
+		expired.clear();
+	}
+
+	/**
+	 * @param task the task to check
+	 */
+	private static void checkTask(final Runnable task) {
+		if (task == null) {
+			throw new NullPointerException("Task cannot be null");
+		}
+	}
+
+	/**
+	 * A waiting task.
+	 */
+	private static final class Entry {
+
+		private final Runnable task;
+		private final int priority;
+		private final long deadline;
+		private final long sequence;
+
+		/**
+		 * @param task the waiting task
+		 * @param sequence the order the task was added
+		 */
+		private Entry(final Runnable task, final long sequence) {
+			this.task = task;
+			this.sequence = sequence;
+			if (task instanceof TaskFutureTask) {
+				TaskFutureTask future = (TaskFutureTask) task;
+				this.priority = future.getPriority();
+				this.deadline = future.getDeadline() > 0 ? future.getDeadline() : Long.MAX_VALUE;
+			} else {
+				this.priority = 0;
+				this.deadline = Long.MAX_VALUE;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles a task submitted to a fixed pool that has no free thread and a full queue.
+ * <p>
+ * The policy is set per pool via {@code bordertech.taskmaster.pool.<name>.saturation}:
+ * </p>
+ * <ul>
+ * <li>{@code reject} (default) - reject the task straight away</li>
+ * <li>{@code block} - wait up to {@code saturation.timeout} milliseconds for room in the queue and then reject</li>
+ * <li>{@code caller-runs} - run the task on the submitting thread</li>
+ * <li>{@code drop-oldest} - drop the longest waiting task to make room. The dropped task is aborted with a
+ * {@link RejectedTaskException}</li>
+ * <li>{@code retry-after} - reject the task with an estimate of when to retry, based on how fast the queue is being
+ * drained</li>
+ * </ul>
+ * <p>
+ * The drain rate is only sampled while the pool is saturated. A rejection more than twice the last retry estimate
+ * after the previous one starts a new saturation period, so the idle time in between does not count as a slow drain.
+ * </p>
+ */
+public class TaskSaturationHandler implements RejectedExecutionHandler {
+
+	/**
+	 * Weight given to the latest drain rate sample.
+	 */
+	private static final double DRAIN_RATE_WEIGHT = 0.3;
+
+	/**
+	 * Saturation policies.
+	 */
+	public enum Policy {
+		/**
+		 * Reject the task straight away.
+		 */
+		REJECT,
+		/**
+		 * Wait for room in the queue and then reject.
+		 */
+		BLOCK,
+		/**
+		 * Run the task on the submitting thread.
+		 */
+		CALLER_RUNS,
+		/**
+		 * Drop the longest waiting task.
+		 */
+		DROP_OLDEST,
+		/**
+		 * Reject with an estimate of when to retry.
+		 */
+		RETRY_AFTER;
+
+		/**
+		 * @param value the configured policy name (eg caller-runs)
+		 * @return the policy, defaults to REJECT if not known
+		 */
+		public static Policy fromValue(final String value) {
+			if (value != null) {
+				String name = value.trim().toUpperCase().replace('-', '_');
+				for (Policy policy : values()) {
+					if (policy.name().equals(name)) {
+						return policy;
+					}
+				}
+			}
+			return REJECT;
+		}
+	}
+
+	private final String pool;
+	private final Policy policy;
+	private final long timeout;
+	private final long defaultRetryAfter;
+	private final Object rateLock = new Object();
+	private long lastSampleTime;
+	private long lastCompletedCount;
+	private long lastRetryAfter;
+	private double drainRate;
+
+	/**
+	 * @param pool the thread pool name
+	 * @param policy the saturation policy
+	 * @param timeout the milliseconds to wait for room in the queue when blocking
+	 * @param defaultRetryAfter the milliseconds to retry after when the drain rate is not known
+	 */
+	public TaskSaturationHandler(final String pool, final Policy policy, final long timeout, final long defaultRetryAfter) {
+		this.pool = pool;
+		this.policy = policy;
+		this.timeout = timeout;
+		this.defaultRetryAfter = defaultRetryAfter;
+	}
+
+	/**
+	 * @return the saturation policy
+	 */
+	public Policy getPolicy() {
+		return policy;
+	}
+
+	@Override
+	public void rejectedExecution(final Runnable task, final ThreadPoolExecutor executor) {
+		if (executor.isShutdown()) {
+			throw new RejectedExecutionException("Thread pool [" + pool + "] has been shutdown.");
+		}
+		switch (policy) {
+			case BLOCK:
+				handleBlock(task, executor);
+				break;
+			case CALLER_RUNS:
+				task.run();
+				break;
+			case DROP_OLDEST:
+				handleDropOldest(task, executor);
+				break;
+			case RETRY_AFTER:
+				long retryAfter = estimateRetryAfter(executor);
+				throw new TaskPoolSaturatedException("Thread pool [" + pool + "] is saturated. Retry after " + retryAfter + "ms.", retryAfter);
+			default:
+				throw new RejectedExecutionException("Thread pool [" + pool + "] is saturated.");
+		}
+	}
+
+	/**
+	 * Wait for room in the queue.
+	 *
+	 * @param task the task to queue
+	 * @param executor the saturated pool
+	 */
+	protected void handleBlock(final Runnable task, final ThreadPoolExecutor executor) {
+		try {
+			if (executor.getQueue().offer(task, timeout, TimeUnit.MILLISECONDS)) {
+				// Shutdown while waiting so make sure the task does not sit in the queue
+				if (executor.isShutdown() && executor.remove(task)) {
+					throw new RejectedExecutionException("Thread pool [" + pool + "] has been shutdown.");
+				}
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrupted waiting for room in thread pool [" + pool + "].", e);
+		}
+		throw new RejectedExecutionException("Timed out after " + timeout + "ms waiting for room in thread pool [" + pool + "].");
+	}
+
+	/**
+	 * Drop the longest waiting task and try again.
+	 *
+	 * @param task the task to queue
+	 * @param executor the saturated pool
+	 */
+	protected void handleDropOldest(final Runnable task, final ThreadPoolExecutor executor) {
+		BlockingQueue<Runnable> queue = executor.getQueue();
+		Runnable oldest = queue instanceof TaskPriorityQueue ? ((TaskPriorityQueue) queue).pollOldest() : queue.poll();
+		if (oldest == null) {
+			// Nothing waiting to drop (eg no queue)
+			throw new RejectedExecutionException("Thread pool [" + pool + "] is saturated and has no pending task to drop.");
+		}
+		RejectedTaskException reason = new RejectedTaskException("Task dropped from saturated thread pool [" + pool + "].");
+		if (oldest instanceof TaskFutureTask) {
+			((TaskFutureTask) oldest).abort(reason);
+		} else if (oldest instanceof Future) {
+			((Future) oldest).cancel(false);
+		}
+		executor.execute(task);
+	}
+
+	/**
+	 * Estimate when the queue will have room based on how fast it is being drained.
+	 *
+	 * @param executor the saturated pool
+	 * @return the estimated milliseconds until the task could be accepted
+	 */
+	protected long estimateRetryAfter(final ThreadPoolExecutor executor) {
+		long now = System.currentTimeMillis();
+		long completed = executor.getCompletedTaskCount();
+		double rate;
+		long retryAfter;
+		synchronized (rateLock) {
+			long elapsed = now - lastSampleTime;
+			if (lastSampleTime == 0 || elapsed > 2 * Math.max(lastRetryAfter, defaultRetryAfter)) {
+				// Saturation has just started so only set the baseline (keeps the rate of the last saturation)
+				lastSampleTime = now;
+				lastCompletedCount = completed;
+			} else if (elapsed > 0) {
+				// Tasks completed per millisecond since the last sample
+				double sample = (double) (completed - lastCompletedCount) / elapsed;
+				drainRate = drainRate == 0 ? sample : DRAIN_RATE_WEIGHT * sample + (1 - DRAIN_RATE_WEIGHT) * drainRate;
+				lastSampleTime = now;
+				lastCompletedCount = completed;
+			}
+			rate = drainRate;
+			if (rate <= 0) {
+				retryAfter = defaultRetryAfter;
+			} else {
+				// Time to drain the waiting tasks ahead of this one
+				int waiting = executor.getQueue().size() + 1;
+				retryAfter = Math.max(1, (long) Math.ceil(waiting / rate));
+			}
+			lastRetryAfter = retryAfter;
+		}
+		return retryAfter;
+	}
+
+	/**
+	 * @return the tasks per millisecond the queue drains while saturated, or 0 if not known
+	 */
+	double getDrainRate() {
+		synchronized (rateLock) {
+			return drainRate;
+		}
+	}
+
+}
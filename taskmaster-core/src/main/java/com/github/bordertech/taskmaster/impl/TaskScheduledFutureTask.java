@@ -0,0 +1,142 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A delayed or periodic task that the {@link TaskTimer} hands to its thread pool when it is due.
+ * <p>
+ * A periodic task runs at a fixed rate. If a run takes longer than the period the next run starts as soon as it
+ * finishes, runs never overlap. A periodic task only completes when it is cancelled or a run throws an exception.
+ * </p>
+ * <p>
+ * The timeout applies to each run. A periodic run still running when the timeout passes is interrupted and the task
+ * completes with a {@link com.github.bordertech.taskmaster.exception.TaskTimeoutException} so it is not run again.
+ * </p>
+ *
+ * @param <T> the result type
+ */
+public class TaskScheduledFutureTask<T> extends TaskFutureTask<T> implements TaskTimer.TimerTask {
+
+	private static final Log LOGGER = LogFactory.getLog(TaskScheduledFutureTask.class);
+
+	private final long period;
+	private long nextTime;
+	private volatile TaskTimer.Timeout timeout;
+
+	/**
+	 * @param task the task to run
+	 * @param result the result to return on successful completion
+	 * @param pool the thread pool name to run the task
+	 * @param period the period in nanoseconds between runs, or zero to run once
+	 */
+	public TaskScheduledFutureTask(final Runnable task, final T result, final String pool, final long period) {
+		super(task, result, pool);
+		if (period < 0) {
+			throw new IllegalArgumentException("Period cannot be negative.");
+		}
+		this.period = period;
+		// Stop the timer once the task is done (eg cancelled)
+		addCompletionListener(this::cancelTimeout);
+	}
+
+	/**
+	 * Schedule the first run.
+	 *
+	 * @param delay the delay until the first run
+	 * @param unit the time unit of the delay
+	 */
+	public void schedule(final long delay, final TimeUnit unit) {
+		long delayNanos = Math.max(0, unit.toNanos(delay));
+		nextTime = System.nanoTime() + delayNanos;
+		timeout = TaskMasterPoolUtil.getTimer().newTimeout(this, delayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return true if the task runs periodically
+	 */
+	public boolean isPeriodic() {
+		return period > 0;
+	}
+
+	/**
+	 * Hand the task to its thread pool as it is due.
+	 */
+	@Override
+	public void expired() {
+		if (isDone()) {
+			return;
+		}
+		if (TaskMasterPoolUtil.isShuttingDown()) {
+			// Due while the pools drain so treat as if the timer had stopped
+			stopped();
+			return;
+		}
+		try {
+			TaskMasterPoolUtil.getPool(getPool()).execute(isPeriodic() ? this::runPeriod : this);
+		} catch (RejectedExecutionException | IllegalStateException e) {
+			if (isPeriodic() && !TaskMasterPoolUtil.isShuttingDown()) {
+				LOGGER.warn("Periodic task rejected by thread pool [" + getPool() + "]. Will try again next period. " + e.getMessage());
+				scheduleNext();
+			} else {
+				abort(new RejectedTaskException("Scheduled task rejected by thread pool [" + getPool() + "].", e));
+			}
+		}
+	}
+
+	/**
+	 * The timer stopped (eg TaskMaster shutdown) before the task was due.
+	 */
+	@Override
+	public void stopped() {
+		cancel(false);
+	}
+
+	/**
+	 * Run the periodic task and schedule the next run.
+	 */
+	protected void runPeriod() {
+		if (getDeadline() > 0 && isExpired(System.currentTimeMillis())) {
+			expire();
+			return;
+		}
+		if (runWithTimeout(this::runAndReset)) {
+			scheduleNext();
+		}
+	}
+
+	/**
+	 * Schedule the next periodic run.
+	 */
+	private void scheduleNext() {
+		if (isDone()) {
+			return;
+		}
+		nextTime += period;
+		long delay = Math.max(0, nextTime - System.nanoTime());
+		try {
+			timeout = TaskMasterPoolUtil.getTimer().newTimeout(this, delay, TimeUnit.NANOSECONDS);
+		} catch (IllegalStateException e) {
+			// Timer stopped
+			cancel(false);
+		}
+		// Cancelled while scheduling
+		if (isDone()) {
+			cancelTimeout();
+		}
+	}
+
+	/**
+	 * Cancel the pending timeout.
+	 */
+	private void cancelTimeout() {
+		TaskTimer.Timeout current = timeout;
+		if (current != null) {
+			current.cancel();
+		}
+	}
+
+}
@@ -0,0 +1,461 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Hashed wheel timer that runs timer tasks after a delay.
+ * <p>
+ * A single daemon thread advances the wheel once per tick and expires the timeouts in the current bucket. Adding and
+ * cancelling a timeout only puts it on a queue so it does not block, and a large number of pending timeouts does not
+ * need a thread each. Timeouts expire within one tick of their deadline, so timer tasks should be quick and hand any
+ * real work to a thread pool.
+ * </p>
+ * <p>
+ * The timer thread is started when the first timeout is added.
+ * </p>
+ */
+public class TaskTimer {
+
+	private static final Log LOGGER = LogFactory.getLog(TaskTimer.class);
+
+	/**
+	 * Maximum pending timeouts moved into the wheel per tick so a burst of new timeouts does not stall the wheel.
+	 */
+	private static final int MAX_TRANSFER_PER_TICK = 100000;
+
+	private static final int STATE_INIT = 0;
+	private static final int STATE_STARTED = 1;
+	private static final int STATE_STOPPED = 2;
+
+	private final String name;
+	private final long tickNanos;
+	private final Bucket[] wheel;
+	private final int mask;
+	private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+	private final AtomicLong pendingCount = new AtomicLong();
+	private final Object startLock = new Object();
+	private final Thread worker;
+	private volatile long startTime;
+	private long tick;
+
+	/**
+	 * Task run when a timeout expires.
+	 */
+	public interface TimerTask {
+
+		/**
+		 * Called on the timer thread when the timeout expires.
+		 */
+		void expired();
+
+		/**
+		 * Called if the timer is stopped before the timeout expires.
+		 */
+		default void stopped() {
+			// Do nothing
+		}
+	}
+
+	/**
+	 * @param name the timer thread name
+	 * @param tickDuration the duration of a tick
+	 * @param unit the time unit of the tick duration
+	 * @param wheelSize the number of buckets in the wheel (rounded up to a power of two)
+	 */
+	public TaskTimer(final String name, final long tickDuration, final TimeUnit unit, final int wheelSize) {
+		if (tickDuration <= 0) {
+			throw new IllegalArgumentException("Tick duration must be greater than zero.");
+		}
+		if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+			throw new IllegalArgumentException("Wheel size must be between 1 and 2^30.");
+		}
+		this.name = name;
+		this.tickNanos = unit.toNanos(tickDuration);
+		int size = Integer.highestOneBit(wheelSize);
+		if (size < wheelSize) {
+			size <<= 1;
+		}
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+		this.worker = new Thread(this::runWorker, name);
+		this.worker.setDaemon(true);
+	}
+
+	/**
+	 * Run the task once the delay has passed.
+	 *
+	 * @param task the task to run on expiry
+	 * @param delay the delay from now
+	 * @param unit the time unit of the delay
+	 * @return the timeout that can be used to cancel the task
+	 * @throws IllegalStateException if the timer has been stopped
+	 */
+	public Timeout newTimeout(final TimerTask task, final long delay, final TimeUnit unit) {
+		if (task == null) {
+			throw new IllegalArgumentException("Timer task cannot be null.");
+		}
+		start();
+		long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay)) - startTime;
+		Timeout timeout = new Timeout(this, task, deadline);
+		pendingCount.incrementAndGet();
+		pendingTimeouts.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * @return the number of timeouts that have not expired or been cancelled
+	 */
+	public long getPendingCount() {
+		return pendingCount.get();
+	}
+
+	/**
+	 * @return true if the timer has been stopped
+	 */
+	public boolean isStopped() {
+		return state.get() == STATE_STOPPED;
+	}
+
+	/**
+	 * Stop the timer. Timer tasks that have not expired are told the timer has stopped.
+	 *
+	 * @return the number of timeouts that had not expired
+	 */
+	public int stop() {
+		if (Thread.currentThread() == worker) {
+			throw new IllegalStateException("Timer cannot be stopped from a timer task.");
+		}
+		int previous = state.getAndSet(STATE_STOPPED);
+		if (previous == STATE_STOPPED) {
+			return 0;
+		}
+		List<Timeout> unprocessed = new ArrayList<>();
+		if (previous == STATE_STARTED) {
+			worker.interrupt();
+			boolean interrupted = false;
+			while (worker.isAlive()) {
+				try {
+					worker.join(100);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			for (Bucket bucket : wheel) {
+				bucket.drain(unprocessed);
+			}
+		}
+		Timeout timeout;
+		while ((timeout = pendingTimeouts.poll()) != null) {
+			unprocessed.add(timeout);
+		}
+		int count = 0;
+		for (Timeout item : unprocessed) {
+			if (item.stop()) {
+				count++;
+			}
+		}
+		pendingCount.set(0);
+		return count;
+	}
+
+	/**
+	 * Start the timer thread if not already started.
+	 */
+	private void start() {
+		switch (state.get()) {
+			case STATE_INIT:
+				if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+					worker.start();
+				} else if (state.get() == STATE_STOPPED) {
+					// Stopped before the worker was started so it never will be
+					throw new IllegalStateException("Timer [" + name + "] has been stopped.");
+				}
+				break;
+			case STATE_STARTED:
+				break;
+			default:
+				throw new IllegalStateException("Timer [" + name + "] has been stopped.");
+		}
+		// Wait for the worker to set the start time
+		if (startTime == 0) {
+			synchronized (startLock) {
+				boolean interrupted = false;
+				while (startTime == 0) {
+					try {
+						startLock.wait();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Timer thread loop.
+	 */
+	private void runWorker() {
+		synchronized (startLock) {
+			long now = System.nanoTime();
+			// Zero is used to flag not started
+			startTime = now == 0 ? 1 : now;
+			startLock.notifyAll();
+		}
+		while (state.get() == STATE_STARTED) {
+			if (waitForNextTick()) {
+				Bucket bucket = wheel[(int) (tick & mask)];
+				removeCancelled();
+				transferPending();
+				bucket.expire();
+				tick++;
+			}
+		}
+	}
+
+	/**
+	 * @return true once the next tick is due, false if the timer has stopped
+	 */
+	private boolean waitForNextTick() {
+		long deadline = tickNanos * (tick + 1);
+		while (true) {
+			long current = System.nanoTime() - startTime;
+			long sleepMillis = (deadline - current + 999999) / 1000000;
+			if (sleepMillis <= 0) {
+				return true;
+			}
+			try {
+				Thread.sleep(sleepMillis);
+			} catch (InterruptedException e) {
+				if (state.get() == STATE_STOPPED) {
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move new timeouts into their bucket.
+	 */
+	private void transferPending() {
+		for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+			Timeout timeout = pendingTimeouts.poll();
+			if (timeout == null) {
+				break;
+			}
+			if (timeout.isCancelled()) {
+				continue;
+			}
+			long calculated = timeout.deadline / tickNanos;
+			timeout.remainingRounds = (calculated - tick) / wheel.length;
+			// Deadline already passed so expire on this tick
+			long ticks = Math.max(calculated, tick);
+			wheel[(int) (ticks & mask)].add(timeout);
+		}
+	}
+
+	/**
+	 * Remove cancelled timeouts from their bucket so they do not hold memory until their deadline.
+	 */
+	private void removeCancelled() {
+		Timeout timeout;
+		while ((timeout = cancelledTimeouts.poll()) != null) {
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+	}
+
+	/**
+	 * A timer task waiting to expire.
+	 */
+	public static final class Timeout {
+
+		private static final int ST_WAITING = 0;
+		private static final int ST_CANCELLED = 1;
+		private static final int ST_EXPIRED = 2;
+
+		private final TaskTimer timer;
+		private final TimerTask task;
+		private final long deadline;
+		private final AtomicInteger status = new AtomicInteger(ST_WAITING);
+		// Only accessed by the timer thread
+		private long remainingRounds;
+		private Bucket bucket;
+		private Timeout next;
+		private Timeout prev;
+
+		/**
+		 * @param timer the owning timer
+		 * @param task the task to run on expiry
+		 * @param deadline the deadline relative to the timer start time
+		 */
+		private Timeout(final TaskTimer timer, final TimerTask task, final long deadline) {
+			this.timer = timer;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Cancel the timeout so the task is not run.
+		 *
+		 * @return true if cancelled, false if already expired or cancelled
+		 */
+		public boolean cancel() {
+			if (!status.compareAndSet(ST_WAITING, ST_CANCELLED)) {
+				return false;
+			}
+			timer.pendingCount.decrementAndGet();
+			timer.cancelledTimeouts.add(this);
+			return true;
+		}
+
+		/**
+		 * @return true if the timeout was cancelled
+		 */
+		public boolean isCancelled() {
+			return status.get() == ST_CANCELLED;
+		}
+
+		/**
+		 * @return true if the timeout has expired
+		 */
+		public boolean isExpired() {
+			return status.get() == ST_EXPIRED;
+		}
+
+		/**
+		 * Run the task as the timeout has expired.
+		 */
+		private void expire() {
+			if (!status.compareAndSet(ST_WAITING, ST_EXPIRED)) {
+				return;
+			}
+			timer.pendingCount.decrementAndGet();
+			try {
+				task.expired();
+			} catch (Exception e) {
+				LOGGER.error("Error running timer task. " + e.getMessage(), e);
+			}
+		}
+
+		/**
+		 * Tell the task the timer has stopped.
+		 *
+		 * @return true if the task was waiting
+		 */
+		private boolean stop() {
+			if (!status.compareAndSet(ST_WAITING, ST_CANCELLED)) {
+				return false;
+			}
+			try {
+				task.stopped();
+			} catch (Exception e) {
+				LOGGER.error("Error stopping timer task. " + e.getMessage(), e);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Doubly linked list of the timeouts in a wheel bucket. Only accessed by the timer thread.
+	 */
+	private static final class Bucket {
+
+		private Timeout head;
+		private Timeout tail;
+
+		/**
+		 * @param timeout the timeout to add
+		 */
+		private void add(final Timeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = timeout;
+				tail = timeout;
+			} else {
+				tail.next = timeout;
+				timeout.prev = tail;
+				tail = timeout;
+			}
+		}
+
+		/**
+		 * Expire the timeouts due on this tick.
+		 */
+		private void expire() {
+			Timeout timeout = head;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				if (timeout.remainingRounds <= 0) {
+					remove(timeout);
+					timeout.expire();
+				} else if (timeout.isCancelled()) {
+					remove(timeout);
+				} else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+
+		/**
+		 * @param timeout the timeout to remove
+		 */
+		private void remove(final Timeout timeout) {
+			if (timeout.bucket != this) {
+				return;
+			}
+			Timeout next = timeout.next;
+			if (timeout.prev != null) {
+				timeout.prev.next = next;
+			}
+			if (next != null) {
+				next.prev = timeout.prev;
+			}
+			if (timeout == head) {
+				head = next;
+			}
+			if (timeout == tail) {
+				tail = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+
+		/**
+		 * @param unprocessed collects the timeouts that have not expired
+		 */
+		private void drain(final List<Timeout> unprocessed) {
+			Timeout timeout = head;
+			while (timeout != null) {
+				Timeout next = timeout.next;
+				remove(timeout);
+				if (!timeout.isExpired() && !timeout.isCancelled()) {
+					unprocessed.add(timeout);
+				}
+				timeout = next;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ExecutorService that runs each task on its own virtual thread.
+ * <p>
+ * Virtual threads are cheap to block so tasks that wait on IO do not tie up a platform thread. An optional limit caps
+ * how many tasks run at the same time, which allows a virtual pool to protect downstream services in the same way as a
+ * fixed pool. Tasks waiting for a permit park their virtual thread and do not hold a platform thread.
+ * </p>
+ * <p>
+ * Tasks still waiting for a permit when the pool is shutdown are handed back by {@link #shutdownNow()} and are not
+ * run.
+ * </p>
+ * <p>
+ * Virtual threads require Java 21 or later and are created via reflection so TaskMaster can still run on older JVMs.
+ * Use {@link #isVirtualThreadsSupported()} to check if they are available.
+ * </p>
+ */
+public class VirtualThreadExecutorService extends AbstractExecutorService {
+
+	private static final Method VIRTUAL_FACTORY_METHOD = getVirtualFactoryMethod();
+
+	private final ExecutorService backing;
+	private final Semaphore permits;
+	private final int maxConcurrency;
+	private final AtomicInteger running = new AtomicInteger();
+	private final Set<Runnable> waiting = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param maxConcurrency the maximum tasks to run at the same time. Zero means no limit.
+	 */
+	public VirtualThreadExecutorService(final int maxConcurrency) {
+		this(createVirtualExecutor(), maxConcurrency);
+	}
+
+	/**
+	 * @param backing the executor that starts a thread per task
+	 * @param maxConcurrency the maximum tasks to run at the same time. Zero means no limit.
+	 */
+	VirtualThreadExecutorService(final ExecutorService backing, final int maxConcurrency) {
+		this.backing = backing;
+		this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : 0;
+		this.permits = this.maxConcurrency > 0 ? new Semaphore(this.maxConcurrency) : null;
+	}
+
+	/**
+	 * @return true if the JVM supports virtual threads
+	 */
+	public static boolean isVirtualThreadsSupported() {
+		return VIRTUAL_FACTORY_METHOD != null;
+	}
+
+	/**
+	 * @return the maximum tasks to run at the same time, zero means no limit
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @return the number of tasks currently running
+	 */
+	public int getActiveCount() {
+		return running.get();
+	}
+
+	/**
+	 * @return the number of tasks waiting for a permit to run
+	 */
+	public int getQueueLength() {
+		return permits == null ? 0 : permits.getQueueLength();
+	}
+
+	@Override
+	public void execute(final Runnable command) {
+		if (command == null) {
+			throw new NullPointerException("Command cannot be null");
+		}
+		if (permits == null) {
+			backing.execute(() -> runTracked(command));
+		} else {
+			backing.execute(() -> runWithPermit(command));
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		backing.shutdown();
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		// Hand back the tasks waiting for a permit before interrupting the running tasks, otherwise a running task could
+		// release its permit to a waiting task. A task removed here is not run by its virtual thread.
+		List<Runnable> notStarted = new ArrayList<>();
+		for (Runnable task : waiting) {
+			if (waiting.remove(task)) {
+				notStarted.add(task);
+			}
+		}
+		notStarted.addAll(0, backing.shutdownNow());
+		return notStarted;
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return backing.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return backing.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+		return backing.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * Run the task once a permit is available.
+	 *
+	 * @param command the task to run
+	 */
+	protected void runWithPermit(final Runnable command) {
+		waiting.add(command);
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			// Interrupted waiting for a permit (most likely shutting down) so the task will not be run
+			Thread.currentThread().interrupt();
+			if (waiting.remove(command)) {
+				abortNotStarted(command);
+			}
+			return;
+		}
+		if (!waiting.remove(command)) {
+			// Handed back by a shutdown
+			permits.release();
+			return;
+		}
+		try {
+			runTracked(command);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Abort a task that will not be run.
+	 *
+	 * @param command the task that has not started
+	 */
+	protected void abortNotStarted(final Runnable command) {
+		if (command instanceof TaskFutureTask) {
+			((TaskFutureTask) command).abort(new RejectedTaskException("Virtual thread pool shutdown before the task started."));
+		} else if (command instanceof Future) {
+			((Future) command).cancel(false);
+		}
+	}
+
+	/**
+	 * Run the task and track it as running.
+	 *
+	 * @param command the task to run
+	 */
+	protected void runTracked(final Runnable command) {
+		running.incrementAndGet();
+		try {
+			command.run();
+		} finally {
+			running.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @return a new virtual thread per task executor
+	 */
+	private static ExecutorService createVirtualExecutor() {
+		if (!isVirtualThreadsSupported()) {
+			throw new IllegalStateException("Virtual threads are not supported by this JVM.");
+		}
+		try {
+			return (ExecutorService) VIRTUAL_FACTORY_METHOD.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not create a virtual thread executor. " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * The factory method is invoked once to check it works, as on Java 19 and 20 it is present but throws unless preview
+	 * features are enabled.
+	 *
+	 * @return the factory method for the virtual thread executor or null if not supported
+	 */
+	private static Method getVirtualFactoryMethod() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			((ExecutorService) method.invoke(null)).shutdown();
+			return method;
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,293 @@
+package com.github.bordertech.taskmaster.logical;
+
+import com.github.bordertech.taskmaster.cache.CachingHelper;
+import com.github.bordertech.taskmaster.impl.TaskMasterPoolUtil;
+import com.github.bordertech.taskmaster.impl.TaskMasterProperties;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Logical thread pool controller that limits the threads in use across a cluster.
+ * <p>
+ * The permits granted to each node are held in a cache shared by the cluster and updated with {@code putIfAbsent} and
+ * {@code replace} so concurrent updates from different nodes are not lost. To keep the cost of the shared count low, a
+ * node takes a batch of permits at a time and hands them out locally. Permits that stay idle for a renewal period are
+ * handed back to the cluster.
+ * </p>
+ * <p>
+ * A node's grant expires unless it is renewed at half the lease while the node holds permits. The shared TaskMaster
+ * timer hands the renewal to the default TaskMaster pool so the cache round trips do not hold up the timer thread. The
+ * permits of a node that stops (or loses contact with the cache) are reclaimed once its grant expires.
+ * </p>
+ * <p>
+ * A larger batch means fewer cache updates but permits idle on one node cannot be used by another, so the batch should
+ * be small compared to the limit.
+ * </p>
+ */
+public class DistributedLogicalThreadPoolController implements LogicalThreadPoolController {
+
+	private static final Log LOGGER = LogFactory.getLog(DistributedLogicalThreadPoolController.class);
+
+	private static final int MAX_UPDATE_ATTEMPTS = 100;
+
+	private final String name;
+	private final int max;
+	private final int batchSize;
+	private final long leaseDuration;
+	private final Cache<String, PermitGrants> cache;
+	private final String node = UUID.randomUUID().toString();
+	private final Object lock = new Object();
+	private int localAvailable;
+	private int localInUse;
+	private boolean usedSinceRenew;
+	private boolean renewScheduled;
+
+	/**
+	 * Controller using the default permit cache, batch size and lease duration.
+	 *
+	 * @param name the logical thread pool name shared by the cluster
+	 * @param max the maximum threads in use across the cluster
+	 */
+	public DistributedLogicalThreadPoolController(final String name, final int max) {
+		this(name, max, TaskMasterProperties.getLogicalDistributedBatch(), TaskMasterProperties.getLogicalDistributedLease(),
+				CachingHelper.getOrCreateCache(TaskMasterProperties.LOGICAL_PERMIT_CACHE_NAME, String.class, PermitGrants.class));
+	}
+
+	/**
+	 * @param name the logical thread pool name shared by the cluster
+	 * @param max the maximum threads in use across the cluster
+	 * @param batchSize the permits taken from the cluster at a time
+	 * @param leaseDuration the milliseconds a node's permits are held before they expire unless renewed
+	 * @param cache the cache shared by the cluster to hold the permits
+	 */
+	public DistributedLogicalThreadPoolController(final String name, final int max, final int batchSize, final long leaseDuration,
+			final Cache<String, PermitGrants> cache) {
+		if (max < 1) {
+			throw new IllegalArgumentException("Max must be greater than zero.");
+		}
+		if (cache == null) {
+			throw new IllegalArgumentException("Cache cannot be null.");
+		}
+		this.name = StringUtils.isEmpty(name) ? "default" : name;
+		this.max = max;
+		this.batchSize = batchSize < 1 ? 1 : Math.min(batchSize, max);
+		this.leaseDuration = leaseDuration < 1 ? TaskMasterProperties.getLogicalDistributedLease() : leaseDuration;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return the logical thread pool name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the maximum threads in use across the cluster
+	 */
+	public int getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the id of this node in the permit cache
+	 */
+	public String getNode() {
+		return node;
+	}
+
+	/**
+	 * @return the permits held by this node that are not in use
+	 */
+	public int getLocalAvailable() {
+		synchronized (lock) {
+			return localAvailable;
+		}
+	}
+
+	/**
+	 * @return the threads in use on this node
+	 */
+	public int getLocalInUse() {
+		synchronized (lock) {
+			return localInUse;
+		}
+	}
+
+	/**
+	 * @return the permits granted across the cluster
+	 */
+	public int getClusterGranted() {
+		PermitGrants grants = cache.get(name);
+		return grants == null ? 0 : grants.getUsed(System.currentTimeMillis());
+	}
+
+	@Override
+	public boolean acquireThread() {
+		synchronized (lock) {
+			if (localAvailable == 0) {
+				localAvailable += claim(batchSize);
+				if (localAvailable == 0) {
+					return false;
+				}
+			}
+			localAvailable--;
+			localInUse++;
+			usedSinceRenew = true;
+			scheduleRenew();
+			return true;
+		}
+	}
+
+	@Override
+	public void releaseThread() {
+		synchronized (lock) {
+			if (localInUse == 0) {
+				LOGGER.warn("Distributed logical thread pool [" + name + "] release called with no thread in use. Ignored.");
+				return;
+			}
+			localInUse--;
+			localAvailable++;
+			if (localAvailable > batchSize) {
+				// Keep one batch locally and hand the rest back to the cluster
+				handBack(localAvailable - batchSize);
+			}
+		}
+	}
+
+	/**
+	 * Hand all idle permits back to the cluster, eg when the node is shutting down.
+	 */
+	public void releaseIdle() {
+		synchronized (lock) {
+			if (localAvailable > 0) {
+				handBack(localAvailable);
+			}
+		}
+	}
+
+	/**
+	 * Take permits from the cluster. Must hold the lock.
+	 *
+	 * @param wanted the permits wanted
+	 * @return the permits taken, which may be less than wanted
+	 */
+	private int claim(final int wanted) {
+		for (int i = 0; i < MAX_UPDATE_ATTEMPTS; i++) {
+			long now = System.currentTimeMillis();
+			PermitGrants current = cache.get(name);
+			PermitGrants grants = current == null ? PermitGrants.EMPTY : current;
+			// Count this node's permits from the local state as its grant may have expired
+			int held = localAvailable + localInUse;
+			int free = max - (grants.getUsed(now) - grants.getGranted(node, now)) - held;
+			int taken = Math.min(wanted, free);
+			if (taken <= 0) {
+				return 0;
+			}
+			if (update(current, grants.with(node, held + taken, now, now + leaseDuration))) {
+				return taken;
+			}
+		}
+		LOGGER.warn("Distributed logical thread pool [" + name + "] could not claim permits due to contention.");
+		return 0;
+	}
+
+	/**
+	 * Hand idle permits back to the cluster. Must hold the lock.
+	 *
+	 * @param count the permits to hand back
+	 */
+	private void handBack(final int count) {
+		localAvailable -= count;
+		if (!updateGrant()) {
+			// Grant will expire so the permits are reclaimed anyway
+			LOGGER.warn("Distributed logical thread pool [" + name + "] could not hand back permits due to contention.");
+		}
+	}
+
+	/**
+	 * Set this node's grant to the permits it holds with a new expiry. Must hold the lock.
+	 *
+	 * @return true if updated
+	 */
+	private boolean updateGrant() {
+		int held = localAvailable + localInUse;
+		for (int i = 0; i < MAX_UPDATE_ATTEMPTS; i++) {
+			long now = System.currentTimeMillis();
+			PermitGrants current = cache.get(name);
+			PermitGrants grants = current == null ? PermitGrants.EMPTY : current;
+			if (update(current, grants.with(node, held, now, now + leaseDuration))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compare and set the grants in the cache.
+	 *
+	 * @param current the grants read from the cache or null if none
+	 * @param updated the new grants
+	 * @return true if the cache still held the current grants and has been updated
+	 */
+	private boolean update(final PermitGrants current, final PermitGrants updated) {
+		if (current == null) {
+			return cache.putIfAbsent(name, updated);
+		}
+		return cache.replace(name, current, updated);
+	}
+
+	/**
+	 * Renew this node's grant at half the lease while it holds permits. Must hold the lock.
+	 */
+	private void scheduleRenew() {
+		if (renewScheduled) {
+			return;
+		}
+		try {
+			TaskMasterPoolUtil.getTimer().newTimeout(this::submitRenew, leaseDuration / 2, TimeUnit.MILLISECONDS);
+			renewScheduled = true;
+		} catch (IllegalStateException e) {
+			LOGGER.debug("Distributed logical thread pool renewal not scheduled as the timer has stopped. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Hand the renewal to the default TaskMaster pool.
+	 */
+	private void submitRenew() {
+		try {
+			TaskMasterPoolUtil.getPool(null).execute(this::renew);
+		} catch (RejectedExecutionException | IllegalStateException e) {
+			// Renew now rather than let the grant expire
+			LOGGER.warn("Distributed logical thread pool [" + name + "] renewal rejected by the thread pool so renewing on the timer. "
+					+ e.getMessage());
+			renew();
+		}
+	}
+
+	/**
+	 * Renew the grant and hand back permits that have been idle since the last renewal.
+	 */
+	private void renew() {
+		synchronized (lock) {
+			renewScheduled = false;
+			if (!usedSinceRenew && localAvailable > 0) {
+				localAvailable = 0;
+			}
+			usedSinceRenew = false;
+			if (!updateGrant()) {
+				LOGGER.warn("Distributed logical thread pool [" + name + "] could not renew its permits due to contention.");
+			}
+			if (localAvailable + localInUse > 0) {
+				scheduleRenew();
+			}
+		}
+	}
+
+}
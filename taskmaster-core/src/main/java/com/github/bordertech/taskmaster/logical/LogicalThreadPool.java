@@ -1,9 +1,22 @@
 package com.github.bordertech.taskmaster.logical;
 
+import com.github.bordertech.taskmaster.impl.TaskMasterPoolUtil;
 import com.github.bordertech.taskmaster.impl.TaskMasterProperties;
+import com.github.bordertech.taskmaster.impl.TaskTimer;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.concurrent.Semaphore;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -13,14 +26,32 @@ import org.apache.commons.logging.LogFactory;
  * <p>
  * Can be used to control a logical pool of threads per user session.
  * </p>
+ * <p>
+ * Permits are counted without a lock. A thread that has to wait for a permit is queued and is handed the permit as
+ * soon as another thread calls {@link #finished()}, so waiters do not poll. With fair acquisition a new request does not
+ * take a permit while others are waiting. With unfair acquisition a new request takes a free permit straight away,
+ * which gives more throughput under contention.
+ * </p>
+ * <p>
+ * {@link #acquireAsync()} queues for a permit without blocking the calling thread.
+ * </p>
+ * <p>
+ * A permit can also be taken as a {@link PermitLease} with an id and an expiry. A lease that is not released before it
+ * expires is reclaimed, so a missed release does not lose the permit for the life of the session. Releasing a lease that
+ * has expired or already been released is rejected. Leases are held in the pool so they are kept when the pool is
+ * serialized with the session.
+ * </p>
  */
-public class LogicalThreadPool implements Serializable {
+public class LogicalThreadPool implements LogicalThreadPoolController, Serializable {
 
 	private static final Log LOGGER = LogFactory.getLog(LogicalThreadPool.class);
 	private final String name;
 	private final int max;
-	private final Semaphore semaphore;
-	private boolean shutdown;
+	private final boolean fair;
+	private final AtomicInteger available;
+	private volatile boolean shutdown;
+	private final ConcurrentHashMap<String, PermitLease> leases = new ConcurrentHashMap<>();
+	private transient Queue<CompletableFuture<LogicalThreadPool>> waiters = new ConcurrentLinkedQueue<>();
 
 	/**
 	 * Default constructor with default name and no limit to threads.
@@ -34,9 +65,19 @@ public class LogicalThreadPool implements Serializable {
 	 * @param max the maximum threads. Zero means no limit.
 	 */
 	public LogicalThreadPool(final String name, final int max) {
+		this(name, max, TaskMasterProperties.isLogicalFair());
+	}
+
+	/**
+	 * @param name thread pool name
+	 * @param max the maximum threads. Zero means no limit.
+	 * @param fair true if waiting threads are given permits in the order they asked for them
+	 */
+	public LogicalThreadPool(final String name, final int max, final boolean fair) {
 		this.name = StringUtils.isEmpty(name) ? "default" : name;
 		this.max = max > 0 ? max : 0;
-		this.semaphore = new Semaphore(this.max, true);
+		this.fair = fair;
+		this.available = new AtomicInteger(this.max);
 	}
 
 	/**
@@ -53,25 +94,47 @@ public class LogicalThreadPool implements Serializable {
 		return max;
 	}
 
+	/**
+	 * @return true if waiting threads are given permits in the order they asked for them
+	 */
+	public final boolean isFair() {
+		return fair;
+	}
+
 	/**
 	 * @return the current threads in use
 	 */
 	public int getCurrent() {
-		return max - semaphore.availablePermits();
+		return max - available.get();
+	}
+
+	/**
+	 * @return the number of requests waiting for a thread (approximate)
+	 */
+	public int getWaiting() {
+		return waiters.size();
 	}
 
 	/**
 	 * @return true if thread pool is shutdown
 	 */
-	public synchronized boolean isShutdown() {
+	public boolean isShutdown() {
 		return shutdown;
 	}
 
 	/**
 	 * Shutdown the thread pool.
+	 * <p>
+	 * Requests waiting for a thread fail with an IllegalStateException.
+	 * </p>
 	 */
 	public void shutdownPool() {
 		setShutdown(true);
+		IllegalStateException excp = new IllegalStateException("Thread pool [" + getName() + "] is shutdown for processing.");
+		CompletableFuture<LogicalThreadPool> waiter;
+		while ((waiter = waiters.poll()) != null) {
+			waiter.completeExceptionally(excp);
+		}
 	}
 
 	/**
@@ -83,11 +146,129 @@ public class LogicalThreadPool implements Serializable {
 
 	/**
 	 * Called when a thread finishes processing.
+	 * <p>
+	 * The thread is handed to the longest waiting request if there is one.
+	 * </p>
 	 */
 	public void finished() {
-		if (getCurrent() > 0) {
-			semaphore.release();
+		if (max <= 0) {
+			return;
+		}
+		if (getCurrent() <= leases.size()) {
+			// Threads in use are all held by leases
+			LOGGER.warn("Thread pool [" + getName() + "] finished called with no thread in use. Ignored.");
+			return;
+		}
+		releasePermit();
+	}
+
+	/**
+	 * Take a thread as a lease without waiting, using the default lease duration.
+	 *
+	 * @return the lease or null if no thread is available
+	 */
+	public PermitLease tryAcquireLease() {
+		return tryAcquireLease(TaskMasterProperties.getLogicalLeaseDuration(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Take a thread as a lease without waiting.
+	 *
+	 * @param duration the time the lease is held before it expires
+	 * @param unit the time unit of the duration
+	 * @return the lease or null if no thread is available
+	 */
+	public PermitLease tryAcquireLease(final long duration, final TimeUnit unit) {
+		checkPoolStatus();
+		if (max > 0 && !tryAcquireOrReclaim()) {
+			return null;
+		}
+		return grantLease(duration, unit);
+	}
+
+	/**
+	 * Take a thread as a lease, waiting up to the timeout for one to be available.
+	 *
+	 * @param duration the time the lease is held before it expires
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the duration and timeout
+	 * @return the lease or null if no thread became available
+	 */
+	public PermitLease acquireLease(final long duration, final long timeout, final TimeUnit unit) {
+		PermitLease lease = tryAcquireLease(duration, unit);
+		if (lease != null) {
+			return lease;
+		}
+		return getAccess(timeout, unit) ? grantLease(duration, unit) : null;
+	}
+
+	/**
+	 * Release the thread held by the lease.
+	 *
+	 * @param lease the lease to release
+	 * @return true if released, false if the lease is stale (expired, renewed or already released)
+	 */
+	public boolean releaseLease(final PermitLease lease) {
+		PermitLease held = lease == null ? null : leases.get(lease.getId());
+		if (held == null || !held.equals(lease) || !leases.remove(lease.getId(), held)) {
+			LOGGER.warn("Thread pool [" + getName() + "] rejected release of stale lease " + lease + ".");
+			return false;
+		}
+		held.cancelExpiry();
+		releasePermit();
+		return true;
+	}
+
+	/**
+	 * Extend a lease that has not expired.
+	 *
+	 * @param lease the lease to renew
+	 * @param duration the time from now the new lease is held before it expires
+	 * @param unit the time unit of the duration
+	 * @return the new lease, or null if the lease is stale. The old lease is stale once renewed.
+	 */
+	public PermitLease renewLease(final PermitLease lease, final long duration, final TimeUnit unit) {
+		if (lease == null || lease.isExpired(System.currentTimeMillis())) {
+			return null;
+		}
+		PermitLease held = leases.get(lease.getId());
+		if (held == null || !held.equals(lease)) {
+			return null;
+		}
+		PermitLease renewed = new PermitLease(lease.getId(), getName(), System.currentTimeMillis() + unit.toMillis(duration));
+		if (!leases.replace(lease.getId(), held, renewed)) {
+			return null;
+		}
+		held.cancelExpiry();
+		scheduleExpiry(renewed, duration, unit);
+		return renewed;
+	}
+
+	/**
+	 * @return the number of leases that have not been released or expired
+	 */
+	public int getOutstandingLeases() {
+		reclaimExpiredLeases();
+		return leases.size();
+	}
+
+	/**
+	 * Reclaim the threads of leases that have expired.
+	 *
+	 * @return the number of leases reclaimed
+	 */
+	public int reclaimExpiredLeases() {
+		if (leases.isEmpty()) {
+			return 0;
+		}
+		long now = System.currentTimeMillis();
+		int reclaimed = 0;
+		for (Map.Entry<String, PermitLease> entry : leases.entrySet()) {
+			if (entry.getValue().isExpired(now) && expireLease(entry.getValue())) {
+				reclaimed++;
+			}
 		}
+		return reclaimed;
 	}
 
 	/**
@@ -99,7 +280,25 @@ public class LogicalThreadPool implements Serializable {
 			return true;
 		}
 		// No block
-		return semaphore.tryAcquire();
+		return tryAcquireOrReclaim();
+	}
+
+	/**
+	 * Take a thread without waiting.
+	 *
+	 * @return true if a thread was available and the pool is not shutdown
+	 */
+	@Override
+	public boolean acquireThread() {
+		return !isShutdown() && (max <= 0 || tryAcquireOrReclaim());
+	}
+
+	/**
+	 * Release the thread back to the pool.
+	 */
+	@Override
+	public void releaseThread() {
+		finished();
 	}
 
 	/**
@@ -109,19 +308,31 @@ public class LogicalThreadPool implements Serializable {
 	 */
 	public boolean getAccess(final long timeout, final TimeUnit unit) {
 		checkPoolStatus();
-		if (max <= 0) {
+		if (max <= 0 || tryAcquireOrReclaim()) {
 			return true;
 		}
-		boolean result = false;
+		if (timeout <= 0) {
+			return false;
+		}
+		CompletableFuture<LogicalThreadPool> waiter = enqueue();
 		try {
-			result = semaphore.tryAcquire(timeout, unit);
+			waiter.get(timeout, unit);
+			return true;
+		} catch (TimeoutException e) {
+			return cancelWaiter(waiter);
 		} catch (InterruptedException e) {
+			if (cancelWaiter(waiter)) {
+				// Handed a thread just as interrupted so give it back
+				finished();
+			}
 			// Restore interrupted state...
 			Thread.currentThread().interrupt();
 			throw new IllegalStateException("Interrupted while trying to gain access to thread pool ["
 					+ getName() + "].", e);
+		} catch (ExecutionException e) {
+			// Pool shutdown while waiting
+			throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
 		}
-		return result;
 	}
 
 	/**
@@ -139,30 +350,91 @@ public class LogicalThreadPool implements Serializable {
 	/**
 	 * Wait till a thread is available.
 	 * <p>
-	 * Must call finished on pool to release the thread in the pool.
+	 * Must call finished on pool to release the thread in the pool. The thread is given to the request as soon as it is
+	 * released. The request waits at most the wait interval multiplied by the max number of waits.
 	 * <p>
 	 *
 	 * @param waitInterval the wait interval in milliseconds
 	 * @param maxWaitIntervals the max number of waits
 	 */
 	public void waitAccess(final int waitInterval, final int maxWaitIntervals) {
-		checkPoolStatus();
-		int counts = 0;
-		while (!getAccess(waitInterval, TimeUnit.MILLISECONDS)) {
-			if (LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Waiting for thread pool [" + getName() + "]. Max: "
-						+ getMax() + " Current: " + getCurrent() + ".");
-			}
-			if (counts++ > maxWaitIntervals) {
-				throw new IllegalStateException("Maximum attempts to get a thread in pool ["
-						+ getName() + "] exceeded.");
-			}
+		waitAccess((long) waitInterval * maxWaitIntervals, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Wait till a thread is available.
+	 * <p>
+	 * Must call finished on pool to release the thread in the pool.
+	 * <p>
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the timeout
+	 */
+	public void waitAccess(final long timeout, final TimeUnit unit) {
+		if (getAccess()) {
+			return;
+		}
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Waiting for thread pool [" + getName() + "]. Max: "
+					+ getMax() + " Current: " + getCurrent() + ".");
+		}
+		if (!getAccess(timeout, unit)) {
+			throw new IllegalStateException("Maximum wait for a thread in pool ["
+					+ getName() + "] exceeded.");
 		}
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug("Thread is available in pool " + getName() + ".");
 		}
 	}
 
+	/**
+	 * Request a thread without blocking.
+	 * <p>
+	 * The stage completes with this pool once a thread is available. Must call finished on pool to release the thread
+	 * once the stage has completed normally. Cancelling the stage before it completes removes the request.
+	 * </p>
+	 *
+	 * @return a stage that completes when a thread is available, or fails if the pool is shutdown
+	 */
+	public CompletionStage<LogicalThreadPool> acquireAsync() {
+		if (isShutdown()) {
+			CompletableFuture<LogicalThreadPool> failed = new CompletableFuture<>();
+			failed.completeExceptionally(new IllegalStateException("Thread pool [" + getName() + "] is shutdown for processing."));
+			return failed;
+		}
+		if (max <= 0 || tryAcquireOrReclaim()) {
+			return CompletableFuture.completedFuture(this);
+		}
+		return enqueue();
+	}
+
+	/**
+	 * Request a thread without blocking and give up after the timeout.
+	 * <p>
+	 * The timeout is tracked by the shared TaskMaster timer and is cancelled once the stage completes. If no thread is
+	 * available in time the stage fails with a TimeoutException.
+	 * </p>
+	 *
+	 * @param timeout the maximum time to wait
+	 * @param unit the time unit of the timeout
+	 * @return a stage that completes when a thread is available, or fails on timeout or if the pool is shutdown
+	 */
+	public CompletionStage<LogicalThreadPool> acquireAsync(final long timeout, final TimeUnit unit) {
+		CompletableFuture<LogicalThreadPool> waiter = acquireAsync().toCompletableFuture();
+		if (!waiter.isDone()) {
+			TaskTimer.Timeout expiry = TaskMasterPoolUtil.getTimer().newTimeout(() -> {
+				// Once removed from the queue the request cannot be handed a thread
+				if (waiters.remove(waiter)) {
+					waiter.completeExceptionally(new TimeoutException("No thread available in pool [" + getName() + "] within "
+							+ unit.toMillis(timeout) + "ms."));
+				}
+			}, timeout, unit);
+			// Take the timeout off the timer once the request completes
+			waiter.whenComplete((pool, excp) -> expiry.cancel());
+		}
+		return waiter;
+	}
+
 	/**
 	 * Check if the pool is OK for processing.
 	 */
@@ -175,8 +447,191 @@ public class LogicalThreadPool implements Serializable {
 	/**
 	 * @param shutdown true if pool shutdown for processing
 	 */
-	protected synchronized void setShutdown(final boolean shutdown) {
+	protected void setShutdown(final boolean shutdown) {
 		this.shutdown = shutdown;
 	}
 
+	/**
+	 * Give out a lease for a thread that has been taken.
+	 *
+	 * @param duration the time the lease is held before it expires
+	 * @param unit the time unit of the duration
+	 * @return the lease
+	 */
+	private PermitLease grantLease(final long duration, final TimeUnit unit) {
+		PermitLease lease = new PermitLease(UUID.randomUUID().toString(), getName(), System.currentTimeMillis() + unit.toMillis(duration));
+		leases.put(lease.getId(), lease);
+		scheduleExpiry(lease, duration, unit);
+		return lease;
+	}
+
+	/**
+	 * Reclaim the lease on the shared timer once it expires. The timeout is kept with the lease and cancelled when the
+	 * lease is released or renewed. Leases are also reclaimed when a thread is needed, which covers a pool that has been
+	 * serialized as the timer is not.
+	 *
+	 * @param lease the lease
+	 * @param duration the time until the lease expires
+	 * @param unit the time unit of the duration
+	 */
+	private void scheduleExpiry(final PermitLease lease, final long duration, final TimeUnit unit) {
+		try {
+			lease.setExpiryTimeout(TaskMasterPoolUtil.getTimer().newTimeout(() -> expireLease(lease), duration, unit));
+			if (leases.get(lease.getId()) != lease) {
+				// Released or renewed while being scheduled
+				lease.cancelExpiry();
+			}
+		} catch (IllegalStateException e) {
+			LOGGER.debug("Lease expiry not scheduled as the timer has stopped. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @param lease the lease that has expired
+	 * @return true if the lease was still held and has been reclaimed
+	 */
+	private boolean expireLease(final PermitLease lease) {
+		if (!leases.remove(lease.getId(), lease)) {
+			return false;
+		}
+		// Reclaimed before the timer got to it
+		lease.cancelExpiry();
+		LOGGER.warn("Thread pool [" + getName() + "] reclaimed expired lease " + lease + ".");
+		releasePermit();
+		return true;
+	}
+
+	/**
+	 * Return a permit to the pool and hand it to a waiting request.
+	 */
+	private void releasePermit() {
+		if (max <= 0) {
+			return;
+		}
+		while (true) {
+			int current = available.get();
+			if (current >= max) {
+				// Nothing to release
+				return;
+			}
+			if (available.compareAndSet(current, current + 1)) {
+				break;
+			}
+		}
+		dispatch();
+	}
+
+	/**
+	 * Take a free permit. A fair pool does not take a permit while other requests are waiting.
+	 *
+	 * @return true if a permit was taken
+	 */
+	private boolean tryAcquire() {
+		if (fair && !waiters.isEmpty()) {
+			return false;
+		}
+		return takePermit();
+	}
+
+	/**
+	 * Take a free permit, reclaiming the threads of expired leases if none are free.
+	 * <p>
+	 * Expired leases are normally reclaimed by the timer, but the timer is not kept when the pool is serialized.
+	 * </p>
+	 *
+	 * @return true if a permit was taken
+	 */
+	private boolean tryAcquireOrReclaim() {
+		if (tryAcquire()) {
+			return true;
+		}
+		// The timer may be reclaiming the lease at the same time so try again even if none were reclaimed here
+		reclaimExpiredLeases();
+		return tryAcquire();
+	}
+
+	/**
+	 * @return true if a free permit was taken
+	 */
+	private boolean takePermit() {
+		while (true) {
+			int current = available.get();
+			if (current <= 0) {
+				return false;
+			}
+			if (available.compareAndSet(current, current - 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Queue a request for a permit.
+	 *
+	 * @return the waiting request
+	 */
+	private CompletableFuture<LogicalThreadPool> enqueue() {
+		CompletableFuture<LogicalThreadPool> waiter = new CompletableFuture<>();
+		waiters.add(waiter);
+		// A permit may have been released before the request was queued
+		dispatch();
+		if (isShutdown() && waiters.remove(waiter)) {
+			waiter.completeExceptionally(new IllegalStateException("Thread pool [" + getName() + "] is shutdown for processing."));
+		}
+		return waiter;
+	}
+
+	/**
+	 * Hand free permits to waiting requests.
+	 * <p>
+	 * Called after a permit is released and after a request is queued, so a free permit and a waiting request are
+	 * always matched by whichever happens last.
+	 * </p>
+	 */
+	private void dispatch() {
+		while (!waiters.isEmpty()) {
+			if (!takePermit()) {
+				return;
+			}
+			boolean handed = false;
+			CompletableFuture<LogicalThreadPool> waiter;
+			while ((waiter = waiters.poll()) != null) {
+				// Skip requests that have been cancelled or timed out
+				if (waiter.complete(this)) {
+					handed = true;
+					break;
+				}
+			}
+			if (!handed) {
+				available.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Stop waiting for a permit.
+	 *
+	 * @param waiter the waiting request
+	 * @return true if the request had already been handed a permit
+	 */
+	private boolean cancelWaiter(final CompletableFuture<LogicalThreadPool> waiter) {
+		if (waiter.cancel(false)) {
+			waiters.remove(waiter);
+			return false;
+		}
+		return !waiter.isCompletedExceptionally();
+	}
+
+	/**
+	 * Restore the wait queue as it is not serialized.
+	 *
+	 * @param in the object input stream
+	 * @throws IOException an IO exception
+	 * @throws ClassNotFoundException class not found
+	 */
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		waiters = new ConcurrentLinkedQueue<>();
+	}
+
 }
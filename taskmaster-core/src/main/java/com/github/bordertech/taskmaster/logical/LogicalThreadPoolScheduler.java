@@ -0,0 +1,564 @@
+package com.github.bordertech.taskmaster.logical;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import com.github.bordertech.taskmaster.impl.TaskFutureTask;
+import com.github.bordertech.taskmaster.impl.TaskFutureWrapper;
+import com.github.bordertech.taskmaster.impl.TaskMasterPoolUtil;
+import com.github.bordertech.taskmaster.impl.TaskMasterProperties;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Schedules tasks from many logical thread pools fairly onto one TaskMaster thread pool.
+ * <p>
+ * Each logical pool (or session id) has its own queue. The scheduler only hands a limited number of tasks to the
+ * TaskMaster pool at a time and, as each one completes, takes the next task from the queues in turn. A logical pool
+ * with a burst of tasks therefore only delays its own tasks and the waiting time of lighter users stays stable.
+ * </p>
+ * <p>
+ * In {@link Mode#ROUND_ROBIN} mode each queue with waiting tasks gets one task dispatched per turn. In
+ * {@link Mode#WEIGHTED} mode a queue gets up to its weight (default 1) tasks dispatched per turn.
+ * </p>
+ * <p>
+ * Tasks submitted with a {@link LogicalThreadPool} are only dispatched while the logical pool has a free thread, which
+ * is released when the task completes. A queue whose logical pool has no free thread asks the logical pool for one
+ * without blocking and is skipped until the logical pool hands it a thread. Tasks are queued by the logical pool name,
+ * so copies of a logical pool (eg after session replication) share a queue. Threads are taken from the copy the
+ * latest task was submitted with.
+ * </p>
+ */
+public class LogicalThreadPoolScheduler {
+
+	private static final Log LOGGER = LogFactory.getLog(LogicalThreadPoolScheduler.class);
+
+	/**
+	 * How queues share the TaskMaster pool.
+	 */
+	public enum Mode {
+		/**
+		 * One task per queue per turn.
+		 */
+		ROUND_ROBIN,
+		/**
+		 * Up to the weight of the queue tasks per turn.
+		 */
+		WEIGHTED;
+
+		/**
+		 * @param value the mode config value (eg {@code round-robin})
+		 * @return the matching mode
+		 */
+		public static Mode fromValue(final String value) {
+			return Mode.valueOf(value.trim().toUpperCase().replace('-', '_'));
+		}
+	}
+
+	private final String pool;
+	private final int concurrency;
+	private final Mode mode;
+	private final Map<String, Integer> weights = new ConcurrentHashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	/**
+	 * Lanes by session id, or by logical pool name for tasks submitted with a logical pool.
+	 */
+	private final Map<Object, Lane> lanes = new HashMap<>();
+	private final ArrayDeque<Lane> ring = new ArrayDeque<>();
+	private int running;
+	private int queued;
+
+	/**
+	 * Scheduler that dispatches up to the max threads of the TaskMaster pool.
+	 *
+	 * @param pool the TaskMaster thread pool name, or null for the default pool
+	 * @param mode how the queues share the pool
+	 */
+	public LogicalThreadPoolScheduler(final String pool, final Mode mode) {
+		this(pool, TaskMasterProperties.getPoolMaxThreads(pool == null ? TaskMasterProperties.getDefaultThreadPoolName() : pool), mode);
+	}
+
+	/**
+	 * @param pool the TaskMaster thread pool name, or null for the default pool
+	 * @param concurrency the maximum tasks handed to the TaskMaster pool at a time
+	 * @param mode how the queues share the pool
+	 */
+	public LogicalThreadPoolScheduler(final String pool, final int concurrency, final Mode mode) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be greater than zero.");
+		}
+		if (mode == null) {
+			throw new IllegalArgumentException("Mode cannot be null.");
+		}
+		this.pool = pool;
+		this.concurrency = concurrency;
+		this.mode = mode;
+	}
+
+	/**
+	 * @return the TaskMaster thread pool name
+	 */
+	public String getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return the maximum tasks handed to the TaskMaster pool at a time
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * @return how the queues share the pool
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Set the weight of a queue. Only used in {@link Mode#WEIGHTED} mode.
+	 *
+	 * @param key the logical pool name or session id
+	 * @param weight the tasks dispatched per turn, at least 1
+	 */
+	public void setWeight(final String key, final int weight) {
+		if (weight < 1) {
+			throw new IllegalArgumentException("Weight must be greater than zero.");
+		}
+		weights.put(key, weight);
+	}
+
+	/**
+	 * @param key the logical pool name or session id
+	 * @return the tasks dispatched per turn
+	 */
+	public int getWeight(final String key) {
+		Integer weight = weights.get(key);
+		return weight == null ? 1 : weight;
+	}
+
+	/**
+	 * Submit a task for a session.
+	 *
+	 * @param <T> the type for the future
+	 * @param key the session id the task is queued under
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @return a Future representing pending completion of the task
+	 */
+	public <T extends Serializable> TaskFuture<T> submit(final String key, final Runnable task, final T result) {
+		if (key == null) {
+			throw new IllegalArgumentException("Key cannot be null");
+		}
+		return doSubmit(key, null, task, result);
+	}
+
+	/**
+	 * Submit a task for a logical pool. The task is queued under the logical pool name and only runs while the logical
+	 * pool has a free thread.
+	 *
+	 * @param <T> the type for the future
+	 * @param logical the logical pool the task belongs to
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @return a Future representing pending completion of the task
+	 */
+	public <T extends Serializable> TaskFuture<T> submit(final LogicalThreadPool logical, final Runnable task, final T result) {
+		if (logical == null) {
+			throw new IllegalArgumentException("Logical pool cannot be null");
+		}
+		return doSubmit(logical.getName(), logical, task, result);
+	}
+
+	/**
+	 * @return the tasks waiting in all queues
+	 */
+	public int getQueuedCount() {
+		lock.lock();
+		try {
+			return queued;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param key the logical pool name or session id
+	 * @return the tasks waiting in the queues of the logical pool name or session id
+	 */
+	public int getQueuedCount(final String key) {
+		lock.lock();
+		try {
+			int count = 0;
+			for (Lane lane : lanes.values()) {
+				if (lane.key.equals(key)) {
+					count += lane.tasks.size();
+				}
+			}
+			return count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return the tasks handed to the TaskMaster pool that have not completed
+	 */
+	public int getRunningCount() {
+		lock.lock();
+		try {
+			return running;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Queue the task and dispatch.
+	 *
+	 * @param <T> the type for the future
+	 * @param key the queue key
+	 * @param logical the logical pool or null
+	 * @param task the task to submit
+	 * @param result the result to return
+	 * @return a Future representing pending completion of the task
+	 */
+	private <T extends Serializable> TaskFuture<T> doSubmit(final String key, final LogicalThreadPool logical, final Runnable task,
+			final T result) {
+		if (task == null) {
+			throw new IllegalArgumentException("Task cannot be null");
+		}
+		if (result == null) {
+			throw new IllegalArgumentException("Result cannot be null");
+		}
+		if (logical != null) {
+			logical.checkPoolStatus();
+		}
+		TaskFutureTask<T> future = new TaskFutureTask<>(task, result, pool);
+		future.setTimeout(TaskMasterPoolUtil.getTaskTimeout(pool));
+		TaskFuture<T> wrapper = new TaskFutureWrapper<>(future);
+		lock.lock();
+		try {
+			Lane lane = lanes.get(laneId(key, logical));
+			if (lane == null) {
+				lane = new Lane(key, logical);
+				lanes.put(lane.getId(), lane);
+				ring.addLast(lane);
+			}
+			lane.latest = logical;
+			lane.tasks.addLast(future);
+			queued++;
+		} finally {
+			lock.unlock();
+		}
+		dispatch();
+		return wrapper;
+	}
+
+	/**
+	 * Hand queued tasks to the TaskMaster pool while there is room.
+	 */
+	private void dispatch() {
+		List<Dispatch> batch;
+		List<TaskFutureTask<?>> rejected = null;
+		List<Runnable> afterUnlock = null;
+		lock.lock();
+		try {
+			batch = new ArrayList<>(concurrency - running > 0 ? concurrency - running : 0);
+			int skipped = 0;
+			while (running < concurrency && !ring.isEmpty() && skipped < ring.size()) {
+				Lane lane = ring.peekFirst();
+				TaskFutureTask<?> next = pollLive(lane);
+				if (next == null) {
+					// Lane is empty
+					ring.pollFirst();
+					lanes.remove(lane.getId());
+					Runnable close = closeLane(lane);
+					if (close != null) {
+						if (afterUnlock == null) {
+							afterUnlock = new ArrayList<>();
+						}
+						afterUnlock.add(close);
+					}
+					continue;
+				}
+				if (lane.request != null) {
+					// Still waiting for the logical pool to hand over a thread
+					ring.addLast(ring.pollFirst());
+					lane.credit = 0;
+					skipped++;
+					continue;
+				}
+				if (lane.logical != null && !lane.permit) {
+					// Not holding or waiting for a thread so switch to the latest copy of the logical pool
+					lane.logical = lane.latest;
+					boolean access;
+					try {
+						access = lane.logical.getAccess();
+					} catch (IllegalStateException e) {
+						// Logical pool is shutdown so its waiting tasks will not run
+						if (rejected == null) {
+							rejected = new ArrayList<>();
+						}
+						rejected.add(next);
+						queued--;
+						lane.tasks.pollFirst();
+						continue;
+					}
+					if (!access) {
+						// Logical pool is full so ask for its next free thread and try the next lane
+						CompletableFuture<LogicalThreadPool> request = lane.logical.acquireAsync().toCompletableFuture();
+						lane.request = request;
+						if (afterUnlock == null) {
+							afterUnlock = new ArrayList<>();
+						}
+						afterUnlock.add(() -> request.whenComplete((granted, excp) -> permitGranted(lane, request, excp)));
+						ring.addLast(ring.pollFirst());
+						lane.credit = 0;
+						skipped++;
+						continue;
+					}
+				}
+				skipped = 0;
+				lane.permit = false;
+				lane.tasks.pollFirst();
+				queued--;
+				running++;
+				batch.add(new Dispatch(next, lane.logical));
+				if (++lane.credit >= turnSize(lane) || lane.tasks.isEmpty()) {
+					// End of turn for this lane
+					lane.credit = 0;
+					ring.addLast(ring.pollFirst());
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (afterUnlock != null) {
+			for (Runnable action : afterUnlock) {
+				action.run();
+			}
+		}
+		if (rejected != null) {
+			for (TaskFutureTask<?> task : rejected) {
+				task.abort(new RejectedTaskException("Logical thread pool is shutdown for processing."));
+			}
+		}
+		for (Dispatch item : batch) {
+			execute(item);
+		}
+	}
+
+	/**
+	 * Hand the task to the TaskMaster pool.
+	 *
+	 * @param item the task to run
+	 */
+	private void execute(final Dispatch item) {
+		item.task.addCompletionListener(() -> completed(item.logical));
+		try {
+			ExecutorService exec = TaskMasterPoolUtil.getPool(pool);
+			exec.execute(item.task);
+		} catch (RejectedExecutionException | IllegalStateException e) {
+			LOGGER.warn("Unable to start task in pool [" + pool + "]. " + e.getMessage());
+			// Completing the task releases its slot
+			item.task.abort(new RejectedTaskException("Unable to start task in pool [" + pool + "].", e));
+		}
+	}
+
+	/**
+	 * A dispatched task has completed so release its slot and dispatch the next task.
+	 *
+	 * @param logical the logical pool of the task or null
+	 */
+	private void completed(final LogicalThreadPool logical) {
+		if (logical != null) {
+			logical.finished();
+		}
+		lock.lock();
+		try {
+			running--;
+		} finally {
+			lock.unlock();
+		}
+		dispatch();
+	}
+
+	/**
+	 * The logical pool of a lane has handed over a thread, or failed to as it has been shutdown.
+	 *
+	 * @param lane the lane that asked for the thread
+	 * @param request the request for the thread
+	 * @param excp the failure or null if handed a thread
+	 */
+	private void permitGranted(final Lane lane, final CompletableFuture<LogicalThreadPool> request, final Throwable excp) {
+		boolean current;
+		lock.lock();
+		try {
+			current = lane.request == request && lanes.get(lane.getId()) == lane;
+			if (current) {
+				lane.request = null;
+				// If the logical pool has been shutdown the next dispatch rejects the tasks of the lane
+				lane.permit = excp == null;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (!current) {
+			if (excp == null) {
+				// Lane has closed so give the thread back
+				lane.logical.finished();
+			}
+			return;
+		}
+		dispatch();
+	}
+
+	/**
+	 * Stop a closed lane from holding or waiting for a thread of its logical pool.
+	 *
+	 * @param lane the lane that has been removed
+	 * @return the action to run once the lock is released, or null if nothing to do
+	 */
+	private Runnable closeLane(final Lane lane) {
+		if (lane.permit) {
+			lane.permit = false;
+			return lane.logical::finished;
+		}
+		CompletableFuture<LogicalThreadPool> request = lane.request;
+		if (request != null) {
+			lane.request = null;
+			// If handed a thread before the cancel the thread is given back when the request completes
+			return () -> request.cancel(false);
+		}
+		return null;
+	}
+
+	/**
+	 * @param key the queue key
+	 * @param logical the logical pool or null
+	 * @return the id of the lane, the logical pool name or else the key
+	 */
+	private static Object laneId(final String key, final LogicalThreadPool logical) {
+		return logical == null ? key : new LogicalKey(logical.getName());
+	}
+
+	/**
+	 * Drop cancelled tasks from the head of the lane.
+	 *
+	 * @param lane the lane
+	 * @return the next task to run or null if the lane is empty
+	 */
+	private TaskFutureTask<?> pollLive(final Lane lane) {
+		Iterator<TaskFutureTask<?>> iter = lane.tasks.iterator();
+		while (iter.hasNext()) {
+			TaskFutureTask<?> task = iter.next();
+			if (!task.isDone()) {
+				return task;
+			}
+			iter.remove();
+			queued--;
+		}
+		return null;
+	}
+
+	/**
+	 * @param lane the lane
+	 * @return the tasks the lane can dispatch per turn
+	 */
+	private int turnSize(final Lane lane) {
+		return mode == Mode.WEIGHTED ? getWeight(lane.key) : 1;
+	}
+
+	/**
+	 * Queue of tasks for one logical pool or session.
+	 */
+	private static final class Lane {
+
+		private final String key;
+		// The copy of the logical pool threads are taken from
+		private LogicalThreadPool logical;
+		// The copy of the logical pool the latest task was submitted with
+		private LogicalThreadPool latest;
+		private final ArrayDeque<TaskFutureTask<?>> tasks = new ArrayDeque<>();
+		private int credit;
+		// True if holding a thread from the logical pool handed over by a request
+		private boolean permit;
+		// Request for a thread from the logical pool that has not completed
+		private CompletableFuture<LogicalThreadPool> request;
+
+		/**
+		 * @param key the queue key
+		 * @param logical the logical pool or null
+		 */
+		private Lane(final String key, final LogicalThreadPool logical) {
+			this.key = key;
+			this.logical = logical;
+			this.latest = logical;
+		}
+
+		/**
+		 * @return the id of the lane
+		 */
+		private Object getId() {
+			return laneId(key, logical);
+		}
+	}
+
+	/**
+	 * Lane id of a logical pool name, kept apart from session ids.
+	 */
+	private static final class LogicalKey {
+
+		private final String name;
+
+		/**
+		 * @param name the logical pool name
+		 */
+		private LogicalKey(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof LogicalKey && Objects.equals(name, ((LogicalKey) obj).name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(name);
+		}
+	}
+
+	/**
+	 * Task to hand to the TaskMaster pool.
+	 */
+	private static final class Dispatch {
+
+		private final TaskFutureTask<?> task;
+		private final LogicalThreadPool logical;
+
+		/**
+		 * @param task the task
+		 * @param logical the logical pool or null
+		 */
+		private Dispatch(final TaskFutureTask<?> task, final LogicalThreadPool logical) {
+			this.task = task;
+			this.logical = logical;
+		}
+	}
+
+}
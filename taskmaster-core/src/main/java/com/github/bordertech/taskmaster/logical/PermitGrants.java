@@ -0,0 +1,139 @@
+package com.github.bordertech.taskmaster.logical;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The permits of a distributed logical thread pool granted to each node in the cluster.
+ * <p>
+ * Held in a cache and updated with compare and set operations, so instances are immutable and compared by value. Each
+ * node's grant has an expiry so the permits of a node that stops renewing its grant are reclaimed.
+ * </p>
+ */
+public final class PermitGrants implements Serializable {
+
+	/**
+	 * No permits granted.
+	 */
+	public static final PermitGrants EMPTY = new PermitGrants(Collections.emptyMap());
+
+	private final Map<String, Grant> grants;
+
+	/**
+	 * @param grants the grants by node id
+	 */
+	private PermitGrants(final Map<String, Grant> grants) {
+		this.grants = grants;
+	}
+
+	/**
+	 * @param now the current time in epoch milliseconds
+	 * @return the permits granted to nodes whose grant has not expired
+	 */
+	public int getUsed(final long now) {
+		int used = 0;
+		for (Grant grant : grants.values()) {
+			if (!grant.isExpired(now)) {
+				used += grant.count;
+			}
+		}
+		return used;
+	}
+
+	/**
+	 * @param node the node id
+	 * @param now the current time in epoch milliseconds
+	 * @return the permits granted to the node, or 0 if it has no grant or it has expired
+	 */
+	public int getGranted(final String node, final long now) {
+		Grant grant = grants.get(node);
+		return grant == null || grant.isExpired(now) ? 0 : grant.count;
+	}
+
+	/**
+	 * Set the grant of a node and drop grants that have expired.
+	 *
+	 * @param node the node id
+	 * @param count the permits granted to the node, 0 removes the grant
+	 * @param now the current time in epoch milliseconds
+	 * @param expiry the time (epoch milliseconds) the grant expires
+	 * @return the updated grants
+	 */
+	public PermitGrants with(final String node, final int count, final long now, final long expiry) {
+		Map<String, Grant> updated = new HashMap<>();
+		for (Map.Entry<String, Grant> entry : grants.entrySet()) {
+			if (!entry.getValue().isExpired(now)) {
+				updated.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (count > 0) {
+			updated.put(node, new Grant(count, expiry));
+		} else {
+			updated.remove(node);
+		}
+		return new PermitGrants(updated);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return obj instanceof PermitGrants && grants.equals(((PermitGrants) obj).grants);
+	}
+
+	@Override
+	public int hashCode() {
+		return grants.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "PermitGrants" + grants;
+	}
+
+	/**
+	 * The permits granted to one node.
+	 */
+	private static final class Grant implements Serializable {
+
+		private final int count;
+		private final long expiry;
+
+		/**
+		 * @param count the permits granted
+		 * @param expiry the time (epoch milliseconds) the grant expires
+		 */
+		private Grant(final int count, final long expiry) {
+			this.count = count;
+			this.expiry = expiry;
+		}
+
+		/**
+		 * @param now the current time in epoch milliseconds
+		 * @return true if the grant has expired
+		 */
+		private boolean isExpired(final long now) {
+			return now >= expiry;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Grant)) {
+				return false;
+			}
+			Grant other = (Grant) obj;
+			return count == other.count && expiry == other.expiry;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * count + Long.hashCode(expiry);
+		}
+
+		@Override
+		public String toString() {
+			return count + "@" + expiry;
+		}
+	}
+
+}
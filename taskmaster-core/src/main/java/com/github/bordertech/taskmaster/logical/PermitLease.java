@@ -0,0 +1,102 @@
+package com.github.bordertech.taskmaster.logical;
+
+import com.github.bordertech.taskmaster.impl.TaskTimer;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A thread from a logical thread pool held for a limited time.
+ * <p>
+ * The lease must be released back to the pool it came from. A lease that is not released before it expires is
+ * reclaimed by the pool, after which releasing it is rejected as stale. Renewing a lease gives a new lease with a later
+ * expiry and the old lease becomes stale.
+ * </p>
+ */
+public final class PermitLease implements Serializable {
+
+	private final String id;
+	private final String pool;
+	private final long expiry;
+	// The timer is not serialized. Expired leases are also reclaimed when a thread is needed.
+	private transient volatile TaskTimer.Timeout expiryTimeout;
+
+	/**
+	 * @param id the lease id
+	 * @param pool the logical thread pool name
+	 * @param expiry the time (epoch milliseconds) the lease expires
+	 */
+	PermitLease(final String id, final String pool, final long expiry) {
+		this.id = id;
+		this.pool = pool;
+		this.expiry = expiry;
+	}
+
+	/**
+	 * @return the lease id
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return the logical thread pool name
+	 */
+	public String getPool() {
+		return pool;
+	}
+
+	/**
+	 * @return the time (epoch milliseconds) the lease expires
+	 */
+	public long getExpiry() {
+		return expiry;
+	}
+
+	/**
+	 * @param now the current time in epoch milliseconds
+	 * @return true if the lease has expired
+	 */
+	public boolean isExpired(final long now) {
+		return now >= expiry;
+	}
+
+	/**
+	 * @param timeout the timer timeout that reclaims the lease once it expires
+	 */
+	void setExpiryTimeout(final TaskTimer.Timeout timeout) {
+		this.expiryTimeout = timeout;
+	}
+
+	/**
+	 * Take the expiry of the lease off the timer as the lease is no longer held.
+	 */
+	void cancelExpiry() {
+		TaskTimer.Timeout timeout = expiryTimeout;
+		if (timeout != null) {
+			timeout.cancel();
+		}
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PermitLease)) {
+			return false;
+		}
+		PermitLease other = (PermitLease) obj;
+		return expiry == other.expiry && id.equals(other.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, expiry);
+	}
+
+	@Override
+	public String toString() {
+		return "PermitLease[" + id + "] pool [" + pool + "] expiry [" + expiry + "]";
+	}
+
+}
@@ -5,7 +5,7 @@ import javax.servlet.ServletContextEvent;
 import javax.servlet.ServletContextListener;
 
 /**
- * ContextListener to shutdown the task master (release threads).
+ * ContextListener to prestart the task master thread pools and shutdown the task master (release threads).
  * <p>
  * To include the context listener, declare the listener in the application's web.xml:-
  * </p>
@@ -21,6 +21,10 @@ import javax.servlet.ServletContextListener;
  * <p>
  * For Servlet container 3.x, you can annotate the listener with @WebListener, no need to declare in web.xml.
  * </p>
+ * <p>
+ * On shutdown, queued and running tasks are given up to {@code bordertech.taskmaster.shutdown.timeout} milliseconds
+ * to complete before they are dropped or interrupted.
+ * </p>
  *
  * @author Jonathan Austin
  * @since 1.0.0
@@ -32,7 +36,8 @@ public class TaskContextListener implements ServletContextListener {
 	 */
 	@Override
 	public void contextInitialized(final ServletContextEvent servletContextEvent) {
-		// Do nothing
+		// Start the thread pools flagged to prestart (in the background so startup is not held up)
+		TaskMaster.prestart();
 	}
 
 	/**
@@ -40,7 +45,7 @@ public class TaskContextListener implements ServletContextListener {
 	 */
 	@Override
 	public void contextDestroyed(final ServletContextEvent servletContextEvent) {
-		// Shutdown the task master
+		// Shutdown the task master (drains the thread pools up to the shutdown timeout)
 		TaskMaster.shutdown();
 	}
 }
@@ -0,0 +1,60 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskBatchResult;
+import com.github.bordertech.taskmaster.TaskStatus;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskBatch}.
+ */
+public class TaskBatchTest {
+
+	@Test
+	public void testEmptyBatch() throws Exception {
+		TaskBatch<String> batch = new TaskBatch<>(Collections.<TaskFutureTask<String>>emptyList(), null);
+		Assert.assertTrue("Empty batch should be done", batch.isDone());
+		Assert.assertEquals("Empty batch should have no tasks", 0, batch.get().getTotalCount());
+	}
+
+	@Test
+	public void testCompletesWithLastTask() throws Exception {
+		TaskFutureTask<String> item1 = new TaskFutureTask<>(() -> {
+		}, "foo");
+		TaskFutureTask<String> item2 = new TaskFutureTask<>(() -> {
+			throw new IllegalStateException("bar");
+		}, "foo");
+		TaskBatch<String> batch = new TaskBatch<>(Arrays.asList(item1, item2), null);
+		Assert.assertEquals("Incorrect total count", 2, batch.getTotalCount());
+
+		item1.run();
+		Assert.assertFalse("Batch should not be done until all tasks finish", batch.isDone());
+		Assert.assertEquals("Incorrect completed count", 1, batch.getCompletedCount());
+		Assert.assertEquals("Incorrect status of finished task", TaskStatus.COMPLETED, batch.getStatus(0));
+		Assert.assertEquals("Incorrect status of pending task", TaskStatus.PENDING, batch.getStatus(1));
+
+		item2.run();
+		Assert.assertTrue("Batch should be done once all tasks finish", batch.isDone());
+		TaskBatchResult<String> result = batch.get();
+		Assert.assertEquals("Incorrect completed count in result", 2, result.getCompletedCount());
+		Assert.assertEquals("Incorrect failed count in result", 1, result.getFailedCount());
+		Assert.assertEquals("Incorrect result", "foo", result.getResult(0));
+		Assert.assertEquals("Incorrect status of failed task", TaskStatus.FAILED, result.getStatus(1));
+		Assert.assertEquals("Incorrect exception of failed task", "bar", result.getException(1).getMessage());
+	}
+
+	@Test
+	public void testCancelBatchCancelsTasks() throws Exception {
+		TaskFutureTask<String> item1 = new TaskFutureTask<>(() -> {
+		}, "foo");
+		TaskFutureTask<String> item2 = new TaskFutureTask<>(() -> {
+		}, "foo");
+		TaskBatch<String> batch = new TaskBatch<>(Arrays.asList(item1, item2), null);
+		Assert.assertTrue("Batch should be cancelled", batch.cancel(false));
+		Assert.assertTrue("Tasks should be cancelled with the batch", item1.isCancelled() && item2.isCancelled());
+		Assert.assertEquals("Incorrect completed count", 2, batch.getCompletedCount());
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.TaskMasterException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskCompletionStageWrapper}.
+ */
+public class TaskCompletionStageWrapperTest {
+
+	@Test
+	public void testRemoteStageCompletedFromCompletedCache() throws Exception {
+		// A future that is not a local task, as seen where the task runs in another JVM
+		CompletableFuture<String> remote = new CompletableFuture<>();
+		TaskCompletionStageWrapper<String> wrapper = new TaskCompletionStageWrapper<>(remote, null);
+		CompletableFuture<String> chained = wrapper.thenApply(result -> result + "!").toCompletableFuture();
+		Assert.assertSame("Stage should be built once", wrapper.stage(), wrapper.stage());
+		Assert.assertFalse("Stage should wait for the task", chained.isDone());
+		// The other JVM moves the completed future to the completed cache
+		remote.complete("OK");
+		TaskFutureWrapper.getCompletedCache().put(wrapper.getId(), TaskFutureCompleted.of(remote));
+		Assert.assertEquals("Stage should complete from the completed cache", "OK!", chained.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testRemoteStageFailsWhenRemoved() throws Exception {
+		CompletableFuture<String> remote = new CompletableFuture<>();
+		TaskCompletionStageWrapper<String> wrapper = new TaskCompletionStageWrapper<>(remote, null);
+		CompletableFuture<String> stage = wrapper.toCompletableFuture();
+		TaskFutureWrapper.getRunningCache().remove(wrapper.getId());
+		try {
+			stage.get(5, TimeUnit.SECONDS);
+			Assert.fail("Stage should fail once the future has gone");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Stage should fail with a TaskMasterException", e.getCause() instanceof TaskMasterException);
+		}
+	}
+
+	@Test
+	public void testAsyncActionsRunOnCallbackPool() throws Exception {
+		AtomicReference<Thread> poolThread = new AtomicReference<>();
+		// Single thread pool so its thread can be compared
+		TaskMasterPoolUtil.getPool("test-callback").submit(() -> poolThread.set(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+		TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+		}, "OK");
+		TaskCompletionStageWrapper<String> wrapper = new TaskCompletionStageWrapper<>(task, "test-callback");
+		CompletableFuture<Thread> callback = wrapper.thenApplyAsync(result -> Thread.currentThread()).toCompletableFuture();
+		task.run();
+		Assert.assertSame("Async action should run on the callback pool", poolThread.get(), callback.get(5, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskFutureCompleted}.
+ */
+public class TaskFutureCompletedTest {
+
+	@Test
+	public void testResult() throws Exception {
+		TaskFutureCompleted<String> future = new TaskFutureCompleted<>("foo");
+		Assert.assertTrue("Completed future should be done", future.isDone());
+		Assert.assertFalse("Completed future should not be cancelled", future.isCancelled());
+		Assert.assertEquals("Incorrect result", "foo", future.get());
+	}
+
+	@Test
+	public void testOfResult() throws Exception {
+		FutureTask<String> task = new FutureTask<>(() -> "foo");
+		task.run();
+		Assert.assertEquals("Incorrect result from completed task", "foo", TaskFutureCompleted.of(task).get());
+	}
+
+	@Test
+	public void testOfException() throws Exception {
+		IllegalStateException excp = new IllegalStateException("bar");
+		FutureTask<String> task = new FutureTask<>(() -> {
+			throw excp;
+		});
+		task.run();
+		TaskFutureCompleted<String> future = TaskFutureCompleted.of(task);
+		Assert.assertEquals("Incorrect exception from completed task", excp, future.getException());
+		try {
+			future.get();
+			Assert.fail("Get should throw the task exception");
+		} catch (ExecutionException e) {
+			Assert.assertEquals("Incorrect exception cause", excp, e.getCause());
+		}
+	}
+
+	@Test(expected = CancellationException.class)
+	public void testOfCancelled() throws Exception {
+		FutureTask<String> task = new FutureTask<>(() -> "foo");
+		task.cancel(false);
+		TaskFutureCompleted<String> future = TaskFutureCompleted.of(task);
+		Assert.assertTrue("Completed future should be cancelled", future.isCancelled());
+		future.get();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfNotDone() {
+		TaskFutureCompleted.of(new FutureTask<>(() -> "foo"));
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskFutureOrphanListener}.
+ */
+public class TaskFutureOrphanListenerTest {
+
+	@Test
+	public void testRunningTaskCancelledWhenRemoved() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		}, "OK", "test-callback");
+		TaskFutureWrapper<String> wrapper = new TaskFutureWrapper<>(task);
+		long reclaimed = TaskFutureOrphanListener.getReclaimedCount("test-callback");
+		TaskMasterPoolUtil.getPool("test-callback").execute(task);
+		Assert.assertTrue("Task should start", started.await(5, TimeUnit.SECONDS));
+		// Nobody can reach the task once its future has gone from the cache
+		TaskFutureWrapper.getRunningCache().remove(wrapper.getId());
+		Assert.assertTrue("Orphaned task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue("Orphaned task should be cancelled", task.isCancelled());
+		Assert.assertEquals("Orphaned task should be counted", reclaimed + 1, TaskFutureOrphanListener.getReclaimedCount("test-callback"));
+	}
+
+	@Test
+	public void testCompletedTaskNotReclaimed() throws Exception {
+		TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+		}, "OK", "test-callback");
+		TaskFutureWrapper<String> wrapper = new TaskFutureWrapper<>(task);
+		long reclaimed = TaskFutureOrphanListener.getReclaimedCount("test-callback");
+		task.run();
+		TaskFutureWrapper.getRunningCache().remove(wrapper.getId());
+		Assert.assertFalse("Completed task should not be cancelled", task.isCancelled());
+		Assert.assertEquals("Completed task should not be counted", reclaimed, TaskFutureOrphanListener.getReclaimedCount("test-callback"));
+	}
+
+	@Test
+	public void testScheduledTaskPinnedPastTimeToLive() throws Exception {
+		CountDownLatch ran = new CountDownLatch(1);
+		TaskScheduledFutureTask<String> task = new TaskScheduledFutureTask<>(ran::countDown, "OK", "test-callback", 0);
+		TaskFutureWrapper<String> wrapper = new TaskFutureWrapper<>(task);
+		long reclaimed = TaskFutureOrphanListener.getReclaimedCount("test-callback");
+		// Due after the running cache entry has gone (same as a delay longer than the time to live)
+		task.schedule(300, TimeUnit.MILLISECONDS);
+		TaskFutureWrapper.getRunningCache().remove(wrapper.getId());
+		Assert.assertFalse("Scheduled task should not be cancelled", task.isCancelled());
+		Assert.assertTrue("Scheduled task should be pinned", TaskFutureWrapper.isPinned(wrapper.getId()));
+		Assert.assertEquals("Scheduled task should not be counted", reclaimed, TaskFutureOrphanListener.getReclaimedCount("test-callback"));
+		// A copy of the wrapper (eg session replication) can still reach the task
+		TaskFutureWrapper<String> copy = copy(wrapper);
+		Assert.assertEquals("Copy should get the result once the task is due", "OK", copy.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("Scheduled task should run", 0, ran.getCount());
+		Assert.assertTrue("Copy should be done", copy.isDone());
+		Assert.assertFalse("Done task should no longer be pinned", TaskFutureWrapper.isPinned(wrapper.getId()));
+	}
+
+	/**
+	 * @param wrapper the wrapper to copy
+	 * @return a serialized copy of the wrapper
+	 * @throws Exception an exception copying the wrapper
+	 */
+	private static TaskFutureWrapper<String> copy(final TaskFutureWrapper<String> wrapper) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(wrapper);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (TaskFutureWrapper<String>) in.readObject();
+		}
+	}
+
+}
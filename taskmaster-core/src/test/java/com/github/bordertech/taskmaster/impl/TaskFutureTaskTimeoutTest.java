@@ -0,0 +1,75 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.TaskTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the timeout of {@link TaskFutureTask}.
+ */
+public class TaskFutureTaskTimeoutTest {
+
+	@Test
+	public void testTaskTimesOut() throws Exception {
+		CountDownLatch interrupted = new CountDownLatch(1);
+		TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+			try {
+				Thread.sleep(10000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		}, "OK");
+		task.setTimeout(100);
+		new Thread(task).start();
+		try {
+			task.get(5, TimeUnit.SECONDS);
+			Assert.fail("Task should have timed out");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Task should fail with a timeout", e.getCause() instanceof TaskTimeoutException);
+		}
+		Assert.assertTrue("Task should be flagged timed out", task.isTimedOut());
+		Assert.assertTrue("Running task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testTaskCompletesWithinTimeout() throws Exception {
+		TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+		}, "OK");
+		task.setTimeout(5000);
+		task.run();
+		Assert.assertEquals("Task should complete with its result", "OK", task.get());
+		Assert.assertFalse("Task should not be flagged timed out", task.isTimedOut());
+		Assert.assertFalse("Interrupt should not leak from the task", Thread.currentThread().isInterrupted());
+	}
+
+	@Test
+	public void testPeriodicRunTimesOut() throws Exception {
+		CountDownLatch interrupted = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+		TaskScheduledFutureTask<String> task = new TaskScheduledFutureTask<>(() -> {
+			// First run completes, second run hangs
+			if (runs.incrementAndGet() > 1) {
+				try {
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					interrupted.countDown();
+				}
+			}
+		}, "OK", "test-callback", TimeUnit.MILLISECONDS.toNanos(20));
+		task.setTimeout(100);
+		task.schedule(0, TimeUnit.MILLISECONDS);
+		try {
+			task.get(5, TimeUnit.SECONDS);
+			Assert.fail("Periodic task should have timed out");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Periodic task should fail with a timeout", e.getCause() instanceof TaskTimeoutException);
+		}
+		Assert.assertTrue("Running period should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals("Periodic task should not run again", 2, runs.get());
+	}
+
+}
@@ -0,0 +1,205 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskShutdownReport;
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskMasterPoolUtil}.
+ */
+public class TaskMasterPoolUtilTest {
+
+	private static final String TIMER_THREAD = "taskmaster-timer";
+
+	@Test
+	public void testShutdownStopsTimerAfterDrain() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		TaskFutureTask<String> running = new TaskFutureTask<>(() -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}, "OK", "test-drain");
+		// Queued behind the running task so it starts, and asks for the timer, while the pool drains
+		TaskFutureTask<String> queued = new TaskFutureTask<>(() -> {
+		}, "OK", "test-drain");
+		queued.setTimeout(5000);
+		TaskMasterPoolUtil.getPool("test-drain").execute(running);
+		TaskMasterPoolUtil.getPool("test-drain").execute(queued);
+		new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			release.countDown();
+		}).start();
+		TaskMasterPoolUtil.shutdown(5000);
+		Assert.assertEquals("Queued task should run while the pool drains", "OK", queued.get(1, TimeUnit.SECONDS));
+		Assert.assertFalse("Timer thread should not be alive after the shutdown", isTimerAlive());
+	}
+
+	@Test
+	public void testShutdownReportDrainAndInterrupt() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		// Drains within the timeout
+		TaskMasterPoolUtil.getPool("test-drain").execute(() -> sleep(50));
+		TaskMasterPoolUtil.getPool("test-drain").execute(() -> sleep(50));
+		// Still running at the deadline with a task queued behind it
+		TaskMasterPoolUtil.getPool("test-interrupt").execute(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		});
+		TaskMasterPoolUtil.getPool("test-interrupt").execute(() -> {
+		});
+		Assert.assertTrue("Long task should start", started.await(5, TimeUnit.SECONDS));
+		TaskShutdownReport report = TaskMasterPoolUtil.shutdown(500);
+		TaskShutdownReport.PoolReport drained = report.getPool("test-drain");
+		Assert.assertNotNull("Drained pool should be reported", drained);
+		Assert.assertEquals("Drained pool should complete its tasks", 2, drained.getCompleted());
+		Assert.assertEquals("Drained pool should drop no tasks", 0, drained.getDropped());
+		Assert.assertEquals("Drained pool should interrupt no tasks", 0, drained.getInterrupted());
+		Assert.assertTrue("Drained pool should terminate", drained.isTerminated());
+		TaskShutdownReport.PoolReport stopped = report.getPool("test-interrupt");
+		Assert.assertNotNull("Interrupted pool should be reported", stopped);
+		Assert.assertEquals("Interrupted pool should complete no tasks", 0, stopped.getCompleted());
+		Assert.assertEquals("Interrupted pool should drop the queued task", 1, stopped.getDropped());
+		Assert.assertEquals("Interrupted pool should interrupt the running task", 1, stopped.getInterrupted());
+		Assert.assertTrue("Running task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+		Assert.assertFalse("Shutdown should not be clean", report.isClean());
+	}
+
+	@Test
+	public void testShutdownReportForkJoinAbortsQueued() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		ExecutorService exec = TaskMasterPoolUtil.getPool("test-forkjoin");
+		exec.execute(new TaskFutureTask<>(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		}, "OK", "test-forkjoin"));
+		Assert.assertTrue("Long task should start", started.await(5, TimeUnit.SECONDS));
+		TaskFutureTask<String> queued = new TaskFutureTask<>(() -> {
+		}, "OK", "test-forkjoin");
+		exec.execute(queued);
+		exec.shutdown();
+		TaskShutdownReport.PoolReport report = TaskMasterPoolUtil.drainPool("test-forkjoin", exec, 2, System.currentTimeMillis() + 200);
+		Assert.assertEquals("Queued task should be dropped", 1, report.getDropped());
+		Assert.assertTrue("Running task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+		assertAborted(queued);
+	}
+
+	@Test
+	public void testShutdownReportVirtualAbortsWaiting() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		// Capped at one task so the second waits for a permit
+		VirtualThreadExecutorService exec = new VirtualThreadExecutorService(Executors.newCachedThreadPool(), 1);
+		exec.execute(new TaskFutureTask<>(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		}, "OK", "test-virtual"));
+		Assert.assertTrue("Long task should start", started.await(5, TimeUnit.SECONDS));
+		TaskFutureTask<String> waiting = new TaskFutureTask<>(() -> {
+		}, "OK", "test-virtual");
+		exec.execute(waiting);
+		long end = System.currentTimeMillis() + 5000;
+		while (exec.getQueueLength() == 0 && System.currentTimeMillis() < end) {
+			Thread.sleep(1);
+		}
+		exec.shutdown();
+		TaskShutdownReport.PoolReport report = TaskMasterPoolUtil.drainPool("test-virtual", exec, 2, System.currentTimeMillis() + 200);
+		Assert.assertEquals("Waiting task should be dropped", 1, report.getDropped());
+		Assert.assertEquals("Running task should be interrupted", 1, report.getInterrupted());
+		Assert.assertTrue("Running task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue("Pool should terminate", report.isTerminated());
+		assertAborted(waiting);
+	}
+
+	@Test
+	public void testShutdownTimeoutInMilliseconds() {
+		Assert.assertEquals("Shutdown timeout should be read in milliseconds", 1500, TaskMasterProperties.getShutdownTimeout());
+	}
+
+	@Test
+	public void testUnknownPoolRejected() {
+		try {
+			TaskMasterPoolUtil.getPool("test-unknown");
+			Assert.fail("Unknown pool should be rejected");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("Unknown pool should be reported", "Pool [test-unknown] has not been defined.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPrestartStartsCoreThreads() throws Exception {
+		TaskMasterPoolUtil.prestart();
+		ExecutorService exec = TaskMasterPoolUtil.getPool("test-prestart");
+		Assert.assertTrue("Fixed pool should be a thread pool executor", exec instanceof ThreadPoolExecutor);
+		ThreadPoolExecutor pool = (ThreadPoolExecutor) exec;
+		long end = System.currentTimeMillis() + 5000;
+		while (pool.getPoolSize() < pool.getCorePoolSize() && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		Assert.assertEquals("Prestart pool should have its core threads started", 2, pool.getPoolSize());
+		Assert.assertEquals("Prestart pool should not have run any tasks", 0, pool.getCompletedTaskCount());
+	}
+
+	/**
+	 * @param task the task that should have been aborted by the shutdown
+	 * @throws Exception an exception waiting for the task
+	 */
+	private static void assertAborted(final TaskFutureTask<String> task) throws Exception {
+		try {
+			task.get(1, TimeUnit.SECONDS);
+			Assert.fail("Task not started should be aborted");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Task should be aborted with a rejection", e.getCause() instanceof RejectedTaskException);
+		}
+	}
+
+	/**
+	 * @param millis the milliseconds to sleep
+	 */
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return true if a TaskMaster timer thread is alive
+	 */
+	private static boolean isTimerAlive() {
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (TIMER_THREAD.equals(thread.getName()) && thread.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
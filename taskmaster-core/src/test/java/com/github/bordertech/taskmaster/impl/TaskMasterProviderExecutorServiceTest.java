@@ -0,0 +1,79 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskMasterProviderExecutorService}.
+ */
+public class TaskMasterProviderExecutorServiceTest {
+
+	@Test
+	public void testForkJoinPoolProperties() {
+		ForkJoinPool exec = (ForkJoinPool) TaskMasterPoolUtil.getPool("test-forkjoin-async");
+		Assert.assertEquals("Parallelism should be set from the properties", 1, exec.getParallelism());
+		Assert.assertTrue("Async mode should be set from the properties", exec.getAsyncMode());
+	}
+
+	@Test
+	public void testSubmitFromForkJoinWorkerForked() throws Exception {
+		AtomicReference<TaskFuture<String>> inner = new AtomicReference<>();
+		AtomicInteger localQueued = new AtomicInteger(-1);
+		AtomicReference<ForkJoinPool> innerPool = new AtomicReference<>();
+		AtomicInteger forked = new AtomicInteger();
+		TaskMasterProviderExecutorService provider = new TaskMasterProviderExecutorService() {
+			@Override
+			protected boolean isForkJoinWorker(final ExecutorService exec) {
+				boolean worker = super.isForkJoinWorker(exec);
+				if (worker) {
+					forked.incrementAndGet();
+				}
+				return worker;
+			}
+		};
+		TaskFuture<String> outer = provider.submit(() -> {
+			try {
+				inner.set(provider.submit(() -> innerPool.set(ForkJoinTask.getPool()), "INNER", "test-forkjoin-async"));
+			} catch (RejectedTaskException e) {
+				throw new IllegalStateException(e);
+			}
+			// The only worker is busy so the forked task is still on its local queue
+			localQueued.set(ForkJoinTask.getQueuedTaskCount());
+		}, "OUTER", "test-forkjoin-async");
+		Assert.assertEquals("Outer task should complete", "OUTER", outer.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals("Only the inner task should be forked", 1, forked.get());
+		Assert.assertEquals("Inner task should be forked onto the worker queue", 1, localQueued.get());
+		// The future of the forked task still works once serialized (eg session replication)
+		TaskFuture<String> copy = copy(inner.get());
+		Assert.assertEquals("Forked task should complete", "INNER", copy.get(5, TimeUnit.SECONDS));
+		Assert.assertSame("Forked task should run in the same pool", TaskMasterPoolUtil.getPool("test-forkjoin-async"), innerPool.get());
+	}
+
+	/**
+	 * @param future the future to copy
+	 * @return a serialized copy of the future
+	 * @throws Exception an exception copying the future
+	 */
+	private static TaskFuture<String> copy(final TaskFuture<String> future) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(future);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (TaskFuture<String>) in.readObject();
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.TaskOptions;
+import com.github.bordertech.taskmaster.exception.TaskExpiredException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskPriorityQueue}.
+ */
+public class TaskPriorityQueueTest {
+
+	@Test
+	public void testPriorityThenDeadlineOrder() {
+		TaskPriorityQueue queue = new TaskPriorityQueue(-1, 0);
+		long now = System.currentTimeMillis();
+		TaskFutureTask<String> low = createTask(TaskOptions.DEFAULT.withPriority(-1));
+		TaskFutureTask<String> normal = createTask(TaskOptions.DEFAULT);
+		TaskFutureTask<String> late = createTask(TaskOptions.DEFAULT.withPriority(1).withDeadline(now + 60000));
+		TaskFutureTask<String> early = createTask(TaskOptions.DEFAULT.withPriority(1).withDeadline(now + 30000));
+		queue.offer(low);
+		queue.offer(normal);
+		queue.offer(late);
+		queue.offer(early);
+		Assert.assertEquals("Highest priority and earliest deadline should be first", early, queue.poll());
+		Assert.assertEquals("Highest priority with later deadline should be second", late, queue.poll());
+		Assert.assertEquals("Normal priority should be third", normal, queue.poll());
+		Assert.assertEquals("Low priority should be last", low, queue.poll());
+		Assert.assertNull("Queue should be empty", queue.poll());
+	}
+
+	@Test
+	public void testSamePriorityIsFifo() {
+		TaskPriorityQueue queue = new TaskPriorityQueue(-1, 0);
+		Runnable first = () -> {
+		};
+		Runnable second = () -> {
+		};
+		queue.offer(first);
+		queue.offer(second);
+		Assert.assertEquals("Same priority should be first in first out", first, queue.poll());
+		Assert.assertEquals("Same priority should be first in first out", second, queue.poll());
+	}
+
+	@Test
+	public void testExpiredTaskDropped() throws Exception {
+		TaskPriorityQueue queue = new TaskPriorityQueue(-1, 0);
+		TaskFutureTask<String> expired = createTask(TaskOptions.DEFAULT.withPriority(1).withDeadline(1));
+		TaskFutureTask<String> task = createTask(TaskOptions.DEFAULT);
+		queue.offer(expired);
+		queue.offer(task);
+		Assert.assertEquals("Expired task should be dropped", task, queue.poll(1, TimeUnit.SECONDS));
+		Assert.assertTrue("Dropped task should be done", expired.isDone());
+		try {
+			expired.get();
+			Assert.fail("Dropped task should complete with an exception");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Dropped task should have expired exception", e.getCause() instanceof TaskExpiredException);
+		}
+	}
+
+	@Test
+	public void testStarvationProtection() {
+		TaskPriorityQueue queue = new TaskPriorityQueue(-1, 2);
+		TaskFutureTask<String> low = createTask(TaskOptions.DEFAULT.withPriority(-1));
+		TaskFutureTask<String> high1 = createTask(TaskOptions.DEFAULT.withPriority(1));
+		TaskFutureTask<String> high2 = createTask(TaskOptions.DEFAULT.withPriority(1));
+		queue.offer(low);
+		queue.offer(high1);
+		queue.offer(high2);
+		Assert.assertEquals("First dequeue should be by priority", high1, queue.poll());
+		Assert.assertEquals("Second dequeue should take the longest waiting task", low, queue.poll());
+		Assert.assertEquals("Third dequeue should be by priority", high2, queue.poll());
+	}
+
+	@Test
+	public void testCapacity() {
+		TaskPriorityQueue queue = new TaskPriorityQueue(1, 0);
+		Assert.assertTrue("First task should be accepted", queue.offer(createTask(TaskOptions.DEFAULT)));
+		Assert.assertFalse("Task should be rejected when queue is full", queue.offer(createTask(TaskOptions.DEFAULT)));
+		Assert.assertEquals("Incorrect remaining capacity", 0, queue.remainingCapacity());
+	}
+
+	private static TaskFutureTask<String> createTask(final TaskOptions options) {
+		TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+		}, "foo");
+		task.setOptions(options);
+		return task;
+	}
+
+}
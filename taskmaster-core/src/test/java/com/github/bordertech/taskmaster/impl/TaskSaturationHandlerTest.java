@@ -0,0 +1,139 @@
+package com.github.bordertech.taskmaster.impl;
+
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskSaturationHandler}.
+ */
+public class TaskSaturationHandlerTest {
+
+	@Test
+	public void testPolicyFromValue() {
+		Assert.assertEquals("Incorrect policy", TaskSaturationHandler.Policy.CALLER_RUNS, TaskSaturationHandler.Policy.fromValue("caller-runs"));
+		Assert.assertEquals("Incorrect policy", TaskSaturationHandler.Policy.DROP_OLDEST, TaskSaturationHandler.Policy.fromValue("drop-oldest"));
+		Assert.assertEquals("Unknown policy should default to reject", TaskSaturationHandler.Policy.REJECT,
+				TaskSaturationHandler.Policy.fromValue("foo"));
+	}
+
+	@Test
+	public void testCallerRuns() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ThreadPoolExecutor exec = createSaturatedPool(TaskSaturationHandler.Policy.CALLER_RUNS, release);
+		try {
+			TaskFutureTask<String> task = new TaskFutureTask<>(() -> {
+			}, "foo");
+			exec.execute(task);
+			Assert.assertTrue("Task should have run on the caller thread", task.isDone());
+		} finally {
+			release.countDown();
+			exec.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testDropOldest() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ThreadPoolExecutor exec = createSaturatedPool(TaskSaturationHandler.Policy.DROP_OLDEST, release);
+		try {
+			TaskFutureTask<String> queued = (TaskFutureTask<String>) exec.getQueue().peek();
+			exec.execute(new TaskFutureTask<>(() -> {
+			}, "foo"));
+			Assert.assertTrue("Oldest task should be dropped", queued.isDone());
+			try {
+				queued.get();
+				Assert.fail("Dropped task should complete with an exception");
+			} catch (ExecutionException e) {
+				Assert.assertTrue("Dropped task should be rejected", e.getCause() instanceof RejectedTaskException);
+			}
+		} finally {
+			release.countDown();
+			exec.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRetryAfter() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ThreadPoolExecutor exec = createSaturatedPool(TaskSaturationHandler.Policy.RETRY_AFTER, release);
+		try {
+			exec.execute(() -> {
+			});
+			Assert.fail("Task should be rejected");
+		} catch (TaskPoolSaturatedException e) {
+			Assert.assertEquals("Retry after should default when no drain rate", 500, e.getRetryAfter());
+		} finally {
+			release.countDown();
+			exec.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testRetryAfterIgnoresIdleGap() throws Exception {
+		AtomicLong completed = new AtomicLong();
+		ThreadPoolExecutor exec = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1)) {
+			@Override
+			public long getCompletedTaskCount() {
+				return completed.get();
+			}
+		};
+		TaskSaturationHandler handler = new TaskSaturationHandler("test", TaskSaturationHandler.Policy.RETRY_AFTER, 50, 50);
+		try {
+			Assert.assertEquals("First rejection should only set the baseline", 50, handler.estimateRetryAfter(exec));
+			Thread.sleep(20);
+			completed.addAndGet(20);
+			handler.estimateRetryAfter(exec);
+			double rate = handler.getDrainRate();
+			Assert.assertTrue("Drain rate should be sampled while saturated", rate > 0);
+			// Idle with nothing completed, then saturated again
+			Thread.sleep(150);
+			handler.estimateRetryAfter(exec);
+			Assert.assertEquals("Idle gap should not be sampled", rate, handler.getDrainRate(), 0);
+		} finally {
+			exec.shutdownNow();
+		}
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void testBlockTimeout() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ThreadPoolExecutor exec = createSaturatedPool(TaskSaturationHandler.Policy.BLOCK, release);
+		try {
+			exec.execute(() -> {
+			});
+		} finally {
+			release.countDown();
+			exec.shutdownNow();
+		}
+	}
+
+	/**
+	 * @param policy the saturation policy
+	 * @param release latch to release the running task
+	 * @return a pool with one thread busy and a full queue of one
+	 */
+	private static ThreadPoolExecutor createSaturatedPool(final TaskSaturationHandler.Policy policy, final CountDownLatch release) {
+		ThreadPoolExecutor exec = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+				Executors.defaultThreadFactory(), new TaskSaturationHandler("test", policy, 50, 500));
+		exec.execute(() -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		exec.execute(new TaskFutureTask<>(() -> {
+		}, "queued"));
+		return exec;
+	}
+
+}
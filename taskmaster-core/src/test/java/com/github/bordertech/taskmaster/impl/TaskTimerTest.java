@@ -0,0 +1,99 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskTimer}.
+ */
+public class TaskTimerTest {
+
+	@Test
+	public void testTimeoutExpires() throws Exception {
+		TaskTimer timer = new TaskTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+		try {
+			CountDownLatch latch = new CountDownLatch(1);
+			long start = System.nanoTime();
+			TaskTimer.Timeout timeout = timer.newTimeout(latch::countDown, 50, TimeUnit.MILLISECONDS);
+			Assert.assertTrue("Timeout should expire", latch.await(2, TimeUnit.SECONDS));
+			Assert.assertTrue("Timeout should not expire before its delay",
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+			Assert.assertTrue("Timeout should be flagged expired", timeout.isExpired());
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void testTimeoutLongerThanWheel() throws Exception {
+		// Delay is more than one round of the wheel
+		TaskTimer timer = new TaskTimer("test-timer", 5, TimeUnit.MILLISECONDS, 4);
+		try {
+			CountDownLatch latch = new CountDownLatch(1);
+			long start = System.nanoTime();
+			timer.newTimeout(latch::countDown, 100, TimeUnit.MILLISECONDS);
+			Assert.assertTrue("Timeout should expire", latch.await(2, TimeUnit.SECONDS));
+			Assert.assertTrue("Timeout should wait for the remaining rounds",
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		TaskTimer timer = new TaskTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+		try {
+			AtomicInteger count = new AtomicInteger();
+			TaskTimer.Timeout timeout = timer.newTimeout(count::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+			Assert.assertTrue("Timeout should be cancelled", timeout.cancel());
+			Assert.assertEquals("Cancelled timeout should not be pending", 0, timer.getPendingCount());
+			Thread.sleep(100);
+			Assert.assertEquals("Cancelled timeout should not run", 0, count.get());
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void testManyTimeouts() throws Exception {
+		TaskTimer timer = new TaskTimer("test-timer", 10, TimeUnit.MILLISECONDS, 64);
+		try {
+			int total = 200000;
+			CountDownLatch latch = new CountDownLatch(total);
+			for (int i = 0; i < total; i++) {
+				timer.newTimeout(latch::countDown, i % 100, TimeUnit.MILLISECONDS);
+			}
+			Assert.assertTrue("All timeouts should expire", latch.await(10, TimeUnit.SECONDS));
+			Assert.assertEquals("No timeouts should be pending", 0, timer.getPendingCount());
+		} finally {
+			timer.stop();
+		}
+	}
+
+	@Test
+	public void testStopNotifiesPending() {
+		TaskTimer timer = new TaskTimer("test-timer", 10, TimeUnit.MILLISECONDS, 8);
+		AtomicInteger stopped = new AtomicInteger();
+		TaskTimer.TimerTask task = new TaskTimer.TimerTask() {
+			@Override
+			public void expired() {
+				// Not expected
+			}
+
+			@Override
+			public void stopped() {
+				stopped.incrementAndGet();
+			}
+		};
+		timer.newTimeout(task, 1, TimeUnit.HOURS);
+		timer.newTimeout(task, 1, TimeUnit.HOURS);
+		Assert.assertEquals("Incorrect number of pending timeouts stopped", 2, timer.stop());
+		Assert.assertEquals("Pending tasks should be told the timer stopped", 2, stopped.get());
+		Assert.assertTrue("Timer should be stopped", timer.isStopped());
+	}
+
+}
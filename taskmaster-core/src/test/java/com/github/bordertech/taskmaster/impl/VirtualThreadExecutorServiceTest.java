@@ -0,0 +1,100 @@
+package com.github.bordertech.taskmaster.impl;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link VirtualThreadExecutorService}.
+ * <p>
+ * The tests run the pool over a platform thread per task executor so they also run on JVMs without virtual threads.
+ * </p>
+ */
+public class VirtualThreadExecutorServiceTest {
+
+	@Test
+	public void testMaxConcurrencyLimitsRunningTasks() throws Exception {
+		VirtualThreadExecutorService exec = new VirtualThreadExecutorService(Executors.newCachedThreadPool(), 2);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(5);
+		AtomicInteger current = new AtomicInteger();
+		AtomicInteger highest = new AtomicInteger();
+		for (int i = 0; i < 5; i++) {
+			exec.execute(() -> {
+				highest.accumulateAndGet(current.incrementAndGet(), Math::max);
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				current.decrementAndGet();
+				finished.countDown();
+			});
+		}
+		long end = System.currentTimeMillis() + 5000;
+		while (exec.getQueueLength() < 3 && System.currentTimeMillis() < end) {
+			Thread.sleep(1);
+		}
+		Assert.assertEquals("Tasks over the limit should wait for a permit", 3, exec.getQueueLength());
+		Assert.assertEquals("Only the limit should be running", 2, exec.getActiveCount());
+		release.countDown();
+		Assert.assertTrue("All tasks should run", finished.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals("Running tasks should never pass the limit", 2, highest.get());
+		exec.shutdown();
+	}
+
+	@Test
+	public void testShutdown() throws Exception {
+		VirtualThreadExecutorService exec = new VirtualThreadExecutorService(Executors.newCachedThreadPool(), 0);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(1);
+		exec.execute(() -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			finished.countDown();
+		});
+		exec.shutdown();
+		Assert.assertTrue("Pool should be shutdown", exec.isShutdown());
+		Assert.assertFalse("Pool should not terminate while a task runs", exec.isTerminated());
+		try {
+			exec.execute(() -> {
+			});
+			Assert.fail("Task submitted after shutdown should be rejected");
+		} catch (RejectedExecutionException e) {
+			// Expected
+		}
+		release.countDown();
+		Assert.assertTrue("Running task should finish", finished.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue("Pool should terminate once the task finishes", exec.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testPoolFallsBackToPlatformThreads() {
+		ExecutorService exec = TaskMasterPoolUtil.getPool("test-virtual");
+		if (VirtualThreadExecutorService.isVirtualThreadsSupported()) {
+			Assert.assertTrue("Virtual pool should run on virtual threads", exec instanceof VirtualThreadExecutorService);
+			Assert.assertEquals("Virtual pool should keep its limit", 2, ((VirtualThreadExecutorService) exec).getMaxConcurrency());
+		} else {
+			Assert.assertTrue("Virtual pool should fall back to a fixed pool", exec instanceof ThreadPoolExecutor);
+			Assert.assertEquals("Fixed pool should keep the limit", 2, ((ThreadPoolExecutor) exec).getMaximumPoolSize());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNotSupportedRejected() {
+		if (VirtualThreadExecutorService.isVirtualThreadsSupported()) {
+			throw new IllegalStateException("Supported so nothing to check");
+		}
+		new VirtualThreadExecutorService(1);
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.github.bordertech.taskmaster.logical;
+
+import com.github.bordertech.taskmaster.cache.CachingHelper;
+import java.io.Serializable;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryUpdatedListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DistributedLogicalThreadPoolController}.
+ * <p>
+ * Two controllers sharing one in-process cache stand in for two nodes of a cluster.
+ * </p>
+ */
+public class DistributedLogicalThreadPoolControllerTest {
+
+	private Cache<String, PermitGrants> cache;
+
+	@Before
+	public void setup() {
+		cache = CachingHelper.getOrCreateCache("test-permits-" + UUID.randomUUID(), String.class, PermitGrants.class);
+	}
+
+	@Test
+	public void testLimitAcrossNodes() {
+		DistributedLogicalThreadPoolController node1 = new DistributedLogicalThreadPoolController("user", 4, 1, 60000, cache);
+		DistributedLogicalThreadPoolController node2 = new DistributedLogicalThreadPoolController("user", 4, 1, 60000, cache);
+		Assert.assertTrue("Node 1 should get a thread", node1.acquireThread());
+		Assert.assertTrue("Node 1 should get a thread", node1.acquireThread());
+		Assert.assertTrue("Node 2 should get a thread", node2.acquireThread());
+		Assert.assertTrue("Node 2 should get a thread", node2.acquireThread());
+		Assert.assertFalse("Node 1 should be over the cluster limit", node1.acquireThread());
+		Assert.assertFalse("Node 2 should be over the cluster limit", node2.acquireThread());
+		Assert.assertEquals("Cluster should have all permits granted", 4, node1.getClusterGranted());
+		node2.releaseThread();
+		node2.releaseIdle();
+		Assert.assertTrue("Node 1 should get the thread released by node 2", node1.acquireThread());
+	}
+
+	@Test
+	public void testBatch() {
+		DistributedLogicalThreadPoolController node1 = new DistributedLogicalThreadPoolController("user", 4, 2, 60000, cache);
+		DistributedLogicalThreadPoolController node2 = new DistributedLogicalThreadPoolController("user", 4, 2, 60000, cache);
+		Assert.assertTrue("Node 1 should get a thread", node1.acquireThread());
+		Assert.assertEquals("Node 1 should hold the rest of its batch", 1, node1.getLocalAvailable());
+		Assert.assertEquals("Node 1 batch should be granted", 2, node1.getClusterGranted());
+		Assert.assertTrue("Node 1 should use its batch", node1.acquireThread());
+		Assert.assertTrue("Node 2 should get a thread", node2.acquireThread());
+		Assert.assertTrue("Node 2 should use its batch", node2.acquireThread());
+		Assert.assertFalse("Node 1 should be over the cluster limit", node1.acquireThread());
+		node1.releaseThread();
+		node1.releaseThread();
+		Assert.assertEquals("Node 1 should keep one batch locally", 2, node1.getLocalAvailable());
+		Assert.assertFalse("Node 2 should not get permits held by node 1", node2.acquireThread());
+		node1.releaseIdle();
+		Assert.assertTrue("Node 2 should get permits handed back by node 1", node2.acquireThread());
+	}
+
+	@Test
+	public void testExpiredGrantReclaimed() throws Exception {
+		// Node that stopped without handing back its permits
+		long now = System.currentTimeMillis();
+		cache.put("user", PermitGrants.EMPTY.with("dead-node", 2, now, now + 100));
+		DistributedLogicalThreadPoolController node = new DistributedLogicalThreadPoolController("user", 2, 1, 60000, cache);
+		Assert.assertFalse("Permits should be held by the other node", node.acquireThread());
+		Thread.sleep(150);
+		Assert.assertTrue("Expired permits should be reclaimed", node.acquireThread());
+		Assert.assertEquals("Only this node's permit should be granted", 1, node.getClusterGranted());
+	}
+
+	@Test
+	public void testRenewOffTimerThread() throws Exception {
+		cache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				FactoryBuilder.factoryOf(UpdateThreadListener.class), null, false, true));
+		UpdateThreadListener.THREADS.clear();
+		DistributedLogicalThreadPoolController node = new DistributedLogicalThreadPoolController("user", 2, 1, 100, cache);
+		Assert.assertTrue("Node should get a thread", node.acquireThread());
+		String thread = UpdateThreadListener.THREADS.poll(5, TimeUnit.SECONDS);
+		Assert.assertNotNull("Grant should be renewed", thread);
+		Assert.assertNotEquals("Grant should not be renewed on the timer thread", "taskmaster-timer", thread);
+		node.releaseThread();
+	}
+
+	@Test
+	public void testOverReleaseIgnored() {
+		DistributedLogicalThreadPoolController node = new DistributedLogicalThreadPoolController("user", 2, 1, 60000, cache);
+		node.releaseThread();
+		Assert.assertEquals("Release with no thread in use should be ignored", 0, node.getLocalInUse());
+		Assert.assertEquals("No permits should be held", 0, node.getLocalAvailable());
+	}
+
+	/**
+	 * Records the threads that update the grants.
+	 */
+	public static class UpdateThreadListener implements CacheEntryUpdatedListener<String, PermitGrants>, Serializable {
+
+		private static final BlockingQueue<String> THREADS = new LinkedBlockingQueue<>();
+
+		@Override
+		public void onUpdated(final Iterable<CacheEntryEvent<? extends String, ? extends PermitGrants>> events) {
+			THREADS.add(Thread.currentThread().getName());
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+package com.github.bordertech.taskmaster.logical;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LogicalThreadPoolScheduler}.
+ */
+public class LogicalThreadPoolSchedulerTest {
+
+	@Test
+	public void testRoundRobinLightUserNotDelayed() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 1, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch release = new CountDownLatch(1);
+		scheduler.submit("heavy", () -> await(release), "OK");
+		List<TaskFuture<String>> futures = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			futures.add(scheduler.submit("heavy", () -> order.add("heavy"), "OK"));
+		}
+		futures.add(scheduler.submit("light", () -> order.add("light"), "OK"));
+		Assert.assertEquals("Only one task should be handed to the pool", 1, scheduler.getRunningCount());
+		Assert.assertEquals("Tasks should be queued", 6, scheduler.getQueuedCount());
+		release.countDown();
+		for (TaskFuture<String> future : futures) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		// Heavy queued first so has the first turn, then the light user instead of after all the heavy tasks
+		Assert.assertEquals("Light user task should run in the next turn", "light", order.get(1));
+		Assert.assertEquals("All tasks should have run", 6, order.size());
+	}
+
+	@Test
+	public void testWeighted() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 1, LogicalThreadPoolScheduler.Mode.WEIGHTED);
+		scheduler.setWeight("A", 2);
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch release = new CountDownLatch(1);
+		scheduler.submit("blocker", () -> await(release), "OK");
+		List<TaskFuture<String>> futures = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(scheduler.submit("A", () -> order.add("A"), "OK"));
+			futures.add(scheduler.submit("B", () -> order.add("B"), "OK"));
+		}
+		release.countDown();
+		for (TaskFuture<String> future : futures) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		Assert.assertEquals("Queue A should get two tasks per turn", "[A, A, B, A, A, B, B, B]", order.toString());
+	}
+
+	@Test
+	public void testLogicalPoolLimit() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 4, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		LogicalThreadPool logical = new LogicalThreadPool("session", 1, true);
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+		List<TaskFuture<String>> futures = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(scheduler.submit(logical, () -> {
+				maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+				sleep(20);
+				active.decrementAndGet();
+			}, "OK"));
+		}
+		for (TaskFuture<String> future : futures) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		Assert.assertEquals("Logical pool limit should be kept", 1, maxActive.get());
+		// Threads are released by the completion listener after the future is done
+		waitForIdle(scheduler);
+		Assert.assertEquals("Logical pool threads should be released", 0, logical.getCurrent());
+		Assert.assertEquals("No tasks should be running", 0, scheduler.getRunningCount());
+	}
+
+	@Test
+	public void testCancelQueuedTask() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 1, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		CountDownLatch release = new CountDownLatch(1);
+		TaskFuture<String> first = scheduler.submit("A", () -> await(release), "OK");
+		AtomicInteger ran = new AtomicInteger();
+		TaskFuture<String> cancelled = scheduler.submit("A", ran::incrementAndGet, "OK");
+		TaskFuture<String> last = scheduler.submit("A", ran::incrementAndGet, "OK");
+		Assert.assertTrue("Queued task should cancel", cancelled.cancel(false));
+		release.countDown();
+		first.get(5, TimeUnit.SECONDS);
+		last.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals("Cancelled task should not run", 1, ran.get());
+		Assert.assertEquals("No tasks should be queued", 0, scheduler.getQueuedCount());
+	}
+
+	@Test
+	public void testLogicalPoolCopiesShareQueue() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 1, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch release = new CountDownLatch(1);
+		scheduler.submit("blocker", () -> await(release), "OK");
+		List<TaskFuture<String>> futures = new ArrayList<>();
+		// Each request has its own copy of the logical pool (eg session replication)
+		for (int i = 0; i < 3; i++) {
+			futures.add(scheduler.submit(new LogicalThreadPool("session", 4, true), () -> order.add("session"), "OK"));
+		}
+		futures.add(scheduler.submit("light", () -> order.add("light"), "OK"));
+		Assert.assertEquals("Copies should be queued under the name", 3, scheduler.getQueuedCount("session"));
+		release.countDown();
+		for (TaskFuture<String> future : futures) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		Assert.assertEquals("Copies should share one turn", "[session, light, session, session]", order.toString());
+	}
+
+	@Test
+	public void testLogicalPoolThreadsTakenFromLatestCopy() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 4, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		LogicalThreadPool first = new LogicalThreadPool("session", 1, true);
+		LogicalThreadPool second = new LogicalThreadPool("session", 1, true);
+		CountDownLatch release = new CountDownLatch(1);
+		TaskFuture<String> blocked = scheduler.submit(first, () -> await(release), "OK");
+		TaskFuture<String> other = scheduler.submit(second, () -> {
+		}, "OK");
+		try {
+			Assert.assertEquals("Task should take a thread from the copy it was submitted with", "OK", other.get(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+		blocked.get(5, TimeUnit.SECONDS);
+		waitForIdle(scheduler);
+		Assert.assertEquals("Thread should be released to the first copy", 0, first.getCurrent());
+		Assert.assertEquals("Thread should be released to the second copy", 0, second.getCurrent());
+	}
+
+	@Test
+	public void testLogicalPoolThreadHeldOutsideScheduler() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 4, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		LogicalThreadPool logical = new LogicalThreadPool("session", 1, true);
+		Assert.assertTrue("Should get the only thread", logical.getAccess());
+		TaskFuture<String> future = scheduler.submit(logical, () -> {
+		}, "OK");
+		Assert.assertEquals("Task should wait for the logical pool", 1, scheduler.getQueuedCount());
+		Assert.assertEquals("No tasks should be running", 0, scheduler.getRunningCount());
+		// Released outside the scheduler with no scheduler task to complete
+		logical.finished();
+		Assert.assertEquals("Task should run once the logical pool has a thread", "OK", future.get(5, TimeUnit.SECONDS));
+		waitForIdle(scheduler);
+		Assert.assertEquals("Logical pool thread should be released", 0, logical.getCurrent());
+	}
+
+	@Test
+	public void testLogicalPoolRequestCancelledWhenLaneEmpty() throws Exception {
+		LogicalThreadPoolScheduler scheduler = new LogicalThreadPoolScheduler(null, 4, LogicalThreadPoolScheduler.Mode.ROUND_ROBIN);
+		LogicalThreadPool logical = new LogicalThreadPool("session", 1, true);
+		Assert.assertTrue("Should get the only thread", logical.getAccess());
+		TaskFuture<String> future = scheduler.submit(logical, () -> {
+		}, "OK");
+		Assert.assertEquals("Scheduler should wait for a thread", 1, logical.getWaiting());
+		Assert.assertTrue("Queued task should cancel", future.cancel(false));
+		// Next dispatch finds the lane empty
+		scheduler.submit("other", () -> {
+		}, "OK").get(5, TimeUnit.SECONDS);
+		logical.finished();
+		Assert.assertEquals("Thread should not be held for the closed lane", 0, logical.getCurrent());
+	}
+
+	private static void waitForIdle(final LogicalThreadPoolScheduler scheduler) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (scheduler.getRunningCount() > 0 && System.currentTimeMillis() < end) {
+			Thread.sleep(1);
+		}
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
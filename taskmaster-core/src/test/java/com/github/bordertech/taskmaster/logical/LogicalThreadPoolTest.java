@@ -1,5 +1,16 @@
 package com.github.bordertech.taskmaster.logical;
 
+import com.github.bordertech.taskmaster.impl.TaskMasterPoolUtil;
+import com.github.bordertech.taskmaster.impl.TaskTimer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -67,4 +78,217 @@ public class LogicalThreadPoolTest {
 		Assert.assertEquals("Pool max should be positive value.", 10, new LogicalThreadPool(null, 10).getMax());
 	}
 
+	@Test
+	public void testWaiterWokenOnFinished() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		Assert.assertTrue("Should get the only thread", pool.getAccess());
+		CountDownLatch acquired = new CountDownLatch(1);
+		Thread waiter = new Thread(() -> {
+			pool.waitAccess(5, TimeUnit.SECONDS);
+			acquired.countDown();
+		});
+		waiter.start();
+		while (pool.getWaiting() == 0) {
+			Thread.sleep(1);
+		}
+		pool.finished();
+		// Handed to the waiter by finished, before the releasing thread continues and without the waiter polling
+		Assert.assertEquals("Waiter should no longer be waiting", 0, pool.getWaiting());
+		Assert.assertEquals("Thread should be handed to the waiter", 1, pool.getCurrent());
+		Assert.assertFalse("Released thread should not be free for the releasing thread", pool.getAccess());
+		Assert.assertTrue("Waiter should get the released thread", acquired.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testGetAccessTimeout() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		Assert.assertTrue("Should get the only thread", pool.getAccess());
+		Assert.assertFalse("Should time out waiting for a thread", pool.getAccess(50, TimeUnit.MILLISECONDS));
+		Assert.assertEquals("Timed out request should not be waiting", 0, pool.getWaiting());
+		pool.finished();
+		Assert.assertEquals("Thread should be released", 0, pool.getCurrent());
+	}
+
+	@Test
+	public void testFinishedNotOverReleased() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 2, true);
+		pool.finished();
+		Assert.assertEquals("Current should not go below zero", 0, pool.getCurrent());
+	}
+
+	@Test
+	public void testAcquireAsync() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, false);
+		CompletableFuture<LogicalThreadPool> first = pool.acquireAsync().toCompletableFuture();
+		Assert.assertTrue("First request should get a thread straight away", first.isDone());
+		CompletableFuture<LogicalThreadPool> second = pool.acquireAsync().toCompletableFuture();
+		Assert.assertFalse("Second request should wait for a thread", second.isDone());
+		pool.finished();
+		Assert.assertSame("Second request should be handed the released thread", pool, second.get(1, TimeUnit.SECONDS));
+		Assert.assertEquals("Thread should still be in use", 1, pool.getCurrent());
+	}
+
+	@Test
+	public void testAcquireAsyncCancelled() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		Assert.assertTrue("Should get the only thread", pool.getAccess());
+		CompletableFuture<LogicalThreadPool> cancelled = pool.acquireAsync().toCompletableFuture();
+		CompletableFuture<LogicalThreadPool> waiting = pool.acquireAsync().toCompletableFuture();
+		cancelled.cancel(false);
+		pool.finished();
+		Assert.assertSame("Cancelled request should be skipped", pool, waiting.get(1, TimeUnit.SECONDS));
+		pool.finished();
+		Assert.assertEquals("Thread should be released", 0, pool.getCurrent());
+	}
+
+	@Test
+	public void testAcquireAsyncTimeout() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		Assert.assertTrue("Should get the only thread", pool.getAccess());
+		CompletableFuture<LogicalThreadPool> waiting = pool.acquireAsync(50, TimeUnit.MILLISECONDS).toCompletableFuture();
+		try {
+			waiting.get(5, TimeUnit.SECONDS);
+			Assert.fail("Request should time out");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Request should fail with a timeout", e.getCause() instanceof TimeoutException);
+		}
+		Assert.assertEquals("Timed out request should not be waiting", 0, pool.getWaiting());
+	}
+
+	@Test
+	public void testAcquireAsyncTimeoutCancelledOnComplete() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		Assert.assertTrue("Should get the only thread", pool.getAccess());
+		TaskTimer timer = TaskMasterPoolUtil.getTimer();
+		long before = timer.getPendingCount();
+		CompletableFuture<LogicalThreadPool> waiting = pool.acquireAsync(1, TimeUnit.MINUTES).toCompletableFuture();
+		Assert.assertTrue("Timeout should be pending while waiting", timer.getPendingCount() > before);
+		pool.finished();
+		Assert.assertSame("Request should be handed the released thread", pool, waiting.get(1, TimeUnit.SECONDS));
+		Assert.assertTrue("Timeout should be cancelled once the request completes", timer.getPendingCount() <= before);
+	}
+
+	@Test
+	public void testShutdownFailsWaiters() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		Assert.assertTrue("Should get the only thread", pool.getAccess());
+		CompletableFuture<LogicalThreadPool> waiting = pool.acquireAsync().toCompletableFuture();
+		pool.shutdownPool();
+		Assert.assertTrue("Pool should be shutdown", pool.isShutdown());
+		try {
+			waiting.get(1, TimeUnit.SECONDS);
+			Assert.fail("Waiting request should fail on shutdown");
+		} catch (ExecutionException e) {
+			Assert.assertTrue("Request should fail with an IllegalStateException", e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void testLeaseAcquireRelease() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		PermitLease lease = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		Assert.assertNotNull("Should get a lease", lease);
+		Assert.assertEquals("Lease should be for the pool", "foo", lease.getPool());
+		Assert.assertEquals("Lease should be outstanding", 1, pool.getOutstandingLeases());
+		Assert.assertNull("No thread should be available", pool.tryAcquireLease(1, TimeUnit.MINUTES));
+		Assert.assertTrue("Lease should be released", pool.releaseLease(lease));
+		Assert.assertEquals("No leases should be outstanding", 0, pool.getOutstandingLeases());
+		Assert.assertEquals("Thread should be released", 0, pool.getCurrent());
+	}
+
+	@Test
+	public void testLeaseStaleReleaseRejected() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 2, true);
+		PermitLease lease = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		Assert.assertTrue("Lease should be released", pool.releaseLease(lease));
+		PermitLease other = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		Assert.assertFalse("Second release should be rejected", pool.releaseLease(lease));
+		Assert.assertEquals("Other lease should still hold its thread", 1, pool.getCurrent());
+		pool.finished();
+		Assert.assertEquals("Finished should not release a leased thread", 1, pool.getCurrent());
+		Assert.assertTrue("Other lease should be released", pool.releaseLease(other));
+	}
+
+	@Test
+	public void testLeaseExpiredReclaimed() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		PermitLease lease = pool.tryAcquireLease(50, TimeUnit.MILLISECONDS);
+		Thread.sleep(80);
+		PermitLease next = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		Assert.assertNotNull("Expired lease should be reclaimed", next);
+		Assert.assertFalse("Release of expired lease should be rejected", pool.releaseLease(lease));
+		Assert.assertEquals("Only the new lease should be outstanding", 1, pool.getOutstandingLeases());
+	}
+
+	@Test
+	public void testLeaseExpiryWakesWaiter() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		pool.tryAcquireLease(100, TimeUnit.MILLISECONDS);
+		PermitLease next = pool.acquireLease(1000, 5000, TimeUnit.MILLISECONDS);
+		Assert.assertNotNull("Waiter should get the thread of the expired lease", next);
+		Assert.assertEquals("Only the new lease should be outstanding", 1, pool.getOutstandingLeases());
+	}
+
+	@Test
+	public void testLeaseRenew() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		PermitLease lease = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		PermitLease renewed = pool.renewLease(lease, 2, TimeUnit.MINUTES);
+		Assert.assertNotNull("Lease should be renewed", renewed);
+		Assert.assertEquals("Renewed lease should keep its id", lease.getId(), renewed.getId());
+		Assert.assertFalse("Old lease should be stale", pool.releaseLease(lease));
+		Assert.assertTrue("Renewed lease should be released", pool.releaseLease(renewed));
+	}
+
+	@Test
+	public void testLeaseExpiryCancelledOnReleaseAndRenew() {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		TaskTimer timer = TaskMasterPoolUtil.getTimer();
+		long before = timer.getPendingCount();
+		PermitLease lease = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		Assert.assertTrue("Lease expiry should be pending", timer.getPendingCount() > before);
+		PermitLease renewed = pool.renewLease(lease, 2, TimeUnit.MINUTES);
+		Assert.assertTrue("Only the renewed lease expiry should be pending", timer.getPendingCount() <= before + 1);
+		Assert.assertTrue("Renewed lease should be released", pool.releaseLease(renewed));
+		Assert.assertTrue("Lease expiry should be cancelled on release", timer.getPendingCount() <= before);
+	}
+
+	@Test
+	public void testLeaseKeptOnSerialize() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		PermitLease lease = pool.tryAcquireLease(1, TimeUnit.MINUTES);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(pool);
+			out.writeObject(lease);
+		}
+		LogicalThreadPool copy;
+		PermitLease copyLease;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (LogicalThreadPool) in.readObject();
+			copyLease = (PermitLease) in.readObject();
+		}
+		Assert.assertEquals("Lease should be outstanding in the copy", 1, copy.getOutstandingLeases());
+		Assert.assertTrue("Lease should be released in the copy", copy.releaseLease(copyLease));
+		Assert.assertEquals("Thread should be released in the copy", 0, copy.getCurrent());
+	}
+
+	@Test
+	public void testLeaseExpiredReclaimedAfterSerialize() throws Exception {
+		LogicalThreadPool pool = new LogicalThreadPool("foo", 1, true);
+		pool.tryAcquireLease(50, TimeUnit.MILLISECONDS);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(pool);
+		}
+		LogicalThreadPool copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (LogicalThreadPool) in.readObject();
+		}
+		Thread.sleep(80);
+		// The copy has no expiry timer so the lease is reclaimed when a thread is needed
+		Assert.assertTrue("Expired lease should be reclaimed in the copy", copy.getAccess());
+		Assert.assertEquals("No leases should be outstanding in the copy", 0, copy.getOutstandingLeases());
+	}
+
 }
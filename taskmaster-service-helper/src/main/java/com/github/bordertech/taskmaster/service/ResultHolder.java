@@ -42,4 +42,13 @@ public interface ResultHolder<M extends Serializable, T extends Serializable> ex
 	 */
 	boolean isResult();
 
+	/**
+	 * A stale result has been served from the cache past its soft TTL while a refresh runs in the background.
+	 *
+	 * @return true if the result is stale
+	 */
+	default boolean isStale() {
+		return false;
+	}
+
 }
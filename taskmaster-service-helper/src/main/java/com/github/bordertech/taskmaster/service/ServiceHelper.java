@@ -2,6 +2,7 @@ package com.github.bordertech.taskmaster.service;
 
 import com.github.bordertech.didums.Didums;
 import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.logical.LogicalThreadPoolController;
 import com.github.bordertech.taskmaster.service.exception.RejectedServiceException;
 import com.github.bordertech.taskmaster.service.exception.ServiceException;
 import com.github.bordertech.taskmaster.service.impl.ServiceHelperProviderDefault;
@@ -63,6 +64,29 @@ public final class ServiceHelper {
 		return PROVIDER.submitAsync(criteria, action, pool);
 	}
 
+	/**
+	 * Submit an async service call with a thread pool and a thread acquired from the logical thread pool controller.
+	 * <p>
+	 * The controller thread is released once the service action returns, or straight away if the task is rejected or
+	 * cancelled before it starts.
+	 * </p>
+	 *
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param pool the thread pool or null for default pool
+	 * @param controller the logical thread pool controller
+	 * @param <S> the criteria type
+	 * @param <T> the service response
+	 * @return the task future to check the async process status
+	 * @throws ServiceException exception processing the service call
+	 * @throws RejectedServiceException if no logical thread is available or the task cannot be scheduled for execution
+	 */
+	public static <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(
+			final S criteria, final ServiceAction<S, T> action, final String pool, final LogicalThreadPoolController controller)
+			throws ServiceException, RejectedServiceException {
+		return PROVIDER.submitAsync(criteria, action, pool, controller);
+	}
+
 	/**
 	 * Submit an async service call that uses a cache.
 	 * <p>
@@ -151,6 +175,32 @@ public final class ServiceHelper {
 		return PROVIDER.submitAsync(criteria, action, pool, cache, cacheKey, cacheException);
 	}
 
+	/**
+	 * Submit an async service call that uses a cache and a thread acquired from the logical thread pool controller.
+	 * <p>
+	 * A controller thread is only acquired if the service call is submitted (ie not already cached or in progress).
+	 * </p>
+	 *
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param cache the result holder cache
+	 * @param cacheKey the key for the result holder
+	 * @param pool the thread pool, or null for default pool
+	 * @param cacheException true if cache exception
+	 * @param controller the logical thread pool controller
+	 * @param <S> the criteria type
+	 * @param <T> the service response
+	 * @return the result or null if still processing
+	 * @throws ServiceException exception processing the service call
+	 * @throws RejectedServiceException if no logical thread is available or the task cannot be scheduled for execution
+	 */
+	public static <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(
+			final S criteria, final ServiceAction<S, T> action, final Cache<String, ResultHolder> cache, final String cacheKey,
+			final String pool, final boolean cacheException, final LogicalThreadPoolController controller)
+			throws ServiceException, RejectedServiceException {
+		return PROVIDER.submitAsync(criteria, action, pool, cache, cacheKey, cacheException, controller);
+	}
+
 	/**
 	 * Invoke a sync service call.
 	 *
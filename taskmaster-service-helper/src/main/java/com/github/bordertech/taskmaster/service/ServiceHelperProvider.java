@@ -1,6 +1,7 @@
 package com.github.bordertech.taskmaster.service;
 
 import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.logical.LogicalThreadPoolController;
 import com.github.bordertech.taskmaster.service.exception.RejectedServiceException;
 import com.github.bordertech.taskmaster.service.exception.ServiceException;
 import java.io.Serializable;
@@ -26,8 +27,33 @@ public interface ServiceHelperProvider {
 	<S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(S criteria, ServiceAction<S, T> action, String pool)
 			throws ServiceException, RejectedServiceException;
 
+	/**
+	 * Submit an async service call with a thread pool and a thread acquired from the logical thread pool controller.
+	 * <p>
+	 * The controller thread is acquired before the task is submitted and released once the service action returns, or
+	 * straight away if the task is rejected or cancelled before it starts. A task that times out or is cancelled while
+	 * running holds the thread until the action returns.
+	 * </p>
+	 *
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param pool the thread pool or null for default pool
+	 * @param controller the logical thread pool controller
+	 * @param <S> the criteria type
+	 * @param <T> the service response
+	 * @return the task future to check the async process status
+	 * @throws ServiceException exception processing the service call
+	 * @throws RejectedServiceException if no logical thread is available or the task cannot be scheduled for execution
+	 */
+	<S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(S criteria, ServiceAction<S, T> action, String pool,
+			LogicalThreadPoolController controller) throws ServiceException, RejectedServiceException;
+
 	/**
 	 * Submit an async service call that uses a cache.
+	 * <p>
+	 * Concurrent calls for the same cache and key share one service call. The service call is only cancelled once every
+	 * caller has cancelled its future.
+	 * </p>
 	 *
 	 * @param criteria the criteria
 	 * @param action the service action
@@ -44,6 +70,29 @@ public interface ServiceHelperProvider {
 	<S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(S criteria, ServiceAction<S, T> action, String pool,
 			Cache<String, ResultHolder> cache, String cacheKey, boolean cacheException) throws ServiceException, RejectedServiceException;
 
+	/**
+	 * Submit an async service call that uses a cache and a thread acquired from the logical thread pool controller.
+	 * <p>
+	 * A controller thread is only acquired if the service call is submitted (ie not already cached or in progress).
+	 * </p>
+	 *
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param pool the thread pool or null for default pool
+	 * @param cache the result holder cache
+	 * @param cacheKey the key for the result holder
+	 * @param cacheException true if cache exception
+	 * @param controller the logical thread pool controller
+	 * @param <S> the criteria type
+	 * @param <T> the service response
+	 * @return the result or null if still processing
+	 * @throws ServiceException exception processing the service call
+	 * @throws RejectedServiceException if no logical thread is available or the task cannot be scheduled for execution
+	 */
+	<S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(S criteria, ServiceAction<S, T> action, String pool,
+			Cache<String, ResultHolder> cache, String cacheKey, boolean cacheException, LogicalThreadPoolController controller)
+			throws ServiceException, RejectedServiceException;
+
 	/**
 	 * Invoke a sync service call.
 	 *
@@ -58,6 +107,9 @@ public interface ServiceHelperProvider {
 
 	/**
 	 * Invoke a sync service call that is cached with option of caching the exception.
+	 * <p>
+	 * Concurrent calls for the same cache and key share one service call and wait for its result.
+	 * </p>
 	 *
 	 * @param criteria the criteria
 	 * @param action the service action
@@ -0,0 +1,23 @@
+package com.github.bordertech.taskmaster.service.exception;
+
+/**
+ * The service action did not complete within the timeout of its thread pool.
+ */
+public class ServiceTimeoutException extends ServiceException {
+
+	/**
+	 * @param message the exception message
+	 */
+	public ServiceTimeoutException(final String message) {
+		super(message);
+	}
+
+	/**
+	 * @param message the exception message
+	 * @param original the original exception
+	 */
+	public ServiceTimeoutException(final String message, final Throwable original) {
+		super(message, original);
+	}
+
+}
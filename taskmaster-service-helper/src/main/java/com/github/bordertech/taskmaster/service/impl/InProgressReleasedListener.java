@@ -0,0 +1,35 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import java.io.Serializable;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+
+/**
+ * Wakes the {@link TaskFutureInProgress} callers waiting on a service call once its entry has been removed from the in
+ * progress cache, so they can check if it finished with a cached result, failed or was abandoned.
+ */
+public class InProgressReleasedListener implements CacheEntryRemovedListener<String, Long>, CacheEntryExpiredListener<String, Long>,
+		Serializable {
+
+	@Override
+	public void onRemoved(final Iterable<CacheEntryEvent<? extends String, ? extends Long>> events) throws CacheEntryListenerException {
+		handleEvents(events);
+	}
+
+	@Override
+	public void onExpired(final Iterable<CacheEntryEvent<? extends String, ? extends Long>> events) throws CacheEntryListenerException {
+		handleEvents(events);
+	}
+
+	/**
+	 * @param events the removed or expired events
+	 */
+	protected void handleEvents(final Iterable<CacheEntryEvent<? extends String, ? extends Long>> events) {
+		for (CacheEntryEvent<? extends String, ? extends Long> event : events) {
+			TaskFutureInProgress.inProgressReleased(event.getKey());
+		}
+	}
+
+}
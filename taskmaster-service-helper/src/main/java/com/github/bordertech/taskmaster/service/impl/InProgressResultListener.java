@@ -0,0 +1,35 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import java.io.Serializable;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryUpdatedListener;
+
+/**
+ * Wakes the {@link TaskFutureInProgress} callers waiting for a result once it has been put in the result holder cache.
+ */
+public class InProgressResultListener implements CacheEntryCreatedListener<String, ResultHolder>, CacheEntryUpdatedListener<String, ResultHolder>,
+		Serializable {
+
+	@Override
+	public void onCreated(final Iterable<CacheEntryEvent<? extends String, ? extends ResultHolder>> events) throws CacheEntryListenerException {
+		handleEvents(events);
+	}
+
+	@Override
+	public void onUpdated(final Iterable<CacheEntryEvent<? extends String, ? extends ResultHolder>> events) throws CacheEntryListenerException {
+		handleEvents(events);
+	}
+
+	/**
+	 * @param events the created or updated events
+	 */
+	protected void handleEvents(final Iterable<CacheEntryEvent<? extends String, ? extends ResultHolder>> events) {
+		for (CacheEntryEvent<? extends String, ? extends ResultHolder> event : events) {
+			TaskFutureInProgress.resultAvailable(event.getSource().getName(), event.getKey(), event.getValue());
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+import javax.cache.Cache;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.Factory;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * How the results in a result holder cache expire and are refreshed.
+ * <p>
+ * Results are held with the time they were cached, how long the service call took and a logical expiry. The logical
+ * expiry is the duration of the cache (the hard TTL) less a random jitter, so results cached together do not all expire
+ * together.
+ * </p>
+ * <p>
+ * Results older than the soft TTL are served stale while they are refreshed. Fresh results are refreshed early with a
+ * probability that grows as they near expiry (XFetch), weighted by how long the service call took. A hit triggers an
+ * early refresh if {@code now - duration * beta * ln(random) >= expiry}, so a beta of 1 is the usual setting and larger
+ * values refresh earlier.
+ * </p>
+ */
+public final class ResultCachePolicy {
+
+	private static final Log LOGGER = LogFactory.getLog(ResultCachePolicy.class);
+
+	private final long ttl;
+	private final long softTtl;
+	private final double jitter;
+	private final double beta;
+	private final DoubleSupplier random;
+
+	/**
+	 * @param ttl the hard TTL in milliseconds or 0 if results do not expire
+	 * @param softTtl the soft TTL in milliseconds or 0 if stale results are not served
+	 * @param jitter the fraction (0 to 1) of the hard TTL that can be taken off the logical expiry
+	 * @param beta the early refresh weighting or 0 if results are not refreshed early
+	 */
+	public ResultCachePolicy(final long ttl, final long softTtl, final double jitter, final double beta) {
+		this(ttl, softTtl, jitter, beta, () -> ThreadLocalRandom.current().nextDouble());
+	}
+
+	/**
+	 * @param ttl the hard TTL in milliseconds or 0 if results do not expire
+	 * @param softTtl the soft TTL in milliseconds or 0 if stale results are not served
+	 * @param jitter the fraction (0 to 1) of the hard TTL that can be taken off the logical expiry
+	 * @param beta the early refresh weighting or 0 if results are not refreshed early
+	 * @param random the source of random numbers in [0, 1) for the jitter and early refresh
+	 */
+	ResultCachePolicy(final long ttl, final long softTtl, final double jitter, final double beta, final DoubleSupplier random) {
+		this.ttl = Math.max(0, ttl);
+		this.softTtl = Math.max(0, softTtl);
+		this.jitter = Math.min(1, Math.max(0, jitter));
+		this.beta = Math.max(0, beta);
+		this.random = random;
+	}
+
+	/**
+	 * Build the policy of a cache from its expiry policy and the service helper properties.
+	 *
+	 * @param cache the result holder cache
+	 * @return the policy of the cache
+	 */
+	public static ResultCachePolicy of(final Cache<String, ResultHolder> cache) {
+		String name = cache.getName();
+		return new ResultCachePolicy(getCacheTtl(cache), ServiceHelperProperties.getCacheSoftTtl(name),
+				ServiceHelperProperties.getCacheJitter(name), ServiceHelperProperties.getCacheEarlyRefreshBeta(name));
+	}
+
+	/**
+	 * @return the hard TTL in milliseconds or 0 if results do not expire
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * @return the soft TTL in milliseconds or 0 if stale results are not served
+	 */
+	public long getSoftTtl() {
+		return softTtl;
+	}
+
+	/**
+	 * @return the fraction of the hard TTL that can be taken off the logical expiry
+	 */
+	public double getJitter() {
+		return jitter;
+	}
+
+	/**
+	 * @return the early refresh weighting or 0 if results are not refreshed early
+	 */
+	public double getBeta() {
+		return beta;
+	}
+
+	/**
+	 * @return true if results need to be held with the time they were cached
+	 */
+	public boolean isTimed() {
+		return softTtl > 0 || (ttl > 0 && (jitter > 0 || beta > 0));
+	}
+
+	/**
+	 * @param now the current time in epoch milliseconds
+	 * @return the logical expiry (epoch milliseconds) of a result cached now, or 0 if it does not expire
+	 */
+	public long nextExpiry(final long now) {
+		if (ttl == 0) {
+			return 0;
+		}
+		long offset = jitter == 0 ? 0 : (long) (ttl * jitter * random.getAsDouble());
+		return now + ttl - offset;
+	}
+
+	/**
+	 * @param holder the cached result
+	 * @param now the current time in epoch milliseconds
+	 * @return true if past its logical expiry
+	 */
+	public boolean isExpired(final ResultHolderCached holder, final long now) {
+		return holder.getExpiresAt() > 0 && now >= holder.getExpiresAt();
+	}
+
+	/**
+	 * @param holder the cached result
+	 * @param now the current time in epoch milliseconds
+	 * @return true if past the soft TTL
+	 */
+	public boolean isStale(final ResultHolderCached holder, final long now) {
+		return softTtl > 0 && holder.getAge(now) >= softTtl;
+	}
+
+	/**
+	 * @param holder the cached result
+	 * @param now the current time in epoch milliseconds
+	 * @return true if the result should be refreshed early
+	 */
+	public boolean isEarlyRefresh(final ResultHolderCached holder, final long now) {
+		if (beta == 0 || holder.getExpiresAt() == 0) {
+			return false;
+		}
+		// Use (0, 1] so the log is never infinite
+		double sample = 1 - random.getAsDouble();
+		double gap = Math.max(1, holder.getDuration()) * beta * -Math.log(sample);
+		return now + gap >= holder.getExpiresAt();
+	}
+
+	/**
+	 * @param cache the result holder cache
+	 * @return the creation duration of the cache in milliseconds or 0 if eternal or not known
+	 */
+	private static long getCacheTtl(final Cache<String, ResultHolder> cache) {
+		try {
+			CompleteConfiguration<?, ?> config = cache.getConfiguration(CompleteConfiguration.class);
+			Factory<ExpiryPolicy> factory = config.getExpiryPolicyFactory();
+			Duration duration = factory == null ? null : factory.create().getExpiryForCreation();
+			if (duration == null || duration.isEternal() || duration.getTimeUnit() == null) {
+				return 0;
+			}
+			return duration.getTimeUnit().toMillis(duration.getDurationAmount());
+		} catch (RuntimeException e) {
+			LOGGER.debug("Could not read the duration of cache [" + cache.getName() + "]. " + e.getMessage());
+			return 0;
+		}
+	}
+
+}
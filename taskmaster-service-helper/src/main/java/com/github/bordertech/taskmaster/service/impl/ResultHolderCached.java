@@ -0,0 +1,124 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import java.io.Serializable;
+
+/**
+ * Result holder put in a cache with the time it was cached, how long the service call took and when it expires, so it
+ * can be served stale or refreshed early by the {@link ResultCachePolicy} of the cache.
+ *
+ * @param <M> the meta type
+ * @param <T> the result type
+ */
+public final class ResultHolderCached<M extends Serializable, T extends Serializable> implements ResultHolder<M, T> {
+
+	private final ResultHolder<M, T> holder;
+	private final long cachedAt;
+	private final long duration;
+	private final long expiresAt;
+	private final boolean stale;
+
+	/**
+	 * @param holder the result holder of the service call
+	 * @param cachedAt the time (epoch milliseconds) the result was cached
+	 */
+	public ResultHolderCached(final ResultHolder<M, T> holder, final long cachedAt) {
+		this(holder, cachedAt, 0, 0, false);
+	}
+
+	/**
+	 * @param holder the result holder of the service call
+	 * @param cachedAt the time (epoch milliseconds) the result was cached
+	 * @param duration the milliseconds the service call took
+	 * @param expiresAt the logical expiry (epoch milliseconds) or 0 if it does not expire
+	 */
+	public ResultHolderCached(final ResultHolder<M, T> holder, final long cachedAt, final long duration, final long expiresAt) {
+		this(holder, cachedAt, duration, expiresAt, false);
+	}
+
+	/**
+	 * @param holder the result holder of the service call
+	 * @param cachedAt the time (epoch milliseconds) the result was cached
+	 * @param duration the milliseconds the service call took
+	 * @param expiresAt the logical expiry (epoch milliseconds) or 0 if it does not expire
+	 * @param stale true if served stale
+	 */
+	private ResultHolderCached(final ResultHolder<M, T> holder, final long cachedAt, final long duration, final long expiresAt,
+			final boolean stale) {
+		if (holder == null) {
+			throw new IllegalArgumentException("A result holder must be provided.");
+		}
+		this.holder = holder;
+		this.cachedAt = cachedAt;
+		this.duration = duration;
+		this.expiresAt = expiresAt;
+		this.stale = stale;
+	}
+
+	/**
+	 * @return the time (epoch milliseconds) the result was cached
+	 */
+	public long getCachedAt() {
+		return cachedAt;
+	}
+
+	/**
+	 * @return the milliseconds the service call took
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return the logical expiry (epoch milliseconds) or 0 if it does not expire
+	 */
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @param now the current time in epoch milliseconds
+	 * @return the milliseconds since the result was cached
+	 */
+	public long getAge(final long now) {
+		return now - cachedAt;
+	}
+
+	/**
+	 * @return a copy of this result holder marked as stale
+	 */
+	public ResultHolderCached<M, T> asStale() {
+		return stale ? this : new ResultHolderCached<>(holder, cachedAt, duration, expiresAt, true);
+	}
+
+	@Override
+	public M getMetaData() {
+		return holder.getMetaData();
+	}
+
+	@Override
+	public T getResult() {
+		return holder.getResult();
+	}
+
+	@Override
+	public Exception getException() {
+		return holder.getException();
+	}
+
+	@Override
+	public boolean isException() {
+		return holder.isException();
+	}
+
+	@Override
+	public boolean isResult() {
+		return holder.isResult();
+	}
+
+	@Override
+	public boolean isStale() {
+		return stale;
+	}
+
+}
@@ -1,19 +1,38 @@
 package com.github.bordertech.taskmaster.service.impl;
 
+import com.github.bordertech.taskmaster.AbortableTask;
+import com.github.bordertech.taskmaster.logical.LogicalThreadPoolController;
 import com.github.bordertech.taskmaster.service.ServiceAction;
+import com.github.bordertech.taskmaster.service.exception.ServiceTimeoutException;
+import com.github.bordertech.taskmaster.service.util.ExceptionUtil;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Runnable that processes the service action.
+ * <p>
+ * If the action runs past the timeout of its pool, the result holds a {@link ServiceTimeoutException} and the outcome
+ * of the action, once it returns, is ignored.
+ * </p>
+ * <p>
+ * If a {@link LogicalThreadPoolController} has been set, its thread is released exactly once when the action
+ * finishes, or when the task is aborted or its future completes before the action started. Once the action has
+ * started the thread is held until the action returns, even if the future has already timed out or been cancelled.
+ * </p>
  *
  * @param <S> the criteria type
  * @param <T> the service response
  */
-public class ServiceActionRunnable<S extends Serializable, T extends Serializable> implements Runnable {
+public class ServiceActionRunnable<S extends Serializable, T extends Serializable> implements AbortableTask {
 
 	private final S criteria;
 	private final ServiceAction<S, T> action;
 	private final ResultHolderMutable<S, T> result;
+	private final AtomicBoolean started = new AtomicBoolean();
+	private final Object resultLock = new Object();
+	private boolean finished;
+	private final AtomicReference<LogicalThreadPoolController> controller = new AtomicReference<>();
 
 	/**
 	 * @param criteria the service criteria
@@ -29,11 +48,106 @@ public class ServiceActionRunnable<S extends Serializable, T extends Serializabl
 	@Override
 	public void run() {
 		try {
-			T resp = getAction().service(getCriteria());
-			result.setResult(resp);
+			doRun();
+		} finally {
+			releaseController();
+		}
+	}
+
+	/**
+	 * Set the controller whose thread has been acquired for this task. Must be set before the task is submitted.
+	 *
+	 * @param controller the logical thread pool controller to release
+	 */
+	public void setController(final LogicalThreadPoolController controller) {
+		this.controller.set(controller);
+	}
+
+	/**
+	 * Release the thread of the controller. Only the first call releases the thread.
+	 */
+	public void releaseController() {
+		LogicalThreadPoolController current = controller.getAndSet(null);
+		if (current != null) {
+			current.releaseThread();
+		}
+	}
+
+	/**
+	 * Release the thread of the controller if the action has not started, eg the future was cancelled before the task
+	 * ran. The action will then not be run.
+	 *
+	 * @return true if the action had not started and the thread was released
+	 */
+	public boolean releaseIfNotStarted() {
+		if (!started.compareAndSet(false, true)) {
+			// Released once the action returns
+			return false;
+		}
+		releaseController();
+		return true;
+	}
+
+	/**
+	 * Run the service action unless the task has been aborted.
+	 */
+	protected void doRun() {
+		if (!started.compareAndSet(false, true)) {
+			// Already aborted
+			return;
+		}
+		T resp = null;
+		Exception excp = null;
+		try {
+			resp = getAction().service(getCriteria());
 		} catch (Exception e) {
-			result.setException(e);
+			excp = e;
+		}
+		synchronized (resultLock) {
+			if (finished) {
+				// Timed out so the result already holds the timeout
+				return;
+			}
+			finished = true;
+			if (excp == null) {
+				result.setResult(resp);
+			} else {
+				result.setException(excp);
+			}
+		}
+	}
+
+	/**
+	 * Hold a RejectedServiceException in the result as TaskMaster will not run the task.
+	 *
+	 * @param reason the reason the task will not run
+	 * @return true if the task was aborted, false if it has already started
+	 */
+	@Override
+	public boolean abort(final Throwable reason) {
+		if (!started.compareAndSet(false, true)) {
+			return false;
+		}
+		result.setException(ExceptionUtil.getRejectedServiceException("Service action was not run. " + reason.getMessage(), reason));
+		releaseController();
+		return true;
+	}
+
+	/**
+	 * Hold a ServiceTimeoutException in the result as the action has run past its timeout.
+	 *
+	 * @param reason the timeout exception
+	 * @return true as the result holds either the timeout or the outcome of the action if it had already finished
+	 */
+	@Override
+	public boolean timeout(final Throwable reason) {
+		synchronized (resultLock) {
+			if (!finished) {
+				finished = true;
+				result.setException(new ServiceTimeoutException("Service action timed out. " + reason.getMessage(), reason));
+			}
 		}
+		return true;
 	}
 
 	/**
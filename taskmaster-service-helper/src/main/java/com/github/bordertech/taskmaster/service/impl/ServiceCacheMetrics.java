@@ -0,0 +1,135 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the service calls made to fill and refresh the result holder caches.
+ * <p>
+ * Besides the totals, the service calls of the last minute are counted per second so it can be seen how the refresh
+ * load is spread over time. With jitter and early refresh the calls should be spread out rather than arriving in bursts
+ * when results cached together expire together.
+ * </p>
+ */
+public final class ServiceCacheMetrics {
+
+	/**
+	 * Number of seconds counted.
+	 */
+	public static final int WINDOW_SECONDS = 60;
+
+	private static final AtomicLong MISSES = new AtomicLong();
+	private static final AtomicLong STALE_REFRESHES = new AtomicLong();
+	private static final AtomicLong EARLY_REFRESHES = new AtomicLong();
+	private static final AtomicLong EARLY_REFRESH_LEAD = new AtomicLong();
+	private static final AtomicLongArray SLOT_SECONDS = new AtomicLongArray(WINDOW_SECONDS);
+	private static final AtomicLongArray SLOT_CALLS = new AtomicLongArray(WINDOW_SECONDS);
+
+	/**
+	 * Private constructor for static class.
+	 */
+	private ServiceCacheMetrics() {
+	}
+
+	/**
+	 * @return the number of service calls made because the result was not in the cache or had expired
+	 */
+	public static long getMissCount() {
+		return MISSES.get();
+	}
+
+	/**
+	 * @return the number of refreshes of results served stale
+	 */
+	public static long getStaleRefreshCount() {
+		return STALE_REFRESHES.get();
+	}
+
+	/**
+	 * @return the number of refreshes of results before they expired
+	 */
+	public static long getEarlyRefreshCount() {
+		return EARLY_REFRESHES.get();
+	}
+
+	/**
+	 * @return the average milliseconds before expiry that results were refreshed early
+	 */
+	public static long getAverageEarlyRefreshLead() {
+		long count = EARLY_REFRESHES.get();
+		return count == 0 ? 0 : EARLY_REFRESH_LEAD.get() / count;
+	}
+
+	/**
+	 * @return the service calls made for the caches in each of the last {@link #WINDOW_SECONDS} seconds, oldest first
+	 */
+	public static long[] getCallsPerSecond() {
+		return getCallsPerSecond(currentSecond());
+	}
+
+	/**
+	 * @param now the current epoch second
+	 * @return the service calls made for the caches in each of the {@link #WINDOW_SECONDS} seconds up to now, oldest
+	 * first
+	 */
+	static long[] getCallsPerSecond(final long now) {
+		long[] calls = new long[WINDOW_SECONDS];
+		for (int i = 0; i < WINDOW_SECONDS; i++) {
+			long second = now - WINDOW_SECONDS + 1 + i;
+			int slot = (int) (second % WINDOW_SECONDS);
+			calls[i] = SLOT_SECONDS.get(slot) == second ? SLOT_CALLS.get(slot) : 0;
+		}
+		return calls;
+	}
+
+	/**
+	 * Record a service call made because the result was not in the cache or had expired.
+	 */
+	static void recordMiss() {
+		MISSES.incrementAndGet();
+		recordCall(currentSecond());
+	}
+
+	/**
+	 * Record a refresh of a result served stale.
+	 */
+	static void recordStaleRefresh() {
+		STALE_REFRESHES.incrementAndGet();
+		recordCall(currentSecond());
+	}
+
+	/**
+	 * Record a refresh of a result before it expired.
+	 *
+	 * @param lead the milliseconds before expiry
+	 */
+	static void recordEarlyRefresh(final long lead) {
+		EARLY_REFRESHES.incrementAndGet();
+		EARLY_REFRESH_LEAD.addAndGet(Math.max(0, lead));
+		recordCall(currentSecond());
+	}
+
+	/**
+	 * Count a service call in the slot of a second. The slot is reset the first time it is used in a new second, so
+	 * counts are approximate if calls race the reset.
+	 *
+	 * @param second the epoch second of the call
+	 */
+	static void recordCall(final long second) {
+		int slot = (int) (second % WINDOW_SECONDS);
+		long current = SLOT_SECONDS.get(slot);
+		if (current != second && SLOT_SECONDS.compareAndSet(slot, current, second)) {
+			SLOT_CALLS.set(slot, 0);
+		}
+		SLOT_CALLS.incrementAndGet(slot);
+	}
+
+	/**
+	 * @return the current epoch second
+	 */
+	private static long currentSecond() {
+		return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+	}
+
+}
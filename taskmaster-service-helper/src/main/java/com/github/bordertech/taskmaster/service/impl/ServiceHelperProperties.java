@@ -54,6 +54,60 @@ public final class ServiceHelperProperties {
 		return get().getBoolean("bordertech.taskmaster.service.inprogress.enabled", false);
 	}
 
+	/**
+	 * A service call in progress renews its entry in the in progress cache at half the lease. Callers waiting in other
+	 * JVMs treat the call as abandoned once its lease has expired.
+	 *
+	 * @return the in progress lease in milliseconds
+	 */
+	public static long getInProgressLease() {
+		return get().getLong("bordertech.taskmaster.service.inprogress.lease", 30000L);
+	}
+
+	/**
+	 * Results older than the soft TTL are served stale while a single refresh runs in the background. Results are only
+	 * removed once they reach the hard TTL, which is the duration of the cache.
+	 *
+	 * @param cacheName the result holder cache name
+	 * @return the soft TTL in milliseconds or 0 if stale results are not served
+	 */
+	public static long getCacheSoftTtl(final String cacheName) {
+		return get().getLong("bordertech.taskmaster.service.cache." + cacheName + ".soft.ttl", 0L);
+	}
+
+	/**
+	 * Random fraction of the hard TTL taken off the expiry of each result so results cached together do not expire
+	 * together.
+	 *
+	 * @param cacheName the result holder cache name
+	 * @return the TTL jitter between 0 and 1
+	 */
+	public static double getCacheJitter(final String cacheName) {
+		return get().getDouble("bordertech.taskmaster.service.cache." + cacheName + ".jitter",
+				get().getDouble("bordertech.taskmaster.service.cache.jitter", 0));
+	}
+
+	/**
+	 * Weighting of the probabilistic early refresh of results nearing expiry. A value of 1 is the usual setting and
+	 * larger values refresh earlier.
+	 *
+	 * @param cacheName the result holder cache name
+	 * @return the early refresh beta or 0 if results are not refreshed early
+	 */
+	public static double getCacheEarlyRefreshBeta(final String cacheName) {
+		return get().getDouble("bordertech.taskmaster.service.cache." + cacheName + ".early.refresh.beta",
+				get().getDouble("bordertech.taskmaster.service.cache.early.refresh.beta", 0));
+	}
+
+	/**
+	 * @param cacheName the result holder cache name
+	 * @return the thread pool to refresh stale and early refresh results of the cache or null for the default pool
+	 */
+	public static String getCacheRefreshPool(final String cacheName) {
+		return get().getString("bordertech.taskmaster.service.cache." + cacheName + ".refresh.pool",
+				get().getString("bordertech.taskmaster.service.refresh.pool"));
+	}
+
 	/**
 	 * Shorthand convenience method to get the Configuration instance.
 	 *
@@ -1,18 +1,28 @@
 package com.github.bordertech.taskmaster.service.impl;
 
+import com.github.bordertech.taskmaster.TaskCompletionStage;
 import com.github.bordertech.taskmaster.TaskFuture;
 import com.github.bordertech.taskmaster.TaskMaster;
-import com.github.bordertech.taskmaster.cache.CachingHelper;
 import com.github.bordertech.taskmaster.exception.RejectedTaskException;
 import com.github.bordertech.taskmaster.impl.TaskFutureResult;
+import com.github.bordertech.taskmaster.impl.TaskMasterPoolUtil;
+import com.github.bordertech.taskmaster.logical.LogicalThreadPoolController;
 import com.github.bordertech.taskmaster.service.ResultHolder;
 import com.github.bordertech.taskmaster.service.ServiceAction;
 import com.github.bordertech.taskmaster.service.ServiceHelperProvider;
 import com.github.bordertech.taskmaster.service.exception.RejectedServiceException;
 import com.github.bordertech.taskmaster.service.exception.ServiceException;
+import com.github.bordertech.taskmaster.service.exception.ServiceTimeoutException;
+import com.github.bordertech.taskmaster.service.util.ExceptionUtil;
+import com.github.bordertech.taskmaster.service.util.ServiceCacheUtil;
 import java.io.Serializable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.cache.Cache;
-import javax.cache.expiry.Duration;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -24,22 +34,28 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 	private static final Log LOGGER = LogFactory.getLog(ServiceHelperProviderDefault.class);
 
 	private static final boolean IN_PROGRESS_ENABLED = ServiceHelperProperties.isInProgressEnabled();
-	private static final Cache<String, Boolean> IN_PROGRESS_CACHE;
 
-	static {
-		if (IN_PROGRESS_ENABLED) {
-			String cacheName = ServiceHelperProperties.INPROGRESS_CACHE_NAME;
-			Duration defaultDuration = ServiceHelperProperties.getInProgressCacheDuration();
-			IN_PROGRESS_CACHE = CachingHelper.getOrCreateCache(cacheName, String.class, Boolean.class, defaultDuration);
-		} else {
-			IN_PROGRESS_CACHE = null;
-		}
-	}
+	/**
+	 * Cached service calls in flight in this JVM by in progress key.
+	 */
+	private static final ConcurrentMap<String, SharedServiceCall> IN_FLIGHT = new ConcurrentHashMap<>();
+
+	/**
+	 * Expiry and refresh policy by result holder cache name.
+	 */
+	private static final ConcurrentMap<String, ResultCachePolicy> CACHE_POLICIES = new ConcurrentHashMap<>();
 
 	@Override
 	public <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(
 			final S criteria, final ServiceAction<S, T> action, final String pool)
 			throws ServiceException, RejectedServiceException {
+		return submitAsync(criteria, action, pool, (LogicalThreadPoolController) null);
+	}
+
+	@Override
+	public <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(
+			final S criteria, final ServiceAction<S, T> action, final String pool, final LogicalThreadPoolController controller)
+			throws ServiceException, RejectedServiceException {
 
 		// Check action provided
 		if (action == null) {
@@ -50,10 +66,10 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 		final ResultHolderMutable<S, T> result = new ResultHolderMutable(criteria);
 
 		// Setup task to run service action
-		Runnable task = new ServiceActionRunnable(criteria, action, result);
+		ServiceActionRunnable<S, T> task = new ServiceActionRunnable(criteria, action, result);
 
 		// Submit task
-		return handleSubmitTask(task, result, pool);
+		return handleSubmitTask(task, result, pool, controller);
 	}
 
 	@Override
@@ -61,6 +77,14 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 			final S criteria, final ServiceAction<S, T> action, final String pool, final Cache<String, ResultHolder> cache, final String cacheKey,
 			final boolean cacheException)
 			throws ServiceException, RejectedServiceException {
+		return submitAsync(criteria, action, pool, cache, cacheKey, cacheException, null);
+	}
+
+	@Override
+	public <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> submitAsync(
+			final S criteria, final ServiceAction<S, T> action, final String pool, final Cache<String, ResultHolder> cache, final String cacheKey,
+			final boolean cacheException, final LogicalThreadPoolController controller)
+			throws ServiceException, RejectedServiceException {
 
 		// Check action provided
 		if (action == null) {
@@ -71,42 +95,73 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 		ResultHolder cached = checkCache(cache, cacheKey, cacheException);
 		if (cached != null) {
 			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Async service already in cache so Future will hold the result.");
-			return new TaskFutureResult<>(cached);
+			return new TaskFutureResult<>(checkRefresh(criteria, action, cache, cacheKey, cacheException, cached));
+		}
+
+		// Join the call if already in flight in this JVM
+		String key = getInProgressKey(cache, cacheKey);
+		TaskFutureShared<S, T> joined = joinCall(key);
+		if (joined != null) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Async service already in flight so Future will share its result.");
+			return joined;
 		}
 
-		// Check already in progress (if tracking enabled)
+		// Check already in progress in another JVM (if tracking enabled)
 		if (isInProgressEnabled() && checkInProgress(cache, cacheKey)) {
 			// Return a task future that checks the cache for the result
 			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Async service already in progress so Future will wait for result in cache.");
-			return new TaskFutureInProgress(cache, cacheKey);
+			return new TaskFutureInProgress(cache, cacheKey, key);
+		}
+
+		// Acquire the controller thread before the call is put in flight so its rejection is not handed to other waiters
+		if (controller != null) {
+			acquireController(controller);
+		}
+
+		// Start the call unless another caller has just started it
+		final SharedServiceCall<S, T> call = createCall(cache, cacheKey);
+		TaskFutureShared<S, T> future = call.join();
+		joined = startCall(call);
+		if (joined != null) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Async service already in flight so Future will share its result.");
+			releaseController(controller);
+			return joined;
+		}
+
+		// Check the cache again as a call may have finished since it was checked
+		cached = checkCache(cache, cacheKey, cacheException);
+		if (cached != null) {
+			releaseController(controller);
+			call.complete(cached);
+			return future;
 		}
 
 		LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Async service call will be submitted.");
+		ServiceCacheMetrics.recordMiss();
+
+		// Save in progress flag and keep renewing it while in flight (if tracking enabled)
+		if (isInProgressEnabled()) {
+			saveInProgress(cache, cacheKey);
+			scheduleInProgressRenewal(cache, cacheKey, call);
+		}
 
 		// Setup the bean to hold the service result
 		final ResultHolderMutable<S, T> result = new ResultHolderMutable(criteria);
 
-		// Setup task to run service action and save the result in the cache
-		Runnable task = new ServiceActionRunnable(criteria, action, result) {
-			@Override
-			public void run() {
-				super.run();
-				// Put result in the cache (unless is an exception and not caching exceptions)
-				if (result.isResult() || (result.isException() && cacheException)) {
-					cache.put(cacheKey, result);
-				}
-				// Clear in progress flag (if tracking enabled)
-				if (isInProgressEnabled()) {
-					clearInProgress(cache, cacheKey);
-				}
-			}
-		};
+		// Setup task to run service action, save the result in the cache and hand it to the waiters
+		ServiceActionRunnable<S, T> task = createCachedTask(criteria, action, result, cache, cacheKey, cacheException, call);
 
 		// Submit task
-		TaskFuture<ResultHolder<S, T>> future = handleSubmitTask(task, result, pool);
-		// Save in progress flag (if tracking enabled)
-		if (isInProgressEnabled()) {
-			saveInProgress(cache, cacheKey);
+		try {
+			if (controller == null) {
+				call.setFuture(handleSubmitTask(task, result, pool));
+			} else {
+				call.setFuture(handleSubmitControlledTask(task, result, pool, controller));
+			}
+		} catch (RejectedServiceException e) {
+			// Other waiters get the rejection of the thread pool in their result
+			call.complete(new ResultHolderDefault(criteria, e));
+			throw e;
 		}
 		return future;
 	}
@@ -138,15 +193,39 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 		ResultHolder cached = checkCache(cache, cacheKey, cacheException);
 		if (cached != null) {
 			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Cached service already in cache.");
-			return cached;
+			return checkRefresh(criteria, action, cache, cacheKey, cacheException, cached);
 		}
 
-		// Do service call
-		ResultHolder<S, T> result = invokeSync(criteria, action);
+		// Join the call if already in flight in this JVM, otherwise start it
+		SharedServiceCall<S, T> call = createCall(cache, cacheKey);
+		call.join();
+		TaskFutureShared<S, T> joined = startCall(call);
+		if (joined != null) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Sync service already in flight so will wait for its result.");
+			return waitForCall(criteria, joined);
+		}
 
-		// Put result in the cache (unless is an exception and not caching exceptions)
-		if (result.isResult() || (result.isException() && cacheException)) {
-			cache.put(cacheKey, result);
+		ResultHolder<S, T> result = null;
+		try {
+			// Check the cache again as a call may have finished since it was checked
+			result = checkCache(cache, cacheKey, cacheException);
+			if (result == null) {
+				// Save in progress flag so a waiter serialized while in flight can wait on the cache (if tracking enabled)
+				if (isInProgressEnabled()) {
+					saveInProgress(cache, cacheKey);
+					scheduleInProgressRenewal(cache, cacheKey, call);
+				}
+				// Do service call
+				ServiceCacheMetrics.recordMiss();
+				long start = System.currentTimeMillis();
+				result = invokeSync(criteria, action);
+				// Put result in the cache (unless is an exception and not caching exceptions)
+				if (result.isResult() || (result.isException() && cacheException)) {
+					cacheResult(cache, cacheKey, result, System.currentTimeMillis() - start);
+				}
+			}
+		} finally {
+			call.complete(result == null ? new ResultHolderDefault(criteria, new ServiceException("Service call in flight failed.")) : result);
 		}
 
 		return result;
@@ -180,12 +259,255 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 		try {
 			return TaskMaster.submit(task, result, pool);
 		} catch (RejectedTaskException e) {
-			throw new RejectedServiceException(e.getMessage(), e);
+			throw ExceptionUtil.getRejectedServiceException(e.getMessage(), e);
 		} catch (Exception e) {
 			throw new RejectedServiceException("Could not start a thread to process task action. " + e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Handle submitting the task to be run with a thread acquired from the logical thread pool controller.
+	 * <p>
+	 * The controller thread is released exactly once: when the action finishes, when the task is aborted, or when the
+	 * future completes before the action started (eg cancelled before it ran). If the future times out or is cancelled
+	 * while the action is running, the thread is held until the action returns.
+	 * </p>
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param task the task to submit for processing
+	 * @param result the result holder
+	 * @param pool the thread pool
+	 * @param controller the logical thread pool controller or null if not controlled
+	 * @return the task future
+	 * @throws RejectedServiceException if no logical thread is available or the task cannot be scheduled for execution
+	 */
+	protected <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> handleSubmitTask(
+			final ServiceActionRunnable<S, T> task, final ResultHolder result, final String pool, final LogicalThreadPoolController controller)
+			throws RejectedServiceException {
+		if (controller == null) {
+			return handleSubmitTask(task, result, pool);
+		}
+		acquireController(controller);
+		return handleSubmitControlledTask(task, result, pool, controller);
+	}
+
+	/**
+	 * Handle submitting the task to be run with a thread that has already been acquired from the logical thread pool
+	 * controller. The thread is released if the task cannot be submitted.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param task the task to submit for processing
+	 * @param result the result holder
+	 * @param pool the thread pool
+	 * @param controller the logical thread pool controller
+	 * @return the task future
+	 * @throws RejectedServiceException if the task cannot be scheduled for execution
+	 */
+	protected <S extends Serializable, T extends Serializable> TaskFuture<ResultHolder<S, T>> handleSubmitControlledTask(
+			final ServiceActionRunnable<S, T> task, final ResultHolder result, final String pool, final LogicalThreadPoolController controller)
+			throws RejectedServiceException {
+		task.setController(controller);
+		try {
+			TaskCompletionStage<ResultHolder<S, T>> future = TaskMaster.submitStage(task, (ResultHolder<S, T>) result, pool, pool);
+			// Release if the future completes before the action started
+			future.whenComplete((holder, excp) -> task.releaseIfNotStarted());
+			return future;
+		} catch (RejectedTaskException e) {
+			task.releaseController();
+			throw ExceptionUtil.getRejectedServiceException(e.getMessage(), e);
+		} catch (Exception e) {
+			task.releaseController();
+			throw new RejectedServiceException("Could not start a thread to process task action. " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Acquire a thread from the logical thread pool controller.
+	 *
+	 * @param controller the logical thread pool controller
+	 * @throws RejectedServiceException if no logical thread is available
+	 */
+	protected void acquireController(final LogicalThreadPoolController controller) throws RejectedServiceException {
+		if (!controller.acquireThread()) {
+			throw new RejectedServiceException("No thread available in the logical thread pool to process task action.");
+		}
+	}
+
+	/**
+	 * Release a thread acquired from the logical thread pool controller that is no longer needed.
+	 *
+	 * @param controller the logical thread pool controller or null if not controlled
+	 */
+	private void releaseController(final LogicalThreadPoolController controller) {
+		if (controller != null) {
+			controller.releaseThread();
+		}
+	}
+
+	/**
+	 * Create the task to run a cached service action. The task puts the result in the cache and hands it to the waiters
+	 * on the shared service call.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param result the result holder
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param cacheException true if cache exception
+	 * @param call the shared service call
+	 * @return the task
+	 */
+	protected <S extends Serializable, T extends Serializable> ServiceActionRunnable<S, T> createCachedTask(final S criteria,
+			final ServiceAction<S, T> action, final ResultHolderMutable<S, T> result, final Cache<String, ResultHolder> cache,
+			final String cacheKey, final boolean cacheException, final SharedServiceCall<S, T> call) {
+		return new ServiceActionRunnable<S, T>(criteria, action, result) {
+			@Override
+			public void run() {
+				long start = System.currentTimeMillis();
+				try {
+					super.run();
+					// Put result in the cache (unless is an exception and not caching exceptions). Timeouts are not cached.
+					if (result.isResult()
+							|| (result.isException() && cacheException && !(result.getException() instanceof ServiceTimeoutException))) {
+						cacheResult(cache, cacheKey, result, System.currentTimeMillis() - start);
+					}
+				} finally {
+					call.complete(result);
+				}
+			}
+
+			@Override
+			public boolean abort(final Throwable reason) {
+				boolean aborted = super.abort(reason);
+				// Rejection is not cached but the waiters need the result
+				if (aborted) {
+					call.complete(result);
+				}
+				return aborted;
+			}
+
+			@Override
+			public boolean timeout(final Throwable reason) {
+				boolean recorded = super.timeout(reason);
+				// The action may never return so hand the timeout to the waiters now
+				call.complete(result);
+				return recorded;
+			}
+		};
+	}
+
+	/**
+	 * Put the result of a service call in the cache. If the policy of the cache serves stale results, adds jitter or
+	 * refreshes early, the result is held with the time it was cached, how long the call took and its logical expiry.
+	 *
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param result the result holder
+	 * @param duration the milliseconds the service call took
+	 */
+	protected void cacheResult(final Cache<String, ResultHolder> cache, final String cacheKey, final ResultHolder result, final long duration) {
+		ResultCachePolicy policy = getCachePolicy(cache);
+		if (!policy.isTimed()) {
+			cache.put(cacheKey, result);
+			return;
+		}
+		long now = System.currentTimeMillis();
+		cache.put(cacheKey, new ResultHolderCached<>(result, now, duration, policy.nextExpiry(now)));
+	}
+
+	/**
+	 * Check if a cached result needs to be refreshed.
+	 * <p>
+	 * A result past the soft TTL of its cache is served marked as stale and a refresh is submitted in the background. A
+	 * fresh result nearing its expiry may be refreshed early in the background and is served as is. Only one refresh is
+	 * in flight for a key at a time.
+	 * </p>
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param cacheException true if cache exception
+	 * @param cached the cached result
+	 * @return the cached result, marked as stale if past the soft TTL
+	 */
+	protected <S extends Serializable, T extends Serializable> ResultHolder<S, T> checkRefresh(final S criteria, final ServiceAction<S, T> action,
+			final Cache<String, ResultHolder> cache, final String cacheKey, final boolean cacheException, final ResultHolder<S, T> cached) {
+		if (!(cached instanceof ResultHolderCached)) {
+			return cached;
+		}
+		ResultCachePolicy policy = getCachePolicy(cache);
+		ResultHolderCached<S, T> holder = (ResultHolderCached<S, T>) cached;
+		long now = System.currentTimeMillis();
+		if (policy.isStale(holder, now)) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Cached result is stale so will be refreshed in the background.");
+			if (submitRefresh(criteria, action, cache, cacheKey, cacheException)) {
+				ServiceCacheMetrics.recordStaleRefresh();
+			}
+			return holder.asStale();
+		}
+		if (policy.isEarlyRefresh(holder, now)) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Cached result is near expiry so will be refreshed early in the background.");
+			if (submitRefresh(criteria, action, cache, cacheKey, cacheException)) {
+				ServiceCacheMetrics.recordEarlyRefresh(holder.getExpiresAt() - now);
+			}
+		}
+		return cached;
+	}
+
+	/**
+	 * Submit a refresh of a cached result on the refresh pool of the cache. Callers that need a fresh result join the
+	 * refresh while it is in flight.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param criteria the criteria
+	 * @param action the service action
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param cacheException true if cache exception
+	 * @return true if the refresh was submitted, false if a call was already in flight or the refresh was rejected
+	 */
+	protected <S extends Serializable, T extends Serializable> boolean submitRefresh(final S criteria, final ServiceAction<S, T> action,
+			final Cache<String, ResultHolder> cache, final String cacheKey, final boolean cacheException) {
+		SharedServiceCall<S, T> call = createCall(cache, cacheKey);
+		// Held by the refresh itself so callers that join and then cancel do not cancel it
+		call.join();
+		if (IN_FLIGHT.putIfAbsent(call.getKey(), call) != null) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "Service call already in flight so no refresh needed.");
+			return false;
+		}
+		if (isInProgressEnabled()) {
+			saveInProgress(cache, cacheKey);
+			scheduleInProgressRenewal(cache, cacheKey, call);
+		}
+		ResultHolderMutable<S, T> result = new ResultHolderMutable(criteria);
+		ServiceActionRunnable<S, T> task = createCachedTask(criteria, action, result, cache, cacheKey, cacheException, call);
+		try {
+			call.setFuture(handleSubmitTask(task, result, ServiceHelperProperties.getCacheRefreshPool(cache.getName())));
+			return true;
+		} catch (RejectedServiceException e) {
+			// The cached result stays in the cache so the next caller tries again
+			LOGGER.warn(buildCacheMessagePrefix(cache, cacheKey) + "Refresh of cached result could not be submitted. " + e.getMessage());
+			call.complete(new ResultHolderDefault(criteria, e));
+			return false;
+		}
+	}
+
+	/**
+	 * @param cache the result holder cache
+	 * @return the expiry and refresh policy of the cache
+	 */
+	protected ResultCachePolicy getCachePolicy(final Cache<String, ResultHolder> cache) {
+		return CACHE_POLICIES.computeIfAbsent(cache.getName(), name -> ResultCachePolicy.of(cache));
+	}
+
 	/**
 	 * Check if service result is already in the cache.
 	 *
@@ -215,14 +537,115 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 			cache.remove(cacheKey);
 			cached = null;
 		}
+		// Check if past its jittered expiry (the service call will replace it)
+		if (cached instanceof ResultHolderCached && getCachePolicy(cache).isExpired((ResultHolderCached) cached, System.currentTimeMillis())) {
+			cached = null;
+		}
 		return cached;
 	}
 
 	/**
-	 * Flag if tracking in progress ASync cached service calls which helps avoid multiple calls for the same service call.
+	 * Create a cached service call that can be shared by callers asking for the same cache key.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @return the shared service call
+	 */
+	protected <S extends Serializable, T extends Serializable> SharedServiceCall<S, T> createCall(final Cache<String, ResultHolder> cache,
+			final String cacheKey) {
+		return new SharedServiceCall<>(getInProgressKey(cache, cacheKey), cache, cacheKey, call -> releaseCall(cache, cacheKey, call));
+	}
+
+	/**
+	 * Join the service call in flight in this JVM.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param key the in progress key
+	 * @return the future sharing the result of the call in flight, or null if no call in flight
+	 */
+	protected <S extends Serializable, T extends Serializable> TaskFutureShared<S, T> joinCall(final String key) {
+		SharedServiceCall<S, T> existing = IN_FLIGHT.get(key);
+		while (existing != null) {
+			TaskFutureShared<S, T> joined = existing.join();
+			if (joined != null) {
+				return joined;
+			}
+			// Every waiter has cancelled the call so it is being removed
+			IN_FLIGHT.remove(key, existing);
+			existing = IN_FLIGHT.get(key);
+		}
+		return null;
+	}
+
+	/**
+	 * Put the service call in flight unless another call for the same key is already in flight, in which case that call
+	 * is joined instead.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param call the service call to start, already joined by the caller
+	 * @return the future sharing the result of the call already in flight, or null if the call has been put in flight
+	 */
+	protected <S extends Serializable, T extends Serializable> TaskFutureShared<S, T> startCall(final SharedServiceCall<S, T> call) {
+		while (true) {
+			SharedServiceCall<S, T> existing = IN_FLIGHT.putIfAbsent(call.getKey(), call);
+			if (existing == null) {
+				return null;
+			}
+			TaskFutureShared<S, T> joined = existing.join();
+			if (joined != null) {
+				return joined;
+			}
+			// Every waiter has cancelled the call so it is being removed
+			IN_FLIGHT.remove(call.getKey(), existing);
+		}
+	}
+
+	/**
+	 * Remove the service call from the calls in flight as it has finished or every waiter has cancelled.
+	 *
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param call the service call
+	 */
+	protected void releaseCall(final Cache<String, ResultHolder> cache, final String cacheKey, final SharedServiceCall<?, ?> call) {
+		// Clear in progress flag (if tracking enabled)
+		if (isInProgressEnabled()) {
+			clearInProgress(cache, cacheKey);
+		}
+		IN_FLIGHT.remove(call.getKey(), call);
+	}
+
+	/**
+	 * Wait for the result of a sync service call in flight.
+	 *
+	 * @param <S> the criteria type
+	 * @param <T> the response type
+	 * @param criteria the criteria
+	 * @param joined the future sharing the result of the call in flight
+	 * @return the result of the call in flight
+	 */
+	protected <S extends Serializable, T extends Serializable> ResultHolder<S, T> waitForCall(final S criteria,
+			final TaskFutureShared<S, T> joined) {
+		try {
+			return joined.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			joined.cancel(false);
+			return new ResultHolderDefault(criteria, new ServiceException("Interrupted waiting for the service call in flight.", e));
+		} catch (ExecutionException | CancellationException e) {
+			return new ResultHolderDefault(criteria, new ServiceException("Service call in flight failed. " + e.getMessage(), e));
+		}
+	}
+
+	/**
+	 * Flag if tracking in progress ASync cached service calls in the in progress cache.
 	 * <p>
-	 * It only makes sense to track cached ASync calls as cached results are expected to be called multiple times and Sync calls require the result
-	 * immediately anyway.
+	 * Cached calls in flight in this JVM are always shared. The in progress cache is only needed to avoid starting a call
+	 * that is in progress in another JVM sharing the cache.
 	 * </p>
 	 *
 	 * @return true if tracking in progress ASync cached service calls
@@ -239,17 +662,71 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 	 * @return the task future or null if not already processing
 	 */
 	protected boolean checkInProgress(final Cache<String, ResultHolder> cache, final String cacheKey) {
-		return getInProgressCache().containsKey(getInProgressKey(cache, cacheKey));
+		Long lease = getInProgressCache().get(getInProgressKey(cache, cacheKey));
+		return lease != null && lease > System.currentTimeMillis();
 	}
 
 	/**
-	 * Save in progress flag for this service call.
+	 * Save in progress flag for this service call with the time its lease expires.
 	 *
 	 * @param cache the result holder cache
 	 * @param cacheKey the cache key
 	 */
 	protected void saveInProgress(final Cache<String, ResultHolder> cache, final String cacheKey) {
-		getInProgressCache().put(getInProgressKey(cache, cacheKey), Boolean.TRUE);
+		getInProgressCache().put(getInProgressKey(cache, cacheKey), System.currentTimeMillis() + ServiceHelperProperties.getInProgressLease());
+	}
+
+	/**
+	 * Renew the lease of the in progress flag at half the lease while the service call is in flight, so callers waiting
+	 * in other JVMs can tell the call has been abandoned if this JVM stops.
+	 * <p>
+	 * The timer hands the renewal to the default TaskMaster pool so the cache round trip does not hold up the timer
+	 * thread.
+	 * </p>
+	 *
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param call the service call in flight
+	 */
+	protected void scheduleInProgressRenewal(final Cache<String, ResultHolder> cache, final String cacheKey, final SharedServiceCall<?, ?> call) {
+		long lease = ServiceHelperProperties.getInProgressLease();
+		try {
+			TaskMasterPoolUtil.getTimer().newTimeout(() -> submitInProgressRenewal(cache, cacheKey, call, lease),
+					lease / 2, TimeUnit.MILLISECONDS);
+		} catch (IllegalStateException e) {
+			LOGGER.debug(buildCacheMessagePrefix(cache, cacheKey) + "In progress renewal not scheduled as the timer has stopped. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Hand the renewal of the in progress flag to the default TaskMaster pool.
+	 *
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param call the service call in flight
+	 * @param lease the in progress lease in milliseconds
+	 */
+	private void submitInProgressRenewal(final Cache<String, ResultHolder> cache, final String cacheKey, final SharedServiceCall<?, ?> call,
+			final long lease) {
+		if (call.isDone() || IN_FLIGHT.get(call.getKey()) != call) {
+			return;
+		}
+		Runnable renewal = () -> {
+			if (call.isDone() || IN_FLIGHT.get(call.getKey()) != call) {
+				return;
+			}
+			// Replace so a flag cleared by the call finishing is not put back
+			getInProgressCache().replace(getInProgressKey(cache, cacheKey), System.currentTimeMillis() + lease);
+			scheduleInProgressRenewal(cache, cacheKey, call);
+		};
+		try {
+			TaskMasterPoolUtil.getPool(null).execute(renewal);
+		} catch (RejectedExecutionException | IllegalStateException e) {
+			// Renew now rather than let the lease expire
+			LOGGER.warn(buildCacheMessagePrefix(cache, cacheKey) + "In progress renewal rejected by the thread pool so renewing on the timer. "
+					+ e.getMessage());
+			renewal.run();
+		}
 	}
 
 	/**
@@ -276,8 +753,22 @@ public class ServiceHelperProviderDefault implements ServiceHelperProvider {
 	/**
 	 * @return the in progress cache, or null if not enabled
 	 */
-	protected Cache<String, Boolean> getInProgressCache() {
-		return IN_PROGRESS_CACHE;
+	protected Cache<String, Long> getInProgressCache() {
+		return IN_PROGRESS_ENABLED ? InProgressCache.CACHE : null;
+	}
+
+	/**
+	 * In progress cache. Created the first time it is used.
+	 */
+	private static final class InProgressCache {
+
+		private static final Cache<String, Long> CACHE = ServiceCacheUtil.getInProgressCache();
+
+		/**
+		 * Private constructor for holder class.
+		 */
+		private InProgressCache() {
+		}
 	}
 
 }
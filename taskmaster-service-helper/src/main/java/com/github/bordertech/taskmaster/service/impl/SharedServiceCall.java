@@ -0,0 +1,181 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.impl.TaskFutureResult;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import javax.cache.Cache;
+
+/**
+ * A cached service call in flight that is shared by every caller asking for the same cache key at the same time.
+ * <p>
+ * Each caller joins the call and waits on its own {@link TaskFutureShared}. The task running the service action is
+ * only cancelled once every waiter has cancelled.
+ * </p>
+ * <p>
+ * The release callback is called once, either just before the result is handed to the waiters or when every waiter
+ * has cancelled, so the call can be removed from the calls in flight.
+ * </p>
+ *
+ * @param <S> the criteria type
+ * @param <T> the service response
+ */
+public class SharedServiceCall<S extends Serializable, T extends Serializable> {
+
+	private final String key;
+	private final Cache<String, ResultHolder> cache;
+	private final String cacheKey;
+	private final Consumer<SharedServiceCall<S, T>> release;
+	private final CompletableFuture<ResultHolder<S, T>> completion = new CompletableFuture<>();
+	private final Object lock = new Object();
+	private int waiters;
+	private boolean cancelled;
+	private boolean released;
+	private TaskFuture<ResultHolder<S, T>> future;
+
+	/**
+	 * @param key the key of the call in flight
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param release called once the call is finished or every waiter has cancelled
+	 */
+	public SharedServiceCall(final String key, final Cache<String, ResultHolder> cache, final String cacheKey,
+			final Consumer<SharedServiceCall<S, T>> release) {
+		this.key = key;
+		this.cache = cache;
+		this.cacheKey = cacheKey;
+		this.release = release;
+	}
+
+	/**
+	 * @return the key of the call in flight
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Join the call.
+	 *
+	 * @return the future for the new waiter, or null if every waiter has already cancelled the call
+	 */
+	public TaskFutureShared<S, T> join() {
+		synchronized (lock) {
+			if (cancelled) {
+				return null;
+			}
+			waiters++;
+		}
+		return new TaskFutureShared<>(this);
+	}
+
+	/**
+	 * @return the number of waiters that have not cancelled
+	 */
+	public int getWaiters() {
+		synchronized (lock) {
+			return waiters;
+		}
+	}
+
+	/**
+	 * Set the future of the task running the service action so it can be cancelled.
+	 *
+	 * @param future the future of the task
+	 */
+	public void setFuture(final TaskFuture<ResultHolder<S, T>> future) {
+		boolean cancel;
+		synchronized (lock) {
+			this.future = future;
+			cancel = cancelled;
+		}
+		if (cancel) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Release the call and hand the result to the waiters. Only the first call has an effect.
+	 *
+	 * @param result the result of the service call
+	 */
+	public void complete(final ResultHolder<S, T> result) {
+		doRelease();
+		completion.complete(result);
+	}
+
+	/**
+	 * @return true if the call has finished or been cancelled
+	 */
+	public boolean isDone() {
+		return completion.isDone();
+	}
+
+	/**
+	 * @return the completion of the call
+	 */
+	protected CompletableFuture<ResultHolder<S, T>> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * A waiter has cancelled. The task is cancelled if it was the last waiter and the call has not finished.
+	 *
+	 * @param mayInterruptIfRunning true if the thread running the task can be interrupted
+	 */
+	protected void waiterCancelled(final boolean mayInterruptIfRunning) {
+		TaskFuture<ResultHolder<S, T>> current;
+		synchronized (lock) {
+			waiters--;
+			if (waiters > 0 || completion.isDone()) {
+				return;
+			}
+			cancelled = true;
+			current = future;
+		}
+		doRelease();
+		completion.cancel(false);
+		if (current != null) {
+			current.cancel(mayInterruptIfRunning);
+		}
+	}
+
+	/**
+	 * Provide a future that can be serialized in place of a waiter.
+	 * <p>
+	 * If there is no task future to serialize, as the call is running on the caller thread or has not been submitted
+	 * yet, a {@link TaskFutureInProgress} is provided that waits for the result to be put in the cache. It relies on the
+	 * in progress flag of the call so needs in progress tracking to be enabled.
+	 * </p>
+	 *
+	 * @return the future holding the result, the future of the task, a future waiting on the cache, or null if the call
+	 * was cancelled
+	 */
+	protected TaskFuture<ResultHolder<S, T>> getSerializableFuture() {
+		if (completion.isDone()) {
+			return completion.isCompletedExceptionally() ? null : new TaskFutureResult<>(completion.getNow(null));
+		}
+		synchronized (lock) {
+			if (future != null) {
+				return future;
+			}
+		}
+		return new TaskFutureInProgress<>(cache, cacheKey);
+	}
+
+	/**
+	 * Call the release callback once.
+	 */
+	private void doRelease() {
+		synchronized (lock) {
+			if (released) {
+				return;
+			}
+			released = true;
+		}
+		release.accept(this);
+	}
+
+}
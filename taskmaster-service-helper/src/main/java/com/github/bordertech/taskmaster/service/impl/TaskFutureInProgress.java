@@ -3,34 +3,86 @@ package com.github.bordertech.taskmaster.service.impl;
 import com.github.bordertech.taskmaster.TaskFuture;
 import com.github.bordertech.taskmaster.cache.CachingHelper;
 import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.exception.ServiceException;
+import com.github.bordertech.taskmaster.service.util.ServiceCacheUtil;
 import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryListener;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 /**
  * Task Future that is waiting for the result to be in the cache as another task is already processing the service request.
+ * <p>
+ * The get methods block until the result is put in the cache. Waiters are woken by an {@link InProgressResultListener}
+ * on the result holder cache and an {@link InProgressReleasedListener} on the in progress cache, which are registered
+ * the first time a cache is waited on. If the in progress entry is removed without a result being cached, or its lease
+ * expires because the call was abandoned, the future completes with a result holding a {@link ServiceException}.
+ * </p>
+ * <p>
+ * A cached result past the logical expiry of its {@link ResultCachePolicy} is ignored, as the call in progress is
+ * replacing it.
+ * </p>
  *
  * @param <S> the meta type
  * @param <T> the result type
  */
 public class TaskFutureInProgress<S extends Serializable, T extends Serializable> implements TaskFuture<ResultHolder<S, T>> {
 
-	// Cache instance is transient as TaskFuture needs to be Serializable
+	private static final Log LOGGER = LogFactory.getLog(TaskFutureInProgress.class);
+
+	/**
+	 * Waiters by in progress key.
+	 */
+	private static final ConcurrentMap<String, CompletableFuture<ResultHolder>> WAITING = new ConcurrentHashMap<>();
+
+	/**
+	 * In progress key of the waiters by result holder cache name and key.
+	 */
+	private static final ConcurrentMap<String, String> WAITING_KEYS = new ConcurrentHashMap<>();
+
+	/**
+	 * Names of the caches with a listener registered.
+	 */
+	private static final Set<String> LISTENING = ConcurrentHashMap.newKeySet();
+
+	// Cache instances are transient as TaskFuture needs to be Serializable
 	private transient Cache<String, ResultHolder> cache;
+	private transient Cache<String, Long> inProgressCache;
+	private transient long leaseExpiry;
+	private transient ResultCachePolicy cachePolicy;
 	private final String cacheName;
 	private final String cacheKey;
-	private ResultHolder result;
+	private final String inProgressKey;
+	private volatile ResultHolder result;
 
 	/**
 	 * @param cache the result holder cache
 	 * @param cacheKey the cache key
 	 */
 	public TaskFutureInProgress(final Cache<String, ResultHolder> cache, final String cacheKey) {
+		this(cache, cacheKey, cache.getName() + "-" + cacheKey);
+	}
+
+	/**
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param inProgressKey the key of the service call in the in progress cache
+	 */
+	public TaskFutureInProgress(final Cache<String, ResultHolder> cache, final String cacheKey, final String inProgressKey) {
 		this.cache = cache;
 		this.cacheName = cache.getName();
 		this.cacheKey = cacheKey;
+		this.inProgressKey = inProgressKey;
 	}
 
 	@Override
@@ -45,17 +97,22 @@ public class TaskFutureInProgress<S extends Serializable, T extends Serializable
 
 	@Override
 	public boolean isDone() {
-		return getResult() != null;
+		return checkResult() != null;
 	}
 
 	@Override
 	public ResultHolder get() throws InterruptedException, ExecutionException {
-		return getResult();
+		try {
+			return waitForResult(0);
+		} catch (TimeoutException e) {
+			// Cannot happen without a timeout
+			throw new ExecutionException("Waiting for service call in progress failed. " + e.getMessage(), e);
+		}
 	}
 
 	@Override
 	public ResultHolder get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-		return get();
+		return waitForResult(Math.max(1, unit.toNanos(timeout)));
 	}
 
 	/**
@@ -65,6 +122,13 @@ public class TaskFutureInProgress<S extends Serializable, T extends Serializable
 		return cacheKey;
 	}
 
+	/**
+	 * @return the key of the service call in the in progress cache
+	 */
+	protected String getInProgressKey() {
+		return inProgressKey;
+	}
+
 	/**
 	 * @return the result holder cache
 	 */
@@ -78,13 +142,196 @@ public class TaskFutureInProgress<S extends Serializable, T extends Serializable
 	}
 
 	/**
-	 * @return the result holder or null if not in the cache
+	 * @return the in progress cache
+	 */
+	protected Cache<String, Long> getInProgressCache() {
+		if (inProgressCache == null) {
+			inProgressCache = ServiceCacheUtil.getInProgressCache();
+		}
+		return inProgressCache;
+	}
+
+	/**
+	 * @return the expiry policy of the result holder cache
+	 */
+	protected ResultCachePolicy getCachePolicy() {
+		if (cachePolicy == null) {
+			cachePolicy = ResultCachePolicy.of(getCache());
+		}
+		return cachePolicy;
+	}
+
+	/**
+	 * @return the result holder or null if not in the cache or past its logical expiry
 	 */
 	protected ResultHolder<S, T> getResult() {
 		if (result == null) {
-			result = getCache().get(getCacheKey());
+			ResultHolder<S, T> cached = getCache().get(getCacheKey());
+			if (cached instanceof ResultHolderCached
+					&& getCachePolicy().isExpired((ResultHolderCached) cached, System.currentTimeMillis())) {
+				// Expired result that the call in progress will replace
+				return null;
+			}
+			result = cached;
 		}
 		return result;
 	}
 
+	/**
+	 * Check if the service call has finished.
+	 * <p>
+	 * The in progress entry is read before the result as the call puts its result in the cache before it removes the
+	 * entry.
+	 * </p>
+	 *
+	 * @return the result, a result holding the failure if finished without a cached result, or null if still in progress
+	 */
+	protected ResultHolder<S, T> checkResult() {
+		if (result != null) {
+			return result;
+		}
+		Long lease = getInProgressCache().get(getInProgressKey());
+		ResultHolder<S, T> cached = getResult();
+		if (cached != null) {
+			return cached;
+		}
+		if (lease == null || lease <= System.currentTimeMillis()) {
+			String reason = lease == null ? "finished without caching a result" : "has been abandoned";
+			result = new ResultHolderDefault(new ServiceException("Service call in progress " + reason + "."));
+			return result;
+		}
+		leaseExpiry = lease;
+		return null;
+	}
+
+	/**
+	 * Block until the service call has finished, the lease of the call expires or the timeout passes.
+	 *
+	 * @param timeout the timeout in nanoseconds or 0 for no timeout
+	 * @return the result
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws TimeoutException if the timeout passed
+	 */
+	protected ResultHolder<S, T> waitForResult(final long timeout) throws InterruptedException, TimeoutException {
+		if (result != null) {
+			return result;
+		}
+		long deadline = System.nanoTime() + timeout;
+		registerListeners();
+		String waitingKey = cacheName + "/" + cacheKey;
+		CompletableFuture<ResultHolder> waiter = null;
+		try {
+			while (true) {
+				// Register before checking so a result put after the check is not missed
+				waiter = WAITING.computeIfAbsent(inProgressKey, key -> new CompletableFuture<>());
+				WAITING_KEYS.put(waitingKey, inProgressKey);
+				ResultHolder<S, T> found = checkResult();
+				if (found != null) {
+					return found;
+				}
+				// Wake at the lease expiry in case the call was abandoned
+				long wait = TimeUnit.MILLISECONDS.toNanos(Math.max(1, leaseExpiry - System.currentTimeMillis()));
+				if (timeout > 0) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) {
+						throw new TimeoutException("Timed out waiting for service call in progress.");
+					}
+					wait = Math.min(wait, remaining);
+				}
+				try {
+					ResultHolder notified = waiter.get(wait, TimeUnit.NANOSECONDS);
+					if (notified != null) {
+						result = notified;
+						return result;
+					}
+				} catch (TimeoutException e) {
+					// Check the lease and the timeout again
+					LOGGER.debug("Checking service call in progress [" + inProgressKey + "] after waiting.");
+				} catch (ExecutionException e) {
+					// Waiters are only ever completed normally
+					throw new IllegalStateException(e);
+				}
+			}
+		} finally {
+			releaseWaiter(waitingKey, waiter);
+		}
+	}
+
+	/**
+	 * Stop tracking a waiter once the caller has stopped waiting.
+	 * <p>
+	 * The waiter is shared by the callers waiting on the same service call, so any still waiting on it are woken to
+	 * check the result and register again.
+	 * </p>
+	 *
+	 * @param waitingKey the result holder cache name and key
+	 * @param waiter the waiter or null if not registered
+	 */
+	private void releaseWaiter(final String waitingKey, final CompletableFuture<ResultHolder> waiter) {
+		if (waiter == null) {
+			return;
+		}
+		WAITING_KEYS.remove(waitingKey, inProgressKey);
+		if (WAITING.remove(inProgressKey, waiter)) {
+			waiter.complete(null);
+		}
+	}
+
+	/**
+	 * Register the listeners that wake waiters on the result holder cache and the in progress cache.
+	 */
+	protected void registerListeners() {
+		registerListener(getCache(), InProgressResultListener.class);
+		registerListener(getInProgressCache(), InProgressReleasedListener.class);
+	}
+
+	/**
+	 * Register a listener on a cache once.
+	 *
+	 * @param <V> the cache value type
+	 * @param target the cache to listen to
+	 * @param listener the listener class
+	 */
+	private static <V> void registerListener(final Cache<String, V> target,
+			final Class<? extends CacheEntryListener<String, V>> listener) {
+		if (!LISTENING.add(target.getName())) {
+			return;
+		}
+		try {
+			target.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+					FactoryBuilder.factoryOf(listener), null, false, false));
+		} catch (IllegalArgumentException e) {
+			LOGGER.debug("Listener already registered on cache [" + target.getName() + "]. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Wake the waiters on a result that has been put in the cache.
+	 *
+	 * @param cacheName the result holder cache name
+	 * @param cacheKey the cache key
+	 * @param holder the result holder
+	 */
+	static void resultAvailable(final String cacheName, final String cacheKey, final ResultHolder holder) {
+		String key = WAITING_KEYS.remove(cacheName + "/" + cacheKey);
+		if (key != null) {
+			CompletableFuture<ResultHolder> waiter = WAITING.remove(key);
+			if (waiter != null) {
+				waiter.complete(holder);
+			}
+		}
+	}
+
+	/**
+	 * Wake the waiters on a service call whose in progress entry has been removed so they check the result.
+	 *
+	 * @param inProgressKey the in progress key
+	 */
+	static void inProgressReleased(final String inProgressKey) {
+		CompletableFuture<ResultHolder> waiter = WAITING.remove(inProgressKey);
+		if (waiter != null) {
+			waiter.complete(null);
+		}
+	}
+
 }
@@ -0,0 +1,118 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Task Future of one waiter on a {@link SharedServiceCall}.
+ * <p>
+ * Cancelling the future only cancels this waiter. The service call is cancelled once all of its waiters have cancelled.
+ * </p>
+ * <p>
+ * When serialized, the future of the task running the service call (or the result if finished) is serialized in place
+ * of the shared call. A call without a task future, such as a sync call, is serialized as a future waiting for the
+ * result to be put in the cache. A deserialized future can no longer cancel the shared call, so cancelling it only stops this
+ * waiter.
+ * </p>
+ *
+ * @param <S> the criteria type
+ * @param <T> the service response
+ */
+public class TaskFutureShared<S extends Serializable, T extends Serializable> implements TaskFuture<ResultHolder<S, T>> {
+
+	private transient SharedServiceCall<S, T> call;
+	private transient CompletableFuture<ResultHolder<S, T>> local;
+	private TaskFuture<ResultHolder<S, T>> future;
+	private volatile boolean cancelled;
+
+	/**
+	 * @param call the shared service call
+	 */
+	protected TaskFutureShared(final SharedServiceCall<S, T> call) {
+		this.call = call;
+		// Own stage so cancelling this waiter does not complete the shared call
+		this.local = call.getCompletion().thenApply(Function.identity());
+	}
+
+	@Override
+	public boolean cancel(final boolean mayInterruptIfRunning) {
+		synchronized (this) {
+			if (cancelled || isDone()) {
+				return false;
+			}
+			cancelled = true;
+		}
+		if (local != null) {
+			local.cancel(false);
+			call.waiterCancelled(mayInterruptIfRunning);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public boolean isDone() {
+		if (cancelled) {
+			return true;
+		}
+		return local == null ? future == null || future.isDone() : local.isDone();
+	}
+
+	@Override
+	public ResultHolder<S, T> get() throws InterruptedException, ExecutionException {
+		checkCancelled();
+		if (local == null) {
+			return future.get();
+		}
+		ResultHolder<S, T> result = local.get();
+		checkCancelled();
+		return result;
+	}
+
+	@Override
+	public ResultHolder<S, T> get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		checkCancelled();
+		if (local == null) {
+			return future.get(timeout, unit);
+		}
+		ResultHolder<S, T> result = local.get(timeout, unit);
+		checkCancelled();
+		return result;
+	}
+
+	/**
+	 * @throws CancellationException if this waiter has been cancelled
+	 */
+	private void checkCancelled() {
+		if (cancelled) {
+			throw new CancellationException("Service call has been cancelled.");
+		}
+	}
+
+	/**
+	 * Replace the shared call with a future that can be serialized.
+	 *
+	 * @param out the output stream
+	 * @throws IOException an IO exception
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		if (call != null && future == null && !cancelled) {
+			future = call.getSerializableFuture();
+		}
+		out.defaultWriteObject();
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.github.bordertech.taskmaster.service.util;
 
+import com.github.bordertech.taskmaster.exception.RejectedTaskException;
+import com.github.bordertech.taskmaster.service.exception.RejectedServiceException;
 import com.github.bordertech.taskmaster.service.exception.ServiceException;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
@@ -51,4 +53,22 @@ public final class ExceptionUtil {
 		}
 	}
 
+	/**
+	 * Map the reason TaskMaster did not run a task onto a RejectedServiceException.
+	 * <p>
+	 * Used for tasks rejected on submit and for tasks dropped or expired after they were queued so callers see the same
+	 * exception, including the retry estimate of a saturated pool.
+	 * </p>
+	 *
+	 * @param msg the exception message
+	 * @param reason the reason the task was not run
+	 * @return the rejected service exception
+	 */
+	public static RejectedServiceException getRejectedServiceException(final String msg, final Throwable reason) {
+		if (reason instanceof RejectedTaskException) {
+			return new RejectedServiceException(msg, reason, ((RejectedTaskException) reason).getRetryAfter());
+		}
+		return new RejectedServiceException(msg, reason);
+	}
+
 }
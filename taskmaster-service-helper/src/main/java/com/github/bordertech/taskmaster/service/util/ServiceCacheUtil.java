@@ -3,9 +3,12 @@ package com.github.bordertech.taskmaster.service.util;
 import com.github.bordertech.taskmaster.cache.CachingHelper;
 import com.github.bordertech.taskmaster.cache.impl.CachingProperties;
 import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.impl.ResultCachePolicy;
 import com.github.bordertech.taskmaster.service.impl.ServiceHelperProperties;
 import javax.cache.Cache;
+import javax.cache.configuration.MutableConfiguration;
 import javax.cache.expiry.Duration;
+import javax.cache.expiry.ModifiedExpiryPolicy;
 
 /**
  * Helper utility for sync and async service calls.
@@ -15,6 +18,13 @@ import javax.cache.expiry.Duration;
  * <p>
  * The duration of the caches can be overridden by setting the runtime properties for {@link CachingProperties}.
  * </p>
+ * <p>
+ * The duration of a result holder cache is the hard TTL of its results. Setting
+ * {@code bordertech.taskmaster.service.cache.<name>.soft.ttl} (milliseconds) serves results older than the soft TTL as
+ * stale while they are refreshed in the background on the {@code refresh.pool} of the cache. Setting {@code jitter}
+ * (fraction of the duration) expires results cached together at different times and {@code early.refresh.beta}
+ * refreshes results in the background before they expire. See {@link ResultCachePolicy}.
+ * </p>
  *
  * @see CachingProperties
  */
@@ -48,13 +58,32 @@ public final class ServiceCacheUtil {
 
 	/**
 	 * Provide a result holder cache with an assigned cache name and duration.
+	 * <p>
+	 * The time to live restarts when a result is replaced, so a refreshed result is held for the full duration.
+	 * </p>
 	 *
 	 * @param name the cache name
 	 * @param duration the time to live for cached items
 	 * @return the cache instance
 	 */
 	public static Cache<String, ResultHolder> getResultHolderCache(final String name, final Duration duration) {
-		return CachingHelper.getOrCreateCache(name, String.class, ResultHolder.class, duration);
+		MutableConfiguration<String, ResultHolder> config = new MutableConfiguration<>();
+		config.setTypes(String.class, ResultHolder.class);
+		config.setExpiryPolicyFactory(ModifiedExpiryPolicy.factoryOf(duration));
+		return CachingHelper.getOrCreateCache(name, String.class, ResultHolder.class, config);
+	}
+
+	/**
+	 * Provide the cache used to track cached async service calls in progress across JVMs.
+	 * <p>
+	 * Holds the time (epoch milliseconds) the lease of each call in progress expires.
+	 * </p>
+	 *
+	 * @return the in progress cache instance
+	 */
+	public static Cache<String, Long> getInProgressCache() {
+		return CachingHelper.getOrCreateCache(ServiceHelperProperties.INPROGRESS_CACHE_NAME, String.class, Long.class,
+				ServiceHelperProperties.getInProgressCacheDuration());
 	}
 
 }
@@ -0,0 +1,107 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ResultCachePolicy}.
+ */
+public class ResultCachePolicyTest {
+
+	private static final long NOW = 1_000_000L;
+
+	@Test
+	public void testSoftTtlBoundary() {
+		ResultCachePolicy policy = new ResultCachePolicy(10000, 1000, 0, 0);
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), NOW);
+		Assert.assertFalse("Result should be fresh just before the soft TTL", policy.isStale(holder, NOW + 999));
+		Assert.assertTrue("Result should be stale at the soft TTL", policy.isStale(holder, NOW + 1000));
+	}
+
+	@Test
+	public void testNoSoftTtlNeverStale() {
+		ResultCachePolicy policy = new ResultCachePolicy(10000, 0, 0, 0);
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), NOW);
+		Assert.assertFalse("Result should not be stale without a soft TTL", policy.isStale(holder, NOW + 100000));
+	}
+
+	@Test
+	public void testHardTtlBoundary() {
+		ResultCachePolicy policy = new ResultCachePolicy(10000, 1000, 0, 0);
+		long expiry = policy.nextExpiry(NOW);
+		Assert.assertEquals("Expiry should be the hard TTL without jitter", NOW + 10000, expiry);
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), NOW, 10, expiry);
+		Assert.assertFalse("Result should not expire just before the hard TTL", policy.isExpired(holder, expiry - 1));
+		Assert.assertTrue("Result should expire at the hard TTL", policy.isExpired(holder, expiry));
+	}
+
+	@Test
+	public void testNoHardTtlNeverExpires() {
+		ResultCachePolicy policy = new ResultCachePolicy(0, 1000, 0.5, 1);
+		Assert.assertEquals("Result should not have an expiry without a hard TTL", 0, policy.nextExpiry(NOW));
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), NOW, 10, 0);
+		Assert.assertFalse("Result without an expiry should not expire", policy.isExpired(holder, Long.MAX_VALUE));
+		Assert.assertFalse("Result without an expiry should not be refreshed early", policy.isEarlyRefresh(holder, NOW));
+	}
+
+	@Test
+	public void testIsTimed() {
+		Assert.assertFalse("Hard TTL only should not be timed", new ResultCachePolicy(10000, 0, 0, 0).isTimed());
+		Assert.assertTrue("Soft TTL should be timed", new ResultCachePolicy(10000, 1000, 0, 0).isTimed());
+		Assert.assertTrue("Jitter should be timed", new ResultCachePolicy(10000, 0, 0.1, 0).isTimed());
+		Assert.assertTrue("Early refresh should be timed", new ResultCachePolicy(10000, 0, 0, 1).isTimed());
+		Assert.assertFalse("Jitter without a hard TTL should not be timed", new ResultCachePolicy(0, 0, 0.1, 1).isTimed());
+	}
+
+	@Test
+	public void testJitterBounds() {
+		long ttl = 10000;
+		double jitter = 0.2;
+		long lowest = NOW + (long) (ttl * (1 - jitter));
+		Assert.assertEquals("Lowest random should give the hard TTL", NOW + ttl, new ResultCachePolicy(ttl, 0, jitter, 0, () -> 0).nextExpiry(NOW));
+		long highest = new ResultCachePolicy(ttl, 0, jitter, 0, () -> Math.nextDown(1.0)).nextExpiry(NOW);
+		Assert.assertTrue("Highest random should take off no more than the jitter", highest >= lowest);
+		Assert.assertTrue("Highest random should take off close to the jitter", highest <= lowest + 1);
+		Random random = new Random(42);
+		ResultCachePolicy policy = new ResultCachePolicy(ttl, 0, jitter, 0, random::nextDouble);
+		for (int i = 0; i < 1000; i++) {
+			long expiry = policy.nextExpiry(NOW);
+			Assert.assertTrue("Expiry should not be before the jitter bound", expiry >= lowest);
+			Assert.assertTrue("Expiry should not be after the hard TTL", expiry <= NOW + ttl);
+		}
+	}
+
+	@Test
+	public void testEarlyRefreshBounds() {
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), NOW, 100, NOW + 10000);
+		// A random of 0 gives no lead so only refreshes at the expiry
+		ResultCachePolicy never = new ResultCachePolicy(10000, 0, 0, 1, () -> 0);
+		Assert.assertFalse("Should not refresh before the expiry without a lead", never.isEarlyRefresh(holder, NOW + 9999));
+		Assert.assertTrue("Should refresh at the expiry", never.isEarlyRefresh(holder, NOW + 10000));
+		// A random of 1 - 1/e gives a lead of the duration times beta
+		ResultCachePolicy lead = new ResultCachePolicy(10000, 0, 0, 2, () -> 1 - Math.exp(-1));
+		Assert.assertFalse("Should not refresh before the lead", lead.isEarlyRefresh(holder, NOW + 10000 - 201));
+		Assert.assertTrue("Should refresh within the lead", lead.isEarlyRefresh(holder, NOW + 10000 - 199));
+	}
+
+	@Test
+	public void testEarlyRefreshRisesTowardExpiry() {
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), NOW, 100, NOW + 10000);
+		int previous = -1;
+		for (long before : new long[]{800, 400, 200, 100, 50, 0}) {
+			Random random = new Random(42);
+			ResultCachePolicy policy = new ResultCachePolicy(10000, 0, 0, 1, random::nextDouble);
+			int refreshes = 0;
+			for (int i = 0; i < 1000; i++) {
+				if (policy.isEarlyRefresh(holder, NOW + 10000 - before)) {
+					refreshes++;
+				}
+			}
+			Assert.assertTrue("Early refreshes should rise toward expiry at " + before + "ms before", refreshes > previous);
+			previous = refreshes;
+		}
+		Assert.assertEquals("Should always refresh at the expiry", 1000, previous);
+	}
+
+}
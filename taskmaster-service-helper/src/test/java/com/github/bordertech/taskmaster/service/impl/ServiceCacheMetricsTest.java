@@ -0,0 +1,39 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ServiceCacheMetrics}.
+ */
+public class ServiceCacheMetricsTest {
+
+	/**
+	 * Epoch second well before the calls made by the other tests, at the start of a window.
+	 */
+	private static final long SECOND = 6000L;
+
+	@Test
+	public void testCallsPerSecondRollOver() {
+		long window = ServiceCacheMetrics.WINDOW_SECONDS;
+		ServiceCacheMetrics.recordCall(SECOND);
+		ServiceCacheMetrics.recordCall(SECOND);
+		ServiceCacheMetrics.recordCall(SECOND + 1);
+		long[] calls = ServiceCacheMetrics.getCallsPerSecond(SECOND + 1);
+		Assert.assertEquals("Window should hold a count per second", window, calls.length);
+		Assert.assertEquals("Calls of the previous second should be counted", 2, calls[calls.length - 2]);
+		Assert.assertEquals("Calls of the current second should be counted last", 1, calls[calls.length - 1]);
+		// Same slot as the first second once the window has passed
+		ServiceCacheMetrics.recordCall(SECOND + window);
+		calls = ServiceCacheMetrics.getCallsPerSecond(SECOND + window);
+		Assert.assertEquals("Slot should be reset for the new second", 1, calls[calls.length - 1]);
+		Assert.assertEquals("Calls of a second still in the window should be kept", 1, calls[0]);
+		calls = ServiceCacheMetrics.getCallsPerSecond(SECOND + 1);
+		Assert.assertEquals("Calls of a second that rolled over should not be reported", 0, calls[calls.length - 2]);
+		calls = ServiceCacheMetrics.getCallsPerSecond(SECOND + 2 * window);
+		for (long count : calls) {
+			Assert.assertEquals("Calls older than the window should not be reported", 0, count);
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.logical.LogicalThreadPoolController;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.ServiceHelper;
+import com.github.bordertech.taskmaster.service.exception.ServiceTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the release of the {@link LogicalThreadPoolController} thread of a service call.
+ */
+public class ServiceHelperControllerTest {
+
+	@Test
+	public void testReleasedWhenCancelledBeforeRun() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountingController controller = new CountingController();
+		AtomicInteger ran = new AtomicInteger();
+		// Hold the only thread of the pool so the controlled call stays queued
+		TaskFuture<ResultHolder<String, String>> blocker = ServiceHelper.submitAsync("A", criteria -> {
+			release.await(5, TimeUnit.SECONDS);
+			return criteria;
+		}, "test-single");
+		TaskFuture<ResultHolder<String, String>> queued = ServiceHelper.submitAsync("B", criteria -> {
+			ran.incrementAndGet();
+			return criteria;
+		}, "test-single", controller);
+		Assert.assertEquals("Controller thread should be held while queued", 1, controller.getInUse());
+		Assert.assertTrue("Queued call should cancel", queued.cancel(false));
+		waitForRelease(controller);
+		Assert.assertEquals("Controller thread should be released on cancel", 0, controller.getInUse());
+		release.countDown();
+		blocker.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals("Cancelled call should not run", 0, ran.get());
+		Assert.assertEquals("Controller thread should be released once", 1, controller.getReleased());
+	}
+
+	@Test
+	public void testHeldUntilTimedOutActionReturns() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountingController controller = new CountingController();
+		TaskFuture<ResultHolder<String, String>> future = ServiceHelper.submitAsync("A", criteria -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				// Ignore the timeout interrupt and keep running
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return criteria;
+		}, "test-timeout", controller);
+		ResultHolder<String, String> holder = future.get(5, TimeUnit.SECONDS);
+		Assert.assertTrue("Call should time out", holder.getException() instanceof ServiceTimeoutException);
+		// Give the completion callback the chance to run
+		Thread.sleep(50);
+		Assert.assertEquals("Controller thread should be held while the action runs", 1, controller.getInUse());
+		release.countDown();
+		waitForRelease(controller);
+		Assert.assertEquals("Controller thread should be released once the action returns", 0, controller.getInUse());
+		Assert.assertEquals("Controller thread should be released once", 1, controller.getReleased());
+	}
+
+	@Test
+	public void testReleasedWhenActionThrows() throws Exception {
+		CountingController controller = new CountingController();
+		TaskFuture<ResultHolder<String, String>> future = ServiceHelper.submitAsync("A", criteria -> {
+			throw new IllegalStateException("Failed");
+		}, "test-single", controller);
+		ResultHolder<String, String> holder = future.get(5, TimeUnit.SECONDS);
+		Assert.assertTrue("Result should hold the exception", holder.isException());
+		waitForRelease(controller);
+		Assert.assertEquals("Controller thread should be released", 0, controller.getInUse());
+		Assert.assertEquals("Controller thread should be released once", 1, controller.getReleased());
+	}
+
+	private static void waitForRelease(final CountingController controller) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (controller.getInUse() > 0 && System.currentTimeMillis() < end) {
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * Controller that counts the threads in use.
+	 */
+	private static final class CountingController implements LogicalThreadPoolController {
+
+		private final AtomicInteger inUse = new AtomicInteger();
+		private final AtomicInteger released = new AtomicInteger();
+
+		@Override
+		public boolean acquireThread() {
+			inUse.incrementAndGet();
+			return true;
+		}
+
+		@Override
+		public void releaseThread() {
+			inUse.decrementAndGet();
+			released.incrementAndGet();
+		}
+
+		private int getInUse() {
+			return inUse.get();
+		}
+
+		private int getReleased() {
+			return released.get();
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.ServiceHelper;
+import com.github.bordertech.taskmaster.service.util.ServiceCacheUtil;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.cache.Cache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the background refresh of stale cached results.
+ */
+public class ServiceHelperRefreshTest {
+
+	private Cache<String, ResultHolder> cache;
+	private String cacheKey;
+
+	@Before
+	public void setup() {
+		cache = ServiceCacheUtil.getResultHolderCache("test-refresh");
+		cacheKey = UUID.randomUUID().toString();
+	}
+
+	@Test
+	public void testFreshResultNotRefreshed() throws Exception {
+		cache.put(cacheKey, new ResultHolderCached<>(new ResultHolderDefault<>("A", "CACHED"), System.currentTimeMillis()));
+		AtomicInteger calls = new AtomicInteger();
+		ResultHolder<String, String> holder = ServiceHelper.invokeSync("A", criteria -> {
+			calls.incrementAndGet();
+			return "REFRESHED";
+		}, cache, cacheKey);
+		Assert.assertEquals("Fresh result should be served", "CACHED", holder.getResult());
+		Assert.assertFalse("Fresh result should not be flagged stale", holder.isStale());
+		Assert.assertEquals("Fresh result should not be refreshed", 0, calls.get());
+	}
+
+	@Test
+	public void testStaleResultServedAndRefreshedOnce() throws Exception {
+		// Cached past the soft TTL
+		cache.put(cacheKey, new ResultHolderCached<>(new ResultHolderDefault<>("A", "CACHED"), System.currentTimeMillis() - 2000));
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		for (int i = 0; i < 5; i++) {
+			TaskFuture<ResultHolder<String, String>> future = ServiceHelper.submitAsync("A", criteria -> {
+				calls.incrementAndGet();
+				release.await(5, TimeUnit.SECONDS);
+				return "REFRESHED";
+			}, cache, cacheKey);
+			ResultHolder<String, String> holder = future.get(5, TimeUnit.SECONDS);
+			Assert.assertEquals("Stale result should be served while refreshing", "CACHED", holder.getResult());
+			Assert.assertTrue("Stale result should be flagged stale", holder.isStale());
+		}
+		release.countDown();
+		waitForResult(cache, cacheKey, "REFRESHED");
+		Assert.assertEquals("Only one refresh should run for the key", 1, calls.get());
+		ResultHolder<String, String> holder = ServiceHelper.invokeSync("A", criteria -> "AGAIN", cache, cacheKey);
+		Assert.assertEquals("Refreshed result should be served", "REFRESHED", holder.getResult());
+		Assert.assertFalse("Refreshed result should not be flagged stale", holder.isStale());
+	}
+
+	@Test
+	public void testStaleFlagOnCopyOnly() {
+		ResultHolderCached<String, String> holder = new ResultHolderCached<>(new ResultHolderDefault<>("A", "OK"), 1000L, 10L, 5000L);
+		ResultHolderCached<String, String> stale = holder.asStale();
+		Assert.assertFalse("Cached result should not be flagged stale", holder.isStale());
+		Assert.assertTrue("Copy should be flagged stale", stale.isStale());
+		Assert.assertSame("Stale result should not be copied again", stale, stale.asStale());
+		Assert.assertEquals("Copy should keep the result", "OK", stale.getResult());
+		Assert.assertEquals("Copy should keep the cached time", 1000L, stale.getCachedAt());
+		Assert.assertEquals("Copy should keep the expiry", 5000L, stale.getExpiresAt());
+	}
+
+	/**
+	 * @param cache the result holder cache
+	 * @param cacheKey the cache key
+	 * @param expected the result expected in the cache
+	 * @throws InterruptedException if interrupted
+	 */
+	private static void waitForResult(final Cache<String, ResultHolder> cache, final String cacheKey, final String expected)
+			throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < end) {
+			ResultHolder holder = cache.get(cacheKey);
+			if (holder != null && expected.equals(holder.getResult())) {
+				return;
+			}
+			Thread.sleep(5);
+		}
+	}
+
+}
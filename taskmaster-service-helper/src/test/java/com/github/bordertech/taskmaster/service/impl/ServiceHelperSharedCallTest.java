@@ -0,0 +1,154 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.logical.LogicalThreadPoolController;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.ServiceHelper;
+import com.github.bordertech.taskmaster.service.exception.RejectedServiceException;
+import com.github.bordertech.taskmaster.service.exception.ServiceException;
+import com.github.bordertech.taskmaster.service.util.ServiceCacheUtil;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.cache.Cache;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the cached service calls shared by the callers asking for the same cache key.
+ */
+public class ServiceHelperSharedCallTest {
+
+	private Cache<String, ResultHolder> cache;
+	private String cacheKey;
+
+	@Before
+	public void setup() {
+		cache = ServiceCacheUtil.getResultHolderCache("test-shared");
+		cacheKey = UUID.randomUUID().toString();
+	}
+
+	@Test
+	public void testCallsCoalesced() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		TaskFuture<ResultHolder<String, String>> first = ServiceHelper.submitAsync("A", criteria -> {
+			calls.incrementAndGet();
+			release.await(5, TimeUnit.SECONDS);
+			return "OK";
+		}, cache, cacheKey, "test-single");
+		TaskFuture<ResultHolder<String, String>> second = ServiceHelper.submitAsync("A", criteria -> {
+			calls.incrementAndGet();
+			return "SECOND";
+		}, cache, cacheKey, "test-single");
+		release.countDown();
+		Assert.assertEquals("First caller should get the result", "OK", first.get(5, TimeUnit.SECONDS).getResult());
+		Assert.assertEquals("Second caller should share the result", "OK", second.get(5, TimeUnit.SECONDS).getResult());
+		Assert.assertEquals("Service should be called once", 1, calls.get());
+	}
+
+	@Test
+	public void testCancelLastWaiterCancelsCall() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		TaskFuture<ResultHolder<String, String>> first = ServiceHelper.submitAsync("A", criteria -> {
+			started.countDown();
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+			return "OK";
+		}, cache, cacheKey, "test-single");
+		TaskFuture<ResultHolder<String, String>> second = ServiceHelper.submitAsync("A", criteria -> "SECOND", cache, cacheKey, "test-single");
+		Assert.assertTrue("Service call should start", started.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue("First waiter should cancel", first.cancel(true));
+		Assert.assertFalse("Service call should keep running while a waiter remains", interrupted.await(100, TimeUnit.MILLISECONDS));
+		Assert.assertFalse("Remaining waiter should not be cancelled", second.isDone());
+		Assert.assertTrue("Last waiter should cancel", second.cancel(true));
+		Assert.assertTrue("Service call should be cancelled once the last waiter cancels", interrupted.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testControllerRejectionNotShared() throws Exception {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch reject = new CountDownLatch(1);
+		LogicalThreadPoolController rejecting = new LogicalThreadPoolController() {
+			@Override
+			public boolean acquireThread() {
+				entered.countDown();
+				try {
+					reject.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return false;
+			}
+
+			@Override
+			public void releaseThread() {
+				// No threads acquired
+			}
+		};
+		CompletableFuture<Throwable> rejected = new CompletableFuture<>();
+		new Thread(() -> {
+			try {
+				ServiceHelper.submitAsync("A", criteria -> "REJECTED", cache, cacheKey, "test-single", false, rejecting);
+				rejected.complete(null);
+			} catch (Exception e) {
+				rejected.complete(e);
+			}
+		}).start();
+		Assert.assertTrue("Controller should be asked for a thread", entered.await(5, TimeUnit.SECONDS));
+		// Caller without the controller while the controlled caller waits for its thread
+		TaskFuture<ResultHolder<String, String>> other = ServiceHelper.submitAsync("A", criteria -> "OK", cache, cacheKey, "test-single");
+		reject.countDown();
+		Assert.assertTrue("Controlled caller should be rejected", rejected.get(5, TimeUnit.SECONDS) instanceof RejectedServiceException);
+		ResultHolder<String, String> holder = other.get(5, TimeUnit.SECONDS);
+		Assert.assertFalse("Other caller should not get the controller rejection", holder.isException());
+		Assert.assertEquals("Other caller should get its result", "OK", holder.getResult());
+	}
+
+	@Test
+	public void testSerializeWaiterOnSyncCall() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		new Thread(() -> {
+			try {
+				ServiceHelper.invokeSync("A", criteria -> {
+					started.countDown();
+					release.await(5, TimeUnit.SECONDS);
+					return "OK";
+				}, cache, cacheKey);
+			} catch (ServiceException e) {
+				throw new IllegalStateException(e);
+			}
+		}).start();
+		Assert.assertTrue("Sync call should start", started.await(5, TimeUnit.SECONDS));
+		TaskFuture<ResultHolder<String, String>> joined = ServiceHelper.submitAsync("A", criteria -> "SECOND", cache, cacheKey, "test-single");
+		AtomicBoolean serialized = new AtomicBoolean();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(joined);
+			serialized.set(true);
+		} finally {
+			release.countDown();
+		}
+		Assert.assertTrue("Waiter should serialize while the sync call is in flight", serialized.get());
+		TaskFuture<ResultHolder<String, String>> copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (TaskFuture<ResultHolder<String, String>>) in.readObject();
+		}
+		Assert.assertEquals("Deserialized waiter should get the result of the sync call", "OK", copy.get(5, TimeUnit.SECONDS).getResult());
+		Assert.assertEquals("Waiter should get the result of the sync call", "OK", joined.get(5, TimeUnit.SECONDS).getResult());
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.github.bordertech.taskmaster.service.impl;
+
+import com.github.bordertech.taskmaster.TaskFuture;
+import com.github.bordertech.taskmaster.service.ResultHolder;
+import com.github.bordertech.taskmaster.service.ServiceHelper;
+import com.github.bordertech.taskmaster.service.exception.ServiceException;
+import com.github.bordertech.taskmaster.service.util.ServiceCacheUtil;
+import java.io.Serializable;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryUpdatedListener;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TaskFutureInProgress}.
+ */
+public class TaskFutureInProgressTest {
+
+	private Cache<String, ResultHolder> cache;
+	private Cache<String, Long> inProgressCache;
+	private String cacheKey;
+
+	@Before
+	public void setup() {
+		cache = ServiceCacheUtil.getResultHolderCache("test-inprogress");
+		inProgressCache = ServiceCacheUtil.getInProgressCache();
+		cacheKey = UUID.randomUUID().toString();
+	}
+
+	@Test
+	public void testBlocksUntilResultCached() throws Exception {
+		inProgressCache.put(cache.getName() + "-" + cacheKey, System.currentTimeMillis() + 5000);
+		TaskFutureInProgress<String, String> future = new TaskFutureInProgress<>(cache, cacheKey);
+		Assert.assertFalse("Future should not be done while the call is in progress", future.isDone());
+		new Thread(() -> {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			cache.put(cacheKey, new ResultHolderDefault<>("A", "OK"));
+		}).start();
+		ResultHolder<String, String> holder = future.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals("Future should return the cached result", "OK", holder.getResult());
+		Assert.assertTrue("Future should be done", future.isDone());
+	}
+
+	@Test
+	public void testExpiredResultIgnored() throws Exception {
+		long now = System.currentTimeMillis();
+		// Past its logical expiry but not yet evicted by the cache
+		cache.put(cacheKey, new ResultHolderCached<>(new ResultHolderDefault<>("A", "OLD"), now - 2000, 10, now - 1000));
+		inProgressCache.put(cache.getName() + "-" + cacheKey, now + 5000);
+		TaskFutureInProgress<String, String> future = new TaskFutureInProgress<>(cache, cacheKey);
+		Assert.assertFalse("Future should not be done with an expired result", future.isDone());
+		cache.put(cacheKey, new ResultHolderDefault<>("A", "NEW"));
+		Assert.assertEquals("Future should return the new result", "NEW", future.get(5, TimeUnit.SECONDS).getResult());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		inProgressCache.put(cache.getName() + "-" + cacheKey, System.currentTimeMillis() + 5000);
+		TaskFutureInProgress<String, String> future = new TaskFutureInProgress<>(cache, cacheKey);
+		long start = System.currentTimeMillis();
+		try {
+			future.get(100, TimeUnit.MILLISECONDS);
+			Assert.fail("Future should time out while the call is in progress");
+		} catch (TimeoutException e) {
+			Assert.assertTrue("Future should wait for the timeout", System.currentTimeMillis() - start >= 100);
+		}
+		// A caller that timed out does not stop the next caller being woken
+		TaskFutureInProgress<String, String> next = new TaskFutureInProgress<>(cache, cacheKey);
+		cache.put(cacheKey, new ResultHolderDefault<>("A", "OK"));
+		Assert.assertEquals("Next caller should get the cached result", "OK", next.get(5, TimeUnit.SECONDS).getResult());
+	}
+
+	@Test
+	public void testAbandonedLeaseDetected() throws Exception {
+		// Lease that is never renewed
+		inProgressCache.put(cache.getName() + "-" + cacheKey, System.currentTimeMillis() + 100);
+		TaskFutureInProgress<String, String> future = new TaskFutureInProgress<>(cache, cacheKey);
+		ResultHolder<String, String> holder = future.get(5, TimeUnit.SECONDS);
+		Assert.assertTrue("Abandoned call should fail", holder.getException() instanceof ServiceException);
+		Assert.assertTrue("Abandoned call should be reported", holder.getException().getMessage().contains("abandoned"));
+	}
+
+	@Test
+	public void testLeaseRenewedOffTimerThread() throws Exception {
+		inProgressCache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+				FactoryBuilder.factoryOf(RenewalThreadListener.class), null, false, true));
+		RenewalThreadListener.THREADS.clear();
+		CountDownLatch release = new CountDownLatch(1);
+		TaskFuture<ResultHolder<String, String>> future = ServiceHelper.submitAsync("A", criteria -> {
+			release.await(5, TimeUnit.SECONDS);
+			return criteria;
+		}, cache, cacheKey, "test-single");
+		try {
+			String thread = RenewalThreadListener.THREADS.poll(5, TimeUnit.SECONDS);
+			Assert.assertNotNull("In progress lease should be renewed", thread);
+			Assert.assertNotEquals("In progress lease should not be renewed on the timer thread", "taskmaster-timer", thread);
+		} finally {
+			release.countDown();
+		}
+		future.get(5, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Records the threads that renew the in progress leases.
+	 */
+	public static class RenewalThreadListener implements CacheEntryUpdatedListener<String, Long>, Serializable {
+
+		private static final BlockingQueue<String> THREADS = new LinkedBlockingQueue<>();
+
+		@Override
+		public void onUpdated(final Iterable<CacheEntryEvent<? extends String, ? extends Long>> events) {
+			THREADS.add(Thread.currentThread().getName());
+		}
+	}
+
+}